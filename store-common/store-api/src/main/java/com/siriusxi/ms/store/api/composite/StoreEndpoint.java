@@ -1,14 +1,21 @@
 package com.siriusxi.ms.store.api.composite;
 
 import com.siriusxi.ms.store.api.composite.dto.ProductAggregate;
+import com.siriusxi.ms.store.api.composite.dto.ProductAggregatePart;
+import com.siriusxi.ms.store.api.composite.dto.ProductAggregateResult;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_STREAM_JSON_VALUE;
+import static org.springframework.http.MediaType.TEXT_EVENT_STREAM_VALUE;
 
 /**
  * Interface <code>StoreEndpoint</code> is a higher level Interface
@@ -24,6 +31,9 @@ import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 @RequestMapping("store/api/v1")
 public interface StoreEndpoint extends StoreService {
 
+  /** Newline delimited JSON, it has no <code>MediaType</code> constant before Spring 5.3. */
+  String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
   /**
    * Sample usage:
    *
@@ -59,6 +69,75 @@ public interface StoreEndpoint extends StoreService {
       @PathVariable int id,
       @RequestParam(value = "delay", required = false, defaultValue = "0") int delay,
       @RequestParam(value = "faultPercent",required = false, defaultValue = "0") int faultPercent);
+
+  /**
+   * Sample usage:
+   *
+   * <p><code>curl -H "Accept: application/x-ndjson" \
+   *    $HOST:$PORT/store/api/v1/products/1/stream</code></p>
+   *
+   * @param id is the product that you are looking for.
+   * @return the product header, then its recommendations and reviews as they arrive.
+   * @since v5.9
+   */
+  @ApiOperation(
+      value = "${api.product-composite.get-composite-product-stream.description}",
+      notes = "${api.product-composite.get-composite-product-stream.notes}")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            code = 400,
+            message = """
+                    Bad Request, invalid format of the request.
+                    See response message for more information.
+                    """),
+        @ApiResponse(code = 404, message = "Not found, the specified id does not exist."),
+        @ApiResponse(
+            code = 422,
+            message = """
+                    Unprocessable entity, input parameters caused the processing to fails.
+                    See response message for more information.
+                    """)
+      })
+  @GetMapping(value = "products/{id}/stream",
+          produces = {
+              APPLICATION_NDJSON_VALUE, TEXT_EVENT_STREAM_VALUE, APPLICATION_STREAM_JSON_VALUE
+          })
+  @Override
+  Flux<ProductAggregatePart> getProductStream(@PathVariable int id);
+
+  /**
+   * Sample usage:
+   *
+   * <p><code>curl $HOST:$PORT/store/api/v1/products?ids=1,2,3</code></p>
+   *
+   * @param ids are the products that you are looking for.
+   * @return one composite product result per id, found or not.
+   * @since v5.9
+   */
+  @ApiOperation(
+      value = "${api.product-composite.get-composite-products.description}",
+      notes = "${api.product-composite.get-composite-products.notes}")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            code = 400,
+            message = """
+                    Bad Request, invalid format of the request.
+                    See response message for more information.
+                    """),
+        @ApiResponse(
+            code = 422,
+            message = """
+                    Unprocessable entity, too many product ids are requested at once.
+                    See response message for more information.
+                    """)
+      })
+  @GetMapping(value = "products",
+          produces = APPLICATION_JSON_VALUE)
+  @Override
+  Flux<ProductAggregateResult> getProducts(@RequestParam("ids") List<Integer> ids);
+
   /**
    * Sample usage:
    *
@@ -1,8 +1,13 @@
 package com.siriusxi.ms.store.api.composite;
 
 import com.siriusxi.ms.store.api.composite.dto.ProductAggregate;
+import com.siriusxi.ms.store.api.composite.dto.ProductAggregatePart;
+import com.siriusxi.ms.store.api.composite.dto.ProductAggregateResult;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 /**
  * Interface that define the general service contract (methods) for the Store
  *
@@ -43,6 +48,30 @@ public interface StoreService {
    */
   Mono<ProductAggregate> getProduct(int id, int delay, int faultPercent);
 
+  /**
+   * Stream the aggregate product, the product header first, then its recommendations and reviews
+   * as they arrive from the core services, so neither of them is held in memory as a whole.
+   * It is a Non-Blocking API.
+   *
+   * @see ProductAggregatePart
+   * @param id is the product id that you are looking for.
+   * @return the product header followed by its recommendations and reviews.
+   * @since v5.9
+   */
+  Flux<ProductAggregatePart> getProductStream(int id);
+
+  /**
+   * Get the aggregate products of the given ids, with one call per core service for the whole
+   * batch. It is a Non-Blocking API.
+   *
+   * @see ProductAggregateResult
+   * @param ids are the product ids that you are looking for.
+   * @return one result per distinct id, in the requested order. An id that is not found or is
+   *     invalid gets its own error result, it does not fail the whole batch.
+   * @since v5.9
+   */
+  Flux<ProductAggregateResult> getProducts(List<Integer> ids);
+
   /**
    * Delete the product and all its relate reviews and recommendations from their repositories.
    *
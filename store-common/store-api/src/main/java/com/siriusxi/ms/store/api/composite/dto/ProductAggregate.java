@@ -3,6 +3,9 @@ package com.siriusxi.ms.store.api.composite.dto;
 import java.util.List;
 /**
  * Record <code>ProductAggregate</code> that hold all the product aggregate information.
+ * It is <code>stale</code> when the product information is the last known good copy, served
+ * while the product service is unavailable. Its <code>ratingSummary</code> is optional, it is only
+ * set when the composite service is configured to fetch it.
  *
  * @implNote Since it is a record and not normal POJO, so it needs some customizations
  * to be serialized to JSON and this is done with method
@@ -11,7 +14,7 @@ import java.util.List;
  * @see java.lang.Record
  * @see com.siriusxi.ms.store.util.config.GlobalConfiguration
  * @author mohamed.taman
- * @version v4.6
+ * @version v5.9
  * @since v0.1
  */
 public record ProductAggregate (int productId,
@@ -19,5 +22,7 @@ public record ProductAggregate (int productId,
                                 int weight,
                                 List<RecommendationSummary> recommendations,
                                 List<ReviewSummary>reviews,
-                                ServiceAddresses serviceAddresses) {
+                                RatingSummary ratingSummary,
+                                ServiceAddresses serviceAddresses,
+                                boolean stale) {
 }
\ No newline at end of file
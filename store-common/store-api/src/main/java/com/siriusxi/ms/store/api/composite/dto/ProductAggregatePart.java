@@ -0,0 +1,40 @@
+package com.siriusxi.ms.store.api.composite.dto;
+
+/**
+ * Record <code>ProductAggregatePart</code> that hold one element of a streamed product aggregate.
+ * The first part is the product header, a <code>ProductAggregate</code> without recommendations
+ * and reviews, followed by one part per recommendation or review, in their arrival order.
+ *
+ * @implNote Since it is a record and not normal POJO, so it needs some customizations
+ * to be serialized to JSON and this is done with method
+ * <code>GlobalConfiguration.jacksonCustomizer()</code>.
+ *
+ * @see java.lang.Record
+ * @see com.siriusxi.ms.store.util.config.GlobalConfiguration
+ * @author mohamed.taman
+ * @version v5.9
+ * @since v5.9
+ */
+public record ProductAggregatePart(Type type,
+                                   ProductAggregate product,
+                                   RecommendationSummary recommendation,
+                                   ReviewSummary review) {
+
+  public enum Type {
+    PRODUCT,
+    RECOMMENDATION,
+    REVIEW
+  }
+
+  public static ProductAggregatePart of(ProductAggregate product) {
+    return new ProductAggregatePart(Type.PRODUCT, product, null, null);
+  }
+
+  public static ProductAggregatePart of(RecommendationSummary recommendation) {
+    return new ProductAggregatePart(Type.RECOMMENDATION, null, recommendation, null);
+  }
+
+  public static ProductAggregatePart of(ReviewSummary review) {
+    return new ProductAggregatePart(Type.REVIEW, null, null, review);
+  }
+}
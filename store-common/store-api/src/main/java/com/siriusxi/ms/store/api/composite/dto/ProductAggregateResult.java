@@ -0,0 +1,29 @@
+package com.siriusxi.ms.store.api.composite.dto;
+
+/**
+ * Record <code>ProductAggregateResult</code> that hold one item of a batch composite lookup, it is
+ * either the found product aggregate, or the error of this product id only.
+ *
+ * @implNote Since it is a record and not normal POJO, so it needs some customizations
+ * to be serialized to JSON and this is done with method
+ * <code>GlobalConfiguration.jacksonCustomizer()</code>.
+ *
+ * @see java.lang.Record
+ * @see com.siriusxi.ms.store.util.config.GlobalConfiguration
+ * @author mohamed.taman
+ * @version v5.9
+ * @since v5.9
+ */
+public record ProductAggregateResult(int productId,
+                                     int status,
+                                     String message,
+                                     ProductAggregate product) {
+
+  public static ProductAggregateResult found(ProductAggregate product) {
+    return new ProductAggregateResult(product.productId(), 200, null, product);
+  }
+
+  public static ProductAggregateResult failed(int productId, int status, String message) {
+    return new ProductAggregateResult(productId, status, message, null);
+  }
+}
@@ -0,0 +1,24 @@
+package com.siriusxi.ms.store.api.composite.dto;
+
+import java.util.Map;
+
+/**
+ * Record <code>RatingSummary</code> that hold the rating statistics of all the product
+ * recommendations, enough to show the product stars without its recommendations.
+ *
+ * @implNote Since it is a record and not normal POJO, so it needs some customizations
+ * to be serialized to JSON and this is done with method
+ * <code>GlobalConfiguration.jacksonCustomizer()</code>.
+ *
+ * @see java.lang.Record
+ * @see com.siriusxi.ms.store.util.config.GlobalConfiguration
+ * @author mohamed.taman
+ * @version v5.9
+ * @since v5.9
+ */
+public record RatingSummary(long count,
+                            double average,
+                            Integer min,
+                            Integer max,
+                            Map<Integer, Long> histogram) {
+}
@@ -5,9 +5,13 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_STREAM_JSON_VALUE;
 
 /**
  * Interface <code>ProductEndpoint</code> is a higher level Interface to define <strong>Product
@@ -37,4 +41,20 @@ public interface ProductEndpoint extends ProductService {
       @PathVariable("productId") int id,
       @RequestParam(value = "delay", required = false, defaultValue = "0") int delay,
       @RequestParam(value = "faultPercent", required = false, defaultValue = "0") int faultPercent);
+
+  /**
+   * Sample usage:
+   *
+   * <p><code>curl $HOST:$PORT/products?ids=1,2,3</code>
+   *
+   * <p>Ask for <code>application/stream+json</code> to get the products streamed back, one JSON
+   * document per line, sorted by product id.
+   *
+   * @param ids are the products that you are looking for.
+   * @return the found products, ids that are not found are just skipped.
+   * @since v5.9
+   */
+  @GetMapping(produces = {APPLICATION_JSON_VALUE, APPLICATION_STREAM_JSON_VALUE})
+  @Override
+  Flux<Product> getProducts(@RequestParam("ids") List<Integer> ids);
 }
@@ -1,8 +1,11 @@
 package com.siriusxi.ms.store.api.core.product;
 
 import com.siriusxi.ms.store.api.core.product.dto.Product;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 /**
  * Interface that define the general service contract (methods) for the Product
  *
@@ -31,6 +34,15 @@ public interface ProductService {
    */
   Mono<Product> getProduct(int id, int delay, int faultPercent);
 
+  /**
+   * Get all the found products of the given ids in one call. It is a Non-Blocking API.
+   *
+   * @param ids are the product ids that you are looking for.
+   * @return the found products sorted by product id, ids that are not found are just skipped.
+   * @since v5.9
+   */
+  Flux<Product> getProducts(List<Integer> ids);
+
   /**
    * Add product to the repository.
    *
@@ -49,4 +61,27 @@ public interface ProductService {
    * @since v0.1
    */
   default void deleteProduct(int id) {}
+
+  /**
+   * Add product to the repository. It is a Non-Blocking API.
+   *
+   * @param body product to save.
+   * @return the saved product.
+   * @since v5.9
+   */
+  default Mono<Product> createProductAsync(Product body) {
+    return Mono.fromCallable(() -> createProduct(body));
+  }
+
+  /**
+   * Delete the product from repository. It is a Non-Blocking API.
+   *
+   * @implNote This method should be idempotent.
+   * @param id to be deleted.
+   * @return completes once the product is deleted.
+   * @since v5.9
+   */
+  default Mono<Void> deleteProductAsync(int id) {
+    return Mono.fromRunnable(() -> deleteProduct(id));
+  }
 }
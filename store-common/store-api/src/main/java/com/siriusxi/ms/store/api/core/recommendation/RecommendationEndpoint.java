@@ -1,12 +1,18 @@
 package com.siriusxi.ms.store.api.core.recommendation;
 
+import com.siriusxi.ms.store.api.core.recommendation.dto.RatingStats;
 import com.siriusxi.ms.store.api.core.recommendation.dto.Recommendation;
+import com.siriusxi.ms.store.api.core.recommendation.dto.RecommendationPage;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
 
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_STREAM_JSON_VALUE;
 /**
  * Interface <code>RecommendationEndpoint</code> is a higher level Interface to define
  * <strong>Recommendation Service</strong> endpoint APIs, that follow <code>RecommendationService
@@ -25,11 +31,71 @@ public interface RecommendationEndpoint extends RecommendationService {
    *
    * <p><code>curl $HOST:$PORT/recommendations?productId=1</code>
    *
+   * <p>Ask for <code>application/stream+json</code> to get the recommendations streamed back, one
+   * JSON document per line.
+   *
    * @param productId that you are looking for its recommendations.
    * @return list of product recommendations, or empty list if there are no recommendations.
    * @since v3.0 codename Storm
    */
-  @GetMapping(produces = APPLICATION_JSON_VALUE)
+  @GetMapping(produces = {APPLICATION_JSON_VALUE, APPLICATION_STREAM_JSON_VALUE})
   @Override
   Flux<Recommendation> getRecommendations(@RequestParam("productId") int productId);
+
+  /**
+   * Sample usage:
+   *
+   * <p><code>curl $HOST:$PORT/recommendations?productIds=1,2,3</code>
+   *
+   * <p>Ask for <code>application/stream+json</code> to get the recommendations streamed back, one
+   * JSON document per line. Recommendations of the same product always come next to each other,
+   * sorted by product id, so the caller can demultiplex them without buffering the whole result.
+   *
+   * @param productIds that you are looking for their recommendations.
+   * @return recommendations of all the products, grouped by product id.
+   * @since v5.9
+   */
+  @GetMapping(
+      params = "productIds",
+      produces = {APPLICATION_JSON_VALUE, APPLICATION_STREAM_JSON_VALUE})
+  @Override
+  Flux<Recommendation> getRecommendations(@RequestParam("productIds") List<Integer> productIds);
+
+  /**
+   * Sample usage:
+   *
+   * <p><code>curl $HOST:$PORT/recommendations?productId=1&limit=10</code>
+   *
+   * <p>The page holds the recommendations after the <code>after</code> recommendation id, sorted by
+   * recommendation id. Its <code>next</code> link, such as <code>
+   * /recommendations?productId=1&after=10&limit=10</code>, gets the next page; it is empty on the
+   * last page.
+   *
+   * @param productId that you are looking for its recommendations.
+   * @param after the cursor, the recommendation id the page starts after, 0 for the first page.
+   * @param limit the maximum number of recommendations of the page.
+   * @return the page of the product recommendations.
+   * @since v5.9
+   */
+  @GetMapping(
+      params = {"productId", "limit"},
+      produces = APPLICATION_JSON_VALUE)
+  @Override
+  Mono<RecommendationPage> getRecommendations(
+      @RequestParam("productId") int productId,
+      @RequestParam(value = "after", defaultValue = "0") int after,
+      @RequestParam("limit") int limit);
+
+  /**
+   * Sample usage:
+   *
+   * <p><code>curl $HOST:$PORT/recommendations/rating-stats?productId=1</code>
+   *
+   * @param productId that you are looking for its rating statistics.
+   * @return the rating statistics of the product recommendations.
+   * @since v5.9
+   */
+  @GetMapping(value = "rating-stats", produces = APPLICATION_JSON_VALUE)
+  @Override
+  Mono<RatingStats> getRatingStats(@RequestParam("productId") int productId);
 }
@@ -1,7 +1,12 @@
 package com.siriusxi.ms.store.api.core.recommendation;
 
+import com.siriusxi.ms.store.api.core.recommendation.dto.RatingStats;
 import com.siriusxi.ms.store.api.core.recommendation.dto.Recommendation;
+import com.siriusxi.ms.store.api.core.recommendation.dto.RecommendationPage;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
 
 /**
  * Interface that define the general service contract (methods) for the Recommendation
@@ -25,6 +30,37 @@ public interface RecommendationService {
    */
   Flux<Recommendation> getRecommendations(int productId);
 
+  /**
+   * Get all recommendations of the given products in one call. It is a Non-Blocking API.
+   *
+   * @param productIds that you are looking for their recommendations.
+   * @return recommendations of all the products, grouped and sorted by product id.
+   * @since v5.9
+   */
+  Flux<Recommendation> getRecommendations(List<Integer> productIds);
+
+  /**
+   * Get one page of the recommendations of a product, sorted by recommendation id. It is a
+   * Non-Blocking API.
+   *
+   * @param productId that you are looking for its recommendations.
+   * @param after the cursor, the recommendation id the page starts after, 0 for the first page.
+   * @param limit the maximum number of recommendations of the page.
+   * @return the page, with the link to the next page, or no link if it is the last page.
+   * @since v5.9
+   */
+  Mono<RecommendationPage> getRecommendations(int productId, int after, int limit);
+
+  /**
+   * Get the rating statistics of the recommendations of a product, without reading them. It is a
+   * Non-Blocking API.
+   *
+   * @param productId that you are looking for its rating statistics.
+   * @return the rating statistics, with a zero count if there are no recommendations.
+   * @since v5.9
+   */
+  Mono<RatingStats> getRatingStats(int productId);
+
   /**
    * Create a new recommendation for a product.
    *
@@ -36,6 +72,18 @@ public interface RecommendationService {
     return null;
   }
 
+  /**
+   * Create all the recommendations of a product at once.
+   *
+   * @param productId of the recommendations.
+   * @param body the recommendations to add, all of the product.
+   * @return number of created recommendations.
+   * @since v5.9
+   */
+  default int createRecommendations(int productId, List<Recommendation> body) {
+    return 0;
+  }
+
   /**
    * Delete all product recommendations.
    *
@@ -43,4 +91,38 @@ public interface RecommendationService {
    * @since v0.1
    */
   default void deleteRecommendations(int productId) {}
+
+  /**
+   * Create a new recommendation for a product. It is a Non-Blocking API.
+   *
+   * @param body the recommendation to add.
+   * @return the created recommendation.
+   * @since v5.9
+   */
+  default Mono<Recommendation> createRecommendationAsync(Recommendation body) {
+    return Mono.fromCallable(() -> createRecommendation(body));
+  }
+
+  /**
+   * Create all the recommendations of a product at once. It is a Non-Blocking API.
+   *
+   * @param productId of the recommendations.
+   * @param body the recommendations to add, all of the product.
+   * @return number of created recommendations.
+   * @since v5.9
+   */
+  default Mono<Integer> createRecommendationsAsync(int productId, List<Recommendation> body) {
+    return Mono.fromCallable(() -> createRecommendations(productId, body));
+  }
+
+  /**
+   * Delete all product recommendations. It is a Non-Blocking API.
+   *
+   * @param productId to delete recommendations for.
+   * @return completes once the recommendations are deleted.
+   * @since v5.9
+   */
+  default Mono<Void> deleteRecommendationsAsync(int productId) {
+    return Mono.fromRunnable(() -> deleteRecommendations(productId));
+  }
 }
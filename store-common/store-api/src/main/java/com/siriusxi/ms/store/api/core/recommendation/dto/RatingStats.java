@@ -0,0 +1,29 @@
+package com.siriusxi.ms.store.api.core.recommendation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Class <code>RatingStats</code> holds the rating statistics of the recommendations of a product:
+ * their count, the sum, minimum and maximum of their ratings, and the number of recommendations
+ * per rating. A product without recommendations has a zero count, and no minimum nor maximum.
+ *
+ * @author mohamed.taman
+ * @version v5.9
+ * @since v5.9
+ */
+@Data
+@NoArgsConstructor(force = true)
+@AllArgsConstructor
+public class RatingStats {
+  private int productId;
+  private long count;
+  private long sum;
+  private Integer min;
+  private Integer max;
+  private Map<Integer, Long> histogram;
+  private String serviceAddress;
+}
@@ -0,0 +1,21 @@
+package com.siriusxi.ms.store.api.core.recommendation.dto;
+
+import java.util.List;
+
+/**
+ * Record <code>RecommendationPage</code> that hold one page of the recommendations of a product,
+ * sorted by recommendation id, and the link to the next page.
+ *
+ * @implNote Since it is a record and not normal POJO, so it needs some customizations
+ * to be serialized to JSON and this is done with method
+ * <code>GlobalConfiguration.jacksonCustomizer()</code>.
+ *
+ * @see java.lang.Record
+ * @see com.siriusxi.ms.store.util.config.GlobalConfiguration
+ * @author mohamed.taman
+ * @version v5.9
+ * @since v5.9
+ */
+public record RecommendationPage(List<Recommendation> recommendations,
+                                 String next) {
+}
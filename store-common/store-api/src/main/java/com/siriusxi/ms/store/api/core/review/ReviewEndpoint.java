@@ -7,6 +7,7 @@ import reactor.core.publisher.Flux;
 import java.util.List;
 
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_STREAM_JSON_VALUE;
 
 /**
  * Interface <code>ReviewEndpoint</code> is a higher level Interface to define <strong>Review
@@ -26,11 +27,33 @@ public interface ReviewEndpoint extends ReviewService {
    *
    * <p><code>curl $HOST:$PORT/reviews?productId=1</code>
    *
+   * <p>Ask for <code>application/stream+json</code> to get the reviews streamed back, one JSON
+   * document per line.
+   *
    * @param productId that you are looking for its reviews.
    * @return list of reviews for this product, or empty list if there are no reviews.
    * @since v3.0 codename Storm
    */
-  @GetMapping(produces = APPLICATION_JSON_VALUE)
+  @GetMapping(produces = {APPLICATION_JSON_VALUE, APPLICATION_STREAM_JSON_VALUE})
   @Override
   Flux<Review> getReviews(@RequestParam("productId") int productId);
+
+  /**
+   * Sample usage:
+   *
+   * <p><code>curl $HOST:$PORT/reviews?productIds=1,2,3</code>
+   *
+   * <p>Ask for <code>application/stream+json</code> to get the reviews streamed back, one JSON
+   * document per line. Reviews of the same product always come next to each other, sorted by
+   * product id, so the caller can demultiplex them without buffering the whole result.
+   *
+   * @param productIds that you are looking for their reviews.
+   * @return reviews of all the products, grouped by product id.
+   * @since v5.9
+   */
+  @GetMapping(
+      params = "productIds",
+      produces = {APPLICATION_JSON_VALUE, APPLICATION_STREAM_JSON_VALUE})
+  @Override
+  Flux<Review> getReviews(@RequestParam("productIds") List<Integer> productIds);
 }
@@ -28,6 +28,16 @@ public interface ReviewService {
    */
   Flux<Review> getReviews(int productId);
 
+  /**
+   * Get all reviews of the given products in one call.
+   * It is a Non-Blocking API.
+   *
+   * @param productIds that you are looking for their reviews.
+   * @return reviews of all the products, grouped and sorted by product id.
+   * @since v5.9
+   */
+  Flux<Review> getReviews(List<Integer> productIds);
+
   /**
    * Create a new review for a product.
    *
@@ -36,6 +46,18 @@ public interface ReviewService {
    */
   default Review createReview(Review body){return null;}
 
+  /**
+   * Create all the reviews of a product at once.
+   *
+   * @param productId of the reviews.
+   * @param body the reviews to add, all of the product.
+   * @return number of created reviews.
+   * @since v5.9
+   */
+  default int createReviews(int productId, List<Review> body) {
+    return 0;
+  }
+
   /**
    * Delete all product reviews.
    *
@@ -28,8 +28,14 @@ public class Event<K, T> {
     this.eventCreatedAt = now();
   }
 
+  /*
+   The binary event format writes the position of the type, so new types are only added at the
+   end.
+  */
   public enum Type {
     CREATE,
-    DELETE
+    DELETE,
+    /** Creates all the items of the data, a list, at once. */
+    CREATE_ALL
   }
 }
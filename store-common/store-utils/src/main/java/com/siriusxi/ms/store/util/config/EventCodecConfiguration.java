@@ -0,0 +1,45 @@
+package com.siriusxi.ms.store.util.config;
+
+import com.siriusxi.ms.store.util.messaging.EventCodec;
+import com.siriusxi.ms.store.util.messaging.EventMessageConverter;
+import com.siriusxi.ms.store.util.messaging.PayloadCodec;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.converter.MessageConverter;
+
+import java.util.List;
+
+import static com.siriusxi.ms.store.util.messaging.StorePayloadCodecs.PRODUCT;
+import static com.siriusxi.ms.store.util.messaging.StorePayloadCodecs.RECOMMENDATION;
+import static com.siriusxi.ms.store.util.messaging.StorePayloadCodecs.REVIEW;
+
+/**
+ * Class <code>EventCodecConfiguration</code> registers the binary event format with Spring Cloud
+ * Stream, in every service, so a service reads it as soon as it is deployed. A producer only
+ * writes it once its output binding <code>contentType</code> is set to {@value
+ * EventMessageConverter#CONTENT_TYPE}.
+ *
+ * @author mohamed.taman
+ * @version v5.9
+ * @since v5.9
+ */
+@Configuration
+public class EventCodecConfiguration {
+
+  @Bean
+  public EventCodec eventCodec() {
+    return new EventCodec(List.<PayloadCodec<?>>of(PRODUCT, RECOMMENDATION, REVIEW));
+  }
+
+  /**
+   * Spring Cloud Stream adds the <code>MessageConverter</code> beans to the converters it
+   * negotiates the content type with.
+   *
+   * @param eventCodec to write and read the events.
+   * @return MessageConverter of the binary event format.
+   */
+  @Bean
+  public MessageConverter eventMessageConverter(EventCodec eventCodec) {
+    return new EventMessageConverter(eventCodec);
+  }
+}
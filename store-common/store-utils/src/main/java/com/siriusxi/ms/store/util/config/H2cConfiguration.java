@@ -0,0 +1,37 @@
+package com.siriusxi.ms.store.util.config;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.netty.http.HttpProtocol;
+
+/**
+ * Class <code>H2cConfiguration</code> makes the service accept cleartext HTTP/2, h2c, next to
+ * HTTP/1.1, when <code>app.h2c.enabled</code> is set, so the store service can multiplex its calls
+ * to the core services over a few connections.
+ *
+ * @author mohamed.taman
+ * @version v5.9
+ * @since v5.9
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.h2c.enabled", havingValue = "true")
+@Log4j2
+public class H2cConfiguration {
+
+  /**
+   * Adds h2c to the protocols of the embedded Netty server, HTTP/1.1 clients are still served.
+   *
+   * @return WebServerFactoryCustomizer of the Netty server.
+   */
+  @Bean
+  public WebServerFactoryCustomizer<NettyReactiveWebServerFactory> h2cServerCustomizer() {
+    log.info("Accepts h2c, cleartext HTTP/2, connections");
+    return factory ->
+        factory.addServerCustomizers(
+            server -> server.protocol(HttpProtocol.H2C, HttpProtocol.HTTP11));
+  }
+}
@@ -0,0 +1,62 @@
+package com.siriusxi.ms.store.util.http;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import static com.siriusxi.ms.store.util.http.Deadlines.CONTEXT_KEY;
+import static com.siriusxi.ms.store.util.http.Deadlines.HEADER;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Class <code>DeadlineFilter</code> sets the deadline of each incoming request, from the remaining
+ * budget sent by the caller in the {@value Deadlines#HEADER} header, or from <code>
+ * app.deadline.defaultMs</code> when the request has none, that is, at the edge.
+ *
+ * <p>A default of zero, the default, means requests without the header have no deadline.
+ *
+ * @see Deadlines
+ * @author mohamed.taman
+ * @version v5.9
+ * @since v5.9
+ */
+@Component
+@Log4j2
+public class DeadlineFilter implements WebFilter {
+
+  private final long defaultBudgetMs;
+
+  @Autowired
+  public DeadlineFilter(@Value("${app.deadline.defaultMs:0}") long defaultBudgetMs) {
+    this.defaultBudgetMs = defaultBudgetMs;
+  }
+
+  @Override
+  public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+
+    long budgetMs = budgetOf(exchange.getRequest().getHeaders().getFirst(HEADER));
+    if (budgetMs < 0) return chain.filter(exchange);
+
+    long deadline = System.nanoTime() + MILLISECONDS.toNanos(budgetMs);
+
+    return chain.filter(exchange).subscriberContext(ctx -> ctx.put(CONTEXT_KEY, deadline));
+  }
+
+  /** Returns the request budget in milliseconds, or -1 if the request has no deadline. */
+  private long budgetOf(String header) {
+    if (header != null) {
+      try {
+        // A spent budget still sets a deadline, one that is already over.
+        return Math.max(0, Long.parseLong(header));
+      } catch (NumberFormatException ex) {
+        log.warn("Ignores an invalid {} header: {}", HEADER, header);
+      }
+    }
+    return defaultBudgetMs > 0 ? defaultBudgetMs : -1;
+  }
+}
@@ -0,0 +1,147 @@
+package com.siriusxi.ms.store.util.http;
+
+import com.siriusxi.ms.store.util.exceptions.DeadlineExceededException;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static java.lang.String.valueOf;
+
+/**
+ * Class <code>Deadlines</code> enforces the request deadline set by the {@link DeadlineFilter},
+ * on the work done for the request, and passes what is left of it to the next hop.
+ *
+ * <p>The deadline travels between services as the remaining budget, in milliseconds, in the
+ * {@value #HEADER} header, so the clocks of the services do not have to agree. Inside a service
+ * it is kept in the reactor context as a <code>System.nanoTime()</code> based instant.
+ *
+ * <p>Work that misses the deadline is cancelled, fails with a {@link DeadlineExceededException}
+ * and is counted by the <code>deadline.exceeded</code> counter, per <code>hop</code> tag.
+ *
+ * @author mohamed.taman
+ * @version v5.9
+ * @since v5.9
+ */
+@Component
+@Log4j2
+public class Deadlines {
+
+  /** The remaining request budget in milliseconds. */
+  public static final String HEADER = "X-Deadline-Remaining-Ms";
+
+  static final String CONTEXT_KEY = Deadlines.class.getName();
+
+  private final MeterRegistry registry;
+
+  @Autowired
+  public Deadlines(MeterRegistry registry) {
+    this.registry = registry;
+  }
+
+  /**
+   * Cancels the work once the request deadline, if any, is over. Work whose deadline is already
+   * over when it is subscribed to is not started at all.
+   *
+   * @param hop the name of the work, used as the metrics tag.
+   * @param work to be done within the request deadline.
+   * @return the work, or a <code>DeadlineExceededException</code> if it misses the deadline.
+   */
+  public <T> Mono<T> within(String hop, Mono<T> work) {
+    return Mono.subscriberContext()
+        .flatMap(
+            ctx ->
+                deadlineOf(ctx)
+                    .map(
+                        deadline ->
+                            isOver(deadline)
+                                ? Mono.<T>error(exceeded(hop))
+                                : work.timeout(
+                                    Mono.delay(remaining(deadline)),
+                                    Mono.defer(() -> Mono.error(exceeded(hop)))))
+                    .orElse(work));
+  }
+
+  /**
+   * Cancels the work once the request deadline, if any, is over.
+   *
+   * @param hop the name of the work, used as the metrics tag.
+   * @param work to be done within the request deadline.
+   * @return the work, or a <code>DeadlineExceededException</code> if it misses the deadline.
+   */
+  public <T> Flux<T> within(String hop, Flux<T> work) {
+    // Each item renews the timeout with what is left, so the deadline bounds the whole stream.
+    return Mono.subscriberContext()
+        .flatMapMany(
+            ctx ->
+                deadlineOf(ctx)
+                    .map(
+                        deadline ->
+                            isOver(deadline)
+                                ? Flux.<T>error(exceeded(hop))
+                                : work.timeout(
+                                    Mono.delay(remaining(deadline)),
+                                    item -> Mono.delay(remaining(deadline)),
+                                    Flux.defer(() -> Flux.error(exceeded(hop)))))
+                    .orElse(work));
+  }
+
+  /**
+   * Detaches the work from the request deadline: it is not cancelled by it, and the calls it makes
+   * do not carry it. Work shared by requests with different deadlines is detached, and each request
+   * applies its own deadline with <code>within</code>.
+   *
+   * @param work to be done regardless of the request deadline.
+   * @return the work, without the request deadline.
+   */
+  public <T> Flux<T> detached(Flux<T> work) {
+    return work.subscriberContext(ctx -> ctx.delete(CONTEXT_KEY));
+  }
+
+  /**
+   * Adds the remaining request budget, if any, to the outgoing calls of a <code>WebClient</code>.
+   *
+   * @return the exchange filter to register on the <code>WebClient.Builder</code>.
+   */
+  public ExchangeFilterFunction propagate() {
+    return (request, next) ->
+        Mono.subscriberContext()
+            .flatMap(
+                ctx ->
+                    next.exchange(
+                        deadlineOf(ctx)
+                            .map(
+                                deadline ->
+                                    ClientRequest.from(request)
+                                        .header(
+                                            HEADER, valueOf(remaining(deadline).toMillis()))
+                                        .build())
+                            .orElse(request)));
+  }
+
+  private Optional<Long> deadlineOf(Context ctx) {
+    return ctx.getOrEmpty(CONTEXT_KEY);
+  }
+
+  private boolean isOver(long deadline) {
+    return deadline - System.nanoTime() <= 0;
+  }
+
+  private Duration remaining(long deadline) {
+    return Duration.ofNanos(Math.max(0, deadline - System.nanoTime()));
+  }
+
+  private DeadlineExceededException exceeded(String hop) {
+    log.warn("The request deadline is exceeded by: {}", hop);
+    registry.counter("deadline.exceeded", "hop", hop).increment();
+    return new DeadlineExceededException("Request deadline exceeded by: " + hop);
+  }
+}
@@ -1,7 +1,9 @@
 package com.siriusxi.ms.store.util.http;
 
+import com.siriusxi.ms.store.util.exceptions.DeadlineExceededException;
 import com.siriusxi.ms.store.util.exceptions.InvalidInputException;
 import com.siriusxi.ms.store.util.exceptions.NotFoundException;
+import com.siriusxi.ms.store.util.exceptions.ServiceUnavailableException;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.server.reactive.ServerHttpRequest;
@@ -10,7 +12,9 @@ import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import static org.springframework.http.HttpStatus.GATEWAY_TIMEOUT;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
 import static org.springframework.http.HttpStatus.UNPROCESSABLE_ENTITY;
 
 /**
@@ -22,7 +26,7 @@ import static org.springframework.http.HttpStatus.UNPROCESSABLE_ENTITY;
  *
  * @see org.springframework.context.annotation.ComponentScan
  * @author mohamed.taman
- * @version v1.3
+ * @version v5.9
  * @since v0.1
  */
 @RestControllerAdvice
@@ -61,6 +65,38 @@ class GlobalControllerExceptionHandler {
     return createHttpErrorInfo(UNPROCESSABLE_ENTITY, request, ex);
   }
 
+  /**
+   * Method to handle <i>deadline exceeded exception</i> http error info.
+   *
+   * @param request the request to get some request information
+   * @param ex the ex to get its information
+   * @return the http error information.
+   * @since v5.9
+   */
+  @ResponseStatus(GATEWAY_TIMEOUT)
+  @ExceptionHandler(DeadlineExceededException.class)
+  public @ResponseBody HttpErrorInfo handleDeadlineExceededException(
+      ServerHttpRequest request, Exception ex) {
+
+    return createHttpErrorInfo(GATEWAY_TIMEOUT, request, ex);
+  }
+
+  /**
+   * Method to handle <i>service unavailable exception</i> http error info.
+   *
+   * @param request the request to get some request information
+   * @param ex the ex to get its information
+   * @return the http error information.
+   * @since v5.9
+   */
+  @ResponseStatus(SERVICE_UNAVAILABLE)
+  @ExceptionHandler(ServiceUnavailableException.class)
+  public @ResponseBody HttpErrorInfo handleServiceUnavailableException(
+      ServerHttpRequest request, Exception ex) {
+
+    return createHttpErrorInfo(SERVICE_UNAVAILABLE, request, ex);
+  }
+
   private HttpErrorInfo createHttpErrorInfo(
       HttpStatus httpStatus, ServerHttpRequest request, Exception ex) {
     final var path = request.getPath().pathWithinApplication().value();
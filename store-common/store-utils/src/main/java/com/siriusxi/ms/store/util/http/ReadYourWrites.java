@@ -0,0 +1,67 @@
+package com.siriusxi.ms.store.util.http;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+/**
+ * Class <code>ReadYourWrites</code> is the per request opt-in to read what was just written: a
+ * request with the {@value #HEADER} header set to <code>true</code> reads from the primary, and
+ * skips the caches, where the reads are otherwise served by replicas that may lag behind.
+ *
+ * <p>The opt-in is kept in the reactor context of the request, and passed on to the calls of a
+ * <code>WebClient</code> that registers the <code>propagate</code> filter.
+ *
+ * @see com.siriusxi.ms.store.util.persistence.MongoReadRouting
+ * @author mohamed.taman
+ * @version v5.9
+ * @since v5.9
+ */
+@Component
+public class ReadYourWrites implements WebFilter {
+
+  /** Set to <code>true</code> to read the latest writes. */
+  public static final String HEADER = "X-Read-Your-Writes";
+
+  private static final String CONTEXT_KEY = ReadYourWrites.class.getName();
+
+  @Override
+  public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+
+    if (!Boolean.parseBoolean(exchange.getRequest().getHeaders().getFirst(HEADER))) {
+      return chain.filter(exchange);
+    }
+
+    return chain.filter(exchange).subscriberContext(ctx -> ctx.put(CONTEXT_KEY, true));
+  }
+
+  /** @return whether the current request asked to read its writes. */
+  public Mono<Boolean> requested() {
+    return Mono.subscriberContext().map(this::isRequested);
+  }
+
+  /**
+   * Passes the opt-in, if any, on to the outgoing calls of a <code>WebClient</code>.
+   *
+   * @return the exchange filter to register on the <code>WebClient.Builder</code>.
+   */
+  public ExchangeFilterFunction propagate() {
+    return (request, next) ->
+        Mono.subscriberContext()
+            .flatMap(
+                ctx ->
+                    next.exchange(
+                        isRequested(ctx)
+                            ? ClientRequest.from(request).header(HEADER, "true").build()
+                            : request));
+  }
+
+  private boolean isRequested(Context ctx) {
+    return ctx.getOrDefault(CONTEXT_KEY, false);
+  }
+}
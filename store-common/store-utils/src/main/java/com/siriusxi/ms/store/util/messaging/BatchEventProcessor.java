@@ -0,0 +1,221 @@
+package com.siriusxi.ms.store.util.messaging;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siriusxi.ms.store.api.event.Event;
+import com.siriusxi.ms.store.util.exceptions.EventProcessingException;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.messaging.MessageChannel;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.siriusxi.ms.store.api.event.Event.Type.CREATE;
+import static com.siriusxi.ms.store.api.event.Event.Type.CREATE_ALL;
+import static com.siriusxi.ms.store.api.event.Event.Type.DELETE;
+import static com.siriusxi.ms.store.util.messaging.EventChannels.deadLetterOf;
+
+/**
+ * Class <code>BatchEventProcessor</code> is the batch mode of the event consumers of the core
+ * services: it receives the events as lists, as many as the binder collects within its size and
+ * time window, and applies each run of consecutive CREATE or DELETE events with one write, instead
+ * of one write per event. A CREATE_ALL event is expanded into the CREATE events of its items, so
+ * they join the run of creates.
+ *
+ * <p>Runs are applied in their arrival order, so an item created and then deleted in the same batch
+ * ends up deleted. A message that can not be read, or an event that can not be applied, such as a
+ * duplicate item, does not fail the batch; it is sent alone to the dead letter queue, with the
+ * reason in the {@value EventChannels#EXCEPTION_MESSAGE} header, as the binder does for a failed
+ * event in the single event mode.
+ *
+ * <p>The services extend it with the writes of their items, and call <code>processBatch</code>
+ * from their batch listener.
+ *
+ * @param <T> type of the items of the events.
+ * @author mohamed.taman
+ * @version v5.9
+ * @since v5.9
+ */
+@Log4j2
+public abstract class BatchEventProcessor<T> {
+
+  private final String itemName;
+  private final Class<T> itemType;
+  private final MessageChannel dlq;
+  private final ObjectMapper objectMapper;
+  private final EventCodec codec;
+  private final EventMetrics metrics;
+  private final EventPayloads payloads;
+  private final JavaType eventType;
+
+  protected BatchEventProcessor(
+      String itemName,
+      Class<T> itemType,
+      MessageChannel dlq,
+      ObjectMapper objectMapper,
+      EventCodec codec,
+      EventMetrics metrics,
+      EventPayloads payloads) {
+    this.itemName = itemName;
+    this.itemType = itemType;
+    this.dlq = dlq;
+    this.objectMapper = objectMapper;
+    this.codec = codec;
+    this.metrics = metrics;
+    this.payloads = payloads;
+    this.eventType =
+        objectMapper
+            .getTypeFactory()
+            .constructParametricType(Event.class, Integer.class, Object.class);
+  }
+
+  /**
+   * Applies the events of a batch, the ones that fail are sent to the DLQ.
+   *
+   * @param batch the payloads of the batch messages, as handed over by the binder.
+   */
+  protected void processBatch(List<?> batch) {
+
+    log.info("Process a batch of {} messages...", batch.size());
+
+    List<Event<Integer, T>> events = new ArrayList<>();
+    batch.stream()
+        .flatMap(this::toEvents)
+        .peek(metrics::consumed)
+        .filter(this::isValid)
+        .forEach(events::add);
+
+    Flux.fromIterable(runsOf(events)).concatMap(this::apply).then().block();
+
+    log.info("Batch processing done!");
+  }
+
+  /**
+   * Writes a run of CREATE events, rejecting the ones that can not be applied.
+   *
+   * @param run of CREATE events, with their items.
+   * @return completes once the run is written.
+   */
+  protected abstract Mono<Void> create(List<Event<Integer, T>> run);
+
+  /**
+   * Deletes the items of a run of DELETE events.
+   *
+   * @param run of DELETE events, keyed by product id.
+   * @return completes once the run is written.
+   */
+  protected abstract Mono<Void> delete(List<Event<Integer, T>> run);
+
+  /** @return the product id of the item. */
+  protected abstract int productIdOf(T item);
+
+  /**
+   * Sends an event alone to the DLQ.
+   *
+   * @param event that can not be applied.
+   * @param reason of the rejection, sent in the {@value EventChannels#EXCEPTION_MESSAGE} header.
+   */
+  protected void reject(Event<Integer, T> event, String reason) {
+    log.warn(
+        "Sends the {} event of key: {} to the DLQ, {}",
+        event.getEventType(),
+        event.getKey(),
+        reason);
+    dlq.send(deadLetterOf(event, reason));
+    metrics.deadLettered(event.getEventType());
+  }
+
+  private Mono<Void> apply(List<Event<Integer, T>> run) {
+
+    Event.Type type = run.get(0).getEventType();
+
+    return metrics.process(
+        type, run.size(), Mono.defer(() -> type == CREATE ? create(run) : delete(run)));
+  }
+
+  /** Splits the events into runs of consecutive events of the same type. */
+  private List<List<Event<Integer, T>>> runsOf(List<Event<Integer, T>> events) {
+
+    List<List<Event<Integer, T>>> runs = new ArrayList<>();
+    List<Event<Integer, T>> run = null;
+
+    for (Event<Integer, T> event : events) {
+      if (run == null || run.get(0).getEventType() != event.getEventType()) {
+        run = new ArrayList<>();
+        runs.add(run);
+      }
+      run.add(event);
+    }
+
+    return runs;
+  }
+
+  private boolean isValid(Event<Integer, T> event) {
+
+    if (event.getEventType() != CREATE && event.getEventType() != DELETE) {
+      reject(
+          event,
+          "Incorrect event type: "
+              + event.getEventType()
+              + ", expected a CREATE, CREATE_ALL or DELETE event");
+      return false;
+    }
+
+    int productId =
+        event.getEventType() == CREATE
+            ? event.getData() == null ? 0 : productIdOf(event.getData())
+            : event.getKey() == null ? 0 : event.getKey();
+
+    if (productId < 1) {
+      reject(event, "Invalid productId: " + productId);
+      return false;
+    }
+
+    return true;
+  }
+
+  /** Reads one message of the batch, a message that can not be read is sent to the DLQ alone. */
+  private Stream<Event<Integer, T>> toEvents(Object payload) {
+    try {
+      Event<Integer, Object> event = read(payload);
+
+      if (event.getEventType() == CREATE_ALL) {
+        return payloads.all(event, itemType).stream()
+            .map(item -> new Event<>(CREATE, event.getKey(), item, event.getEventCreatedAt()));
+      }
+
+      return Stream.of(
+          new Event<>(
+              event.getEventType(),
+              event.getKey(),
+              payloads.one(event, itemType),
+              event.getEventCreatedAt()));
+
+    } catch (EventProcessingException ex) {
+      log.warn("Sends an unreadable {} message to the DLQ, {}", itemName, ex.toString());
+      dlq.send(deadLetterOf(payload, ex.getMessage()));
+      metrics.deadLettered(null);
+      return Stream.empty();
+    }
+  }
+
+  private Event<Integer, Object> read(Object payload) {
+    /*
+     The binders hand over the raw bytes of each message, in the binary or JSON format,
+     the test binder the sent objects.
+    */
+    try {
+      if (payload instanceof byte[] bytes) {
+        if (codec.isEncoded(bytes)) return codec.decode(bytes);
+        return objectMapper.readValue(bytes, eventType);
+      }
+      return objectMapper.convertValue(payload, eventType);
+    } catch (IOException | IllegalArgumentException ex) {
+      throw new EventProcessingException("Can not read a " + itemName + " event of the batch", ex);
+    }
+  }
+}
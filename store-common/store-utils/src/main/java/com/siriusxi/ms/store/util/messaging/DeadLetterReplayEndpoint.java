@@ -0,0 +1,289 @@
+package com.siriusxi.ms.store.util.messaging;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.siriusxi.ms.store.util.messaging.EventChannels.EXCEPTION_MESSAGE;
+import static org.springframework.messaging.MessageHeaders.CONTENT_TYPE;
+import static org.springframework.util.MimeTypeUtils.APPLICATION_JSON_VALUE;
+
+/**
+ * Class <code>DeadLetterReplayEndpoint</code> is the <code>dlqreplay</code> actuator endpoint of
+ * the core services, it replays the dead letters of the service event consumer:
+ *
+ * <ul>
+ *   <li><code>POST /actuator/dlqreplay</code> starts a replay, with the optional <code>
+ *       eventsPerSecond</code> and <code>maxEvents</code>.
+ *   <li><code>GET /actuator/dlqreplay</code> reports the progress of the last replay.
+ *   <li><code>DELETE /actuator/dlqreplay</code> stops the replay after the current batch.
+ * </ul>
+ *
+ * <p>A replay reads the dead letters there are when it starts, in batches of <code>
+ * app.dlq-replay.batchSize</code>, and sends them to the <code>input</code> channel, so they go
+ * through the same processor as the consumed events, at no more than <code>
+ * app.dlq-replay.eventsPerSecond</code> events per second. An event that fails again is sent to
+ * the <code>dlq</code> binding, back to the DLQ; in batch mode, the batch processor does so itself.
+ *
+ * <p>A batch is removed from the DLQ only once the processor is done with all of its events. The
+ * send to the <code>input</code> channel returns once an event is processed, or, with a parallel
+ * event processing, once it is dispatched; so the replay waits for the {@link ReplayReceipt} of the
+ * batch, up to <code>app.dlq-replay.batchTimeoutSec</code>, and fails otherwise, leaving the batch
+ * in the DLQ. In batch mode, the events the batch processor dead-letters again are counted by the
+ * <code>store.events.processed</code> metric, with the <code>dlq</code> outcome, not by the
+ * replay progress.
+ *
+ * @author mohamed.taman
+ * @version v5.9
+ * @since v5.9
+ */
+@Component
+@Endpoint(id = "dlqreplay")
+@ConditionalOnProperty("spring.cloud.stream.bindings.dlq.destination")
+@Log4j2
+public class DeadLetterReplayEndpoint implements DisposableBean {
+
+  private final MessageChannel input;
+  private final MessageChannel dlq;
+  private final EventCodec codec;
+  private final ObjectProvider<RabbitTemplate> rabbitTemplate;
+  private final ObjectProvider<AmqpAdmin> amqpAdmin;
+  private final ObjectProvider<ConsumerFactory<?, ?>> kafkaConsumerFactory;
+  private final String binder;
+  private final String destination;
+  private final String group;
+  private final boolean batchMode;
+  private final int batchSize;
+  private final int eventsPerSecond;
+  private final Duration batchTimeout;
+  private final ExecutorService executor =
+      Executors.newSingleThreadExecutor(task -> new Thread(task, "dlq-replay"));
+
+  private volatile Progress progress = Progress.idle();
+  private volatile boolean stopping;
+
+  @Autowired
+  public DeadLetterReplayEndpoint(
+      @Qualifier("input") MessageChannel input,
+      @Qualifier("dlq") MessageChannel dlq,
+      EventCodec codec,
+      ObjectProvider<RabbitTemplate> rabbitTemplate,
+      ObjectProvider<AmqpAdmin> amqpAdmin,
+      ObjectProvider<ConsumerFactory<?, ?>> kafkaConsumerFactory,
+      @Value("${spring.cloud.stream.defaultBinder:rabbit}") String binder,
+      @Value("${spring.cloud.stream.bindings.input.destination}") String destination,
+      @Value("${spring.cloud.stream.bindings.input.group}") String group,
+      @Value("${spring.cloud.stream.bindings.input.consumer.batch-mode:false}") boolean batchMode,
+      @Value("${app.dlq-replay.batchSize:50}") int batchSize,
+      @Value("${app.dlq-replay.eventsPerSecond:20}") int eventsPerSecond,
+      @Value("${app.dlq-replay.batchTimeoutSec:60}") int batchTimeoutSec) {
+
+    this.input = input;
+    this.dlq = dlq;
+    this.codec = codec;
+    this.rabbitTemplate = rabbitTemplate;
+    this.amqpAdmin = amqpAdmin;
+    this.kafkaConsumerFactory = kafkaConsumerFactory;
+    this.binder = binder;
+    this.destination = destination;
+    this.group = group;
+    this.batchMode = batchMode;
+    this.batchSize = batchSize;
+    this.eventsPerSecond = eventsPerSecond;
+    this.batchTimeout = Duration.ofSeconds(batchTimeoutSec);
+  }
+
+  @ReadOperation
+  public Progress progress() {
+    return progress;
+  }
+
+  /**
+   * Starts a replay, unless one is already running.
+   *
+   * @param eventsPerSecond ceiling of the replay, <code>app.dlq-replay.eventsPerSecond</code> if
+   *     not set.
+   * @param maxEvents to replay, all the dead letters if not set.
+   * @return Progress of the replay.
+   */
+  @WriteOperation
+  public synchronized Progress replay(
+      @Nullable Integer eventsPerSecond, @Nullable Integer maxEvents) {
+
+    if (progress.state() == State.RUNNING) return progress;
+
+    int rate = eventsPerSecond == null ? this.eventsPerSecond : eventsPerSecond;
+    long max = maxEvents == null ? Long.MAX_VALUE : maxEvents;
+
+    log.info("Starts replaying the dead letters of {}.{}, at {}/s", destination, group, rate);
+
+    stopping = false;
+    progress = Progress.started();
+    executor.execute(() -> run(Math.max(rate, 1), max));
+    return progress;
+  }
+
+  @DeleteOperation
+  public Progress stop() {
+    stopping = true;
+    return progress;
+  }
+
+  @Override
+  public void destroy() {
+    stopping = true;
+    executor.shutdown();
+  }
+
+  private void run(int rate, long maxEvents) {
+
+    long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+    long next = System.nanoTime();
+
+    try (DeadLetterSource source = open()) {
+      while (!stopping && progress.replayed() < maxEvents) {
+        int max = (int) Math.min(batchSize, maxEvents - progress.replayed());
+        List<byte[]> payloads = source.poll(max);
+        if (payloads.isEmpty()) break;
+
+        // Paces the batch, so the replay stays under the events per second ceiling.
+        next += intervalNanos * payloads.size();
+        LockSupport.parkNanos(next - System.nanoTime());
+
+        int deadLettered = batchMode ? replayBatch(payloads) : replayEach(payloads);
+        source.commit();
+
+        progress = progress.add(payloads.size(), deadLettered);
+        log.debug(
+            "Replayed {} dead letters, {} dead-lettered again", payloads.size(), deadLettered);
+      }
+      progress = progress.end(stopping ? State.STOPPED : State.DONE, null);
+    } catch (RuntimeException ex) {
+      log.warn("Dead letters replay failed: {}", ex.toString());
+      progress = progress.end(State.FAILED, ex.getMessage());
+    }
+
+    log.info("Dead letters replay ended: {}", progress);
+  }
+
+  private DeadLetterSource open() {
+    return "kafka".equals(binder)
+        ? new KafkaDeadLetterSource(
+            kafkaConsumerFactory.getObject(),
+            "error." + destination + "." + group,
+            group + ".replay",
+            batchSize)
+        : new RabbitDeadLetterSource(
+            rabbitTemplate.getObject(),
+            amqpAdmin.getObject(),
+            destination + "." + group + ".dlq");
+  }
+
+  private int replayBatch(List<byte[]> payloads) {
+    input.send(MessageBuilder.withPayload(payloads).build());
+    return 0;
+  }
+
+  private int replayEach(List<byte[]> payloads) {
+    var receipt = new ReplayReceipt(payloads.size());
+    int deadLettered = 0;
+
+    for (byte[] payload : payloads) {
+      Message<byte[]> message =
+          MessageBuilder.withPayload(payload)
+              .setHeader(
+                  CONTENT_TYPE,
+                  codec.isEncoded(payload)
+                      ? EventMessageConverter.CONTENT_TYPE
+                      : APPLICATION_JSON_VALUE)
+              .build();
+      try {
+        input.send(
+            MessageBuilder.fromMessage(message).setHeader(ReplayReceipt.HEADER, receipt).build());
+      } catch (MessagingException ex) {
+        // Failed on the replay thread, the processor did not send it to the DLQ itself.
+        deadLettered++;
+        dlq.send(
+            MessageBuilder.fromMessage(message)
+                .setHeader(EXCEPTION_MESSAGE, ex.getMostSpecificCause().getMessage())
+                .build());
+        receipt.done();
+      }
+    }
+
+    if (!receipt.await(batchTimeout)) {
+      throw new IllegalStateException(
+          "Replayed events still in progress after " + batchTimeout.toSeconds() + "s");
+    }
+    return deadLettered + receipt.deadLetteredCount();
+  }
+
+  public enum State {
+    IDLE,
+    RUNNING,
+    DONE,
+    STOPPED,
+    FAILED
+  }
+
+  /**
+   * Record <code>Progress</code> of a replay.
+   *
+   * @param state of the replay.
+   * @param replayed number of dead letters.
+   * @param deadLettered again, out of the replayed ones.
+   * @param startedAt time of the replay.
+   * @param endedAt time of the replay, if ended.
+   * @param error that ended the replay, if failed.
+   */
+  public record Progress(
+      State state,
+      long replayed,
+      long deadLettered,
+      Instant startedAt,
+      Instant endedAt,
+      String error) {
+
+    private static Progress idle() {
+      return new Progress(State.IDLE, 0, 0, null, null, null);
+    }
+
+    private static Progress started() {
+      return new Progress(State.RUNNING, 0, 0, Instant.now(), null, null);
+    }
+
+    private Progress add(long replayed, long deadLettered) {
+      return new Progress(
+          state, this.replayed + replayed, this.deadLettered + deadLettered, startedAt, null, null);
+    }
+
+    private Progress end(State state, String error) {
+      return new Progress(state, replayed, deadLettered, startedAt, Instant.now(), error);
+    }
+  }
+}
@@ -0,0 +1,27 @@
+package com.siriusxi.ms.store.util.messaging;
+
+import java.util.List;
+
+/**
+ * Interface <code>DeadLetterSource</code> reads the payloads of the dead letters of a consumer, in
+ * batches, for them to be replayed. It only reads the dead letters that are there when it is
+ * opened, so the ones replayed and dead-lettered again are not read a second time.
+ *
+ * @author mohamed.taman
+ * @version v5.9
+ * @since v5.9
+ */
+interface DeadLetterSource extends AutoCloseable {
+
+  /**
+   * @param max number of dead letters to read.
+   * @return up to max payloads, none once all the dead letters there were at opening are read.
+   */
+  List<byte[]> poll(int max);
+
+  /** Removes the dead letters read so far from the dead letter queue, if not already done. */
+  void commit();
+
+  @Override
+  void close();
+}
@@ -0,0 +1,36 @@
+package com.siriusxi.ms.store.util.messaging;
+
+import org.springframework.cloud.stream.annotation.Output;
+import org.springframework.cloud.stream.messaging.Sink;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.support.MessageBuilder;
+
+/**
+ * Interface <code>EventChannels</code> is the input of the events of a core service, and the dead
+ * letter queue the events that can not be processed are sent to, when the service handles the
+ * failed events itself, rather than the binder.
+ *
+ * @author mohamed.taman
+ * @version v5.9
+ * @since v5.9
+ */
+public interface EventChannels extends Sink {
+
+  String DLQ = "dlq";
+
+  /** The header of the reason an event is sent to the DLQ, the one the binders use. */
+  String EXCEPTION_MESSAGE = "x-exception-message";
+
+  @Output(DLQ)
+  MessageChannel dlq();
+
+  /**
+   * @param payload of the message that can not be processed.
+   * @param reason why it can not be processed.
+   * @return the message to send to the DLQ.
+   */
+  static Message<?> deadLetterOf(Object payload, String reason) {
+    return MessageBuilder.withPayload(payload).setHeader(EXCEPTION_MESSAGE, reason).build();
+  }
+}
@@ -0,0 +1,179 @@
+package com.siriusxi.ms.store.util.messaging;
+
+import com.siriusxi.ms.store.api.event.Event;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.time.ZoneOffset.UTC;
+
+/**
+ * Class <code>EventCodec</code> writes an {@link Event} in a compact binary format, and reads it
+ * back, without reflection. It is the codec behind the {@value EventMessageConverter#CONTENT_TYPE}
+ * content type.
+ *
+ * <p>The format, version 1, is:
+ *
+ * <pre>
+ *   byte    magic, 0xEC, never the first byte of a JSON document
+ *   byte    format version
+ *   byte    event type, 1 CREATE, 2 DELETE, 3 CREATE_ALL, 0 none
+ *   boolean has key, followed by the int key
+ *   boolean has creation time, followed by the long epoch second and int nano, in UTC
+ *   byte    data tag of the {@link PayloadCodec}, 0 none, followed by the data
+ * </pre>
+ *
+ * <p>A list of data, as carried by the CREATE_ALL events, is the tag 0x80, followed by the int
+ * size of the list, then the tag and data of each of its items.
+ *
+ * @author mohamed.taman
+ * @version v5.9
+ * @since v5.9
+ */
+@Log4j2
+public class EventCodec {
+
+  private static final byte MAGIC = (byte) 0xEC;
+  private static final byte VERSION = 1;
+  private static final byte LIST = (byte) 0x80;
+
+  private final Map<Class<?>, PayloadCodec<?>> codecsByType = new HashMap<>();
+  private final Map<Byte, PayloadCodec<?>> codecsByTag = new HashMap<>();
+
+  public EventCodec(Collection<PayloadCodec<?>> codecs) {
+    for (PayloadCodec<?> codec : codecs) {
+      if (codec.tag() < 1 || codecsByTag.put(codec.tag(), codec) != null) {
+        throw new IllegalArgumentException(
+            "Invalid or duplicate data tag: " + codec.tag() + " of " + codec.type().getName());
+      }
+      codecsByType.put(codec.type(), codec);
+    }
+    log.info("Creates an event codec for: {}", codecsByType.keySet());
+  }
+
+  /**
+   * Whether the bytes are in this format, which lets a consumer that gets raw bytes, like a batch
+   * listener, tell them from JSON.
+   *
+   * @param bytes of a message payload.
+   * @return true if the bytes start with the magic byte of the format.
+   */
+  public boolean isEncoded(byte[] bytes) {
+    return bytes.length > 1 && bytes[0] == MAGIC;
+  }
+
+  public boolean canEncode(Event<?, ?> event) {
+    return (event.getKey() == null || event.getKey() instanceof Integer)
+        && canEncode(event.getData());
+  }
+
+  public byte[] encode(Event<?, ?> event) {
+
+    var bytes = new ByteArrayOutputStream(128);
+
+    try (var out = new DataOutputStream(bytes)) {
+      out.writeByte(MAGIC);
+      out.writeByte(VERSION);
+      out.writeByte(event.getEventType() == null ? 0 : event.getEventType().ordinal() + 1);
+
+      out.writeBoolean(event.getKey() != null);
+      if (event.getKey() != null) out.writeInt((Integer) event.getKey());
+
+      LocalDateTime createdAt = event.getEventCreatedAt();
+      out.writeBoolean(createdAt != null);
+      if (createdAt != null) {
+        out.writeLong(createdAt.toEpochSecond(UTC));
+        out.writeInt(createdAt.getNano());
+      }
+
+      writeData(event.getData(), out);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+
+    return bytes.toByteArray();
+  }
+
+  @SuppressWarnings("unchecked")
+  public <T> Event<Integer, T> decode(byte[] bytes) {
+
+    try (var in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+
+      if (in.readByte() != MAGIC) throw new IOException("Not a binary encoded event");
+
+      byte version = in.readByte();
+      if (version != VERSION) throw new IOException("Unsupported event format version: " + version);
+
+      byte type = in.readByte();
+      Event.Type eventType = type == 0 ? null : Event.Type.values()[type - 1];
+
+      Integer key = in.readBoolean() ? in.readInt() : null;
+
+      LocalDateTime createdAt =
+          in.readBoolean() ? LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), UTC) : null;
+
+      return new Event<>(eventType, key, (T) readData(in), createdAt);
+
+    } catch (IOException | IndexOutOfBoundsException ex) {
+      throw new IllegalArgumentException("Can not decode a binary event", ex);
+    }
+  }
+
+  private boolean canEncode(Object data) {
+    if (data instanceof List<?> items) return items.stream().allMatch(this::canEncode);
+    return data == null || codecsByType.containsKey(data.getClass());
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> void writeData(T data, DataOutputStream out) throws IOException {
+
+    if (data == null) {
+      out.writeByte(0);
+      return;
+    }
+
+    if (data instanceof List<?> items) {
+      out.writeByte(LIST);
+      out.writeInt(items.size());
+      for (Object item : items) writeData(item, out);
+      return;
+    }
+
+    var codec = (PayloadCodec<T>) codecsByType.get(data.getClass());
+    if (codec == null) {
+      throw new IllegalArgumentException("No data codec for: " + data.getClass().getName());
+    }
+
+    out.writeByte(codec.tag());
+    codec.write(data, out);
+  }
+
+  private Object readData(DataInputStream in) throws IOException {
+
+    byte tag = in.readByte();
+    if (tag == 0) return null;
+
+    if (tag == LIST) {
+      int size = in.readInt();
+      List<Object> items = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) items.add(readData(in));
+      return items;
+    }
+
+    var codec = codecsByTag.get(tag);
+    if (codec == null) throw new IOException("Unknown data tag: " + tag);
+
+    return codec.read(in);
+  }
+}
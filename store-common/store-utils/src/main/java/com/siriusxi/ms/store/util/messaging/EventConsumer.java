@@ -0,0 +1,152 @@
+package com.siriusxi.ms.store.util.messaging;
+
+import com.siriusxi.ms.store.api.event.Event;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static com.siriusxi.ms.store.util.messaging.EventChannels.deadLetterOf;
+import static org.springframework.integration.IntegrationMessageHeaderAccessor.DELIVERY_ATTEMPT;
+
+/**
+ * Class <code>EventConsumer</code> is the common part of the event listeners of the core services:
+ * it counts the consumed event, dispatches its processing in the key order, measures it, sends the
+ * event to the DLQ once its attempts are exhausted, and acknowledges the message.
+ *
+ * <p>With a concurrency of one, the event is processed on the binder thread, and the binder
+ * retries it, up to <code>spring.cloud.stream.bindings.input.consumer.maxAttempts</code> times,
+ * before it sends it to the DLQ. Each attempt comes through the listener again, so the latency of
+ * the event is only recorded on its first attempt, and it is counted as dead-lettered when its
+ * last attempt fails; the attempt is the one of the <code>deliveryAttempt</code> header the binder
+ * adds.
+ *
+ * @see KeyOrderedDispatcher
+ * @see EventMetrics
+ * @author mohamed.taman
+ * @version v5.9
+ * @since v5.9
+ */
+@Component
+@Log4j2
+public class EventConsumer {
+
+  private final KeyOrderedDispatcher dispatcher;
+  private final EventMetrics metrics;
+  private final int binderMaxAttempts;
+
+  @Autowired
+  public EventConsumer(
+      KeyOrderedDispatcher dispatcher,
+      EventMetrics metrics,
+      @Value("${spring.cloud.stream.bindings.input.consumer.maxAttempts:3}")
+          int binderMaxAttempts) {
+    this.dispatcher = dispatcher;
+    this.metrics = metrics;
+    this.binderMaxAttempts = binderMaxAttempts;
+  }
+
+  /**
+   * Processes a consumed event without blocking a thread while it is in progress.
+   *
+   * @param message of the event.
+   * @param dlq the failed event is sent to.
+   * @param processing of the event, subscribed once per attempt.
+   * @param <T> type of the event data.
+   */
+  public <T> void consume(
+      Message<Event<Integer, T>> message,
+      MessageChannel dlq,
+      Function<Event<Integer, T>, Mono<Void>> processing) {
+
+    Event<Integer, T> event = consumed(message);
+
+    try {
+      dispatcher.dispatchAsync(
+          event.getKey(),
+          () ->
+              metrics.process(event.getEventType(), 1, Mono.defer(() -> processing.apply(event))),
+          ex -> deadLetter(dlq, message, ex.getMessage()),
+          MessageAcks.of(message));
+    } catch (RuntimeException ex) {
+      throw failedOnBinderThread(message, ex);
+    }
+  }
+
+  /**
+   * Processes a consumed event with blocking work, on a stripe thread of the dispatcher.
+   *
+   * @param message of the event.
+   * @param dlq the failed event is sent to.
+   * @param processing of the event, run once per attempt.
+   * @param <T> type of the event data.
+   */
+  public <T> void consumeBlocking(
+      Message<Event<Integer, T>> message,
+      MessageChannel dlq,
+      Consumer<Event<Integer, T>> processing) {
+
+    Event<Integer, T> event = consumed(message);
+
+    try {
+      dispatcher.dispatch(
+          event.getKey(),
+          () -> metrics.process(event.getEventType(), 1, () -> processing.accept(event)),
+          ex -> deadLetter(dlq, message, ex.getMessage()),
+          MessageAcks.of(message));
+    } catch (RuntimeException ex) {
+      throw failedOnBinderThread(message, ex);
+    }
+  }
+
+  /**
+   * Sends an event to the DLQ, a failed send is thrown.
+   *
+   * @param dlq the event is sent to.
+   * @param event that can not be processed.
+   * @param reason why, sent in the {@value EventChannels#EXCEPTION_MESSAGE} header.
+   */
+  public void deadLetter(MessageChannel dlq, Event<?, ?> event, String reason) {
+    log.warn(
+        "Sends the {} event of key: {} to the DLQ, {}",
+        event.getEventType(),
+        event.getKey(),
+        reason);
+    dlq.send(deadLetterOf(event, reason));
+    metrics.deadLettered(event.getEventType());
+  }
+
+  private <T> Event<Integer, T> consumed(Message<Event<Integer, T>> message) {
+    Event<Integer, T> event = message.getPayload();
+    if (attemptOf(message) == 1) metrics.consumed(event);
+    return event;
+  }
+
+  /** The binder retries the event, and sends it to the DLQ once its last attempt failed. */
+  private RuntimeException failedOnBinderThread(
+      Message<? extends Event<?, ?>> message, RuntimeException ex) {
+    if (attemptOf(message) >= binderMaxAttempts) {
+      metrics.deadLettered(message.getPayload().getEventType());
+    }
+    return ex;
+  }
+
+  private int attemptOf(Message<?> message) {
+    return message.getHeaders().get(DELIVERY_ATTEMPT) instanceof AtomicInteger attempt
+        ? attempt.get()
+        : 1;
+  }
+
+  private void deadLetter(
+      MessageChannel dlq, Message<? extends Event<?, ?>> message, String reason) {
+    deadLetter(dlq, message.getPayload(), reason);
+    ReplayReceipt.of(message).ifPresent(ReplayReceipt::deadLettered);
+  }
+}
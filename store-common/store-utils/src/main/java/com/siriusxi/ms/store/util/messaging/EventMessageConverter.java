@@ -0,0 +1,57 @@
+package com.siriusxi.ms.store.util.messaging;
+
+import com.siriusxi.ms.store.api.event.Event;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.AbstractMessageConverter;
+import org.springframework.util.MimeType;
+
+/**
+ * Class <code>EventMessageConverter</code> is the Spring Cloud Stream message converter of the
+ * {@value #CONTENT_TYPE} content type, backed by the {@link EventCodec}.
+ *
+ * <p>The content type travels in the <code>contentType</code> header of each message, so a
+ * consumer reads both binary and JSON events, whatever the content type of its input binding is.
+ * This lets the producers switch to the binary format once all consumers have this converter.
+ *
+ * @author mohamed.taman
+ * @version v5.9
+ * @since v5.9
+ */
+public class EventMessageConverter extends AbstractMessageConverter {
+
+  public static final String CONTENT_TYPE = "application/x-store-event";
+
+  private final EventCodec codec;
+
+  public EventMessageConverter(EventCodec codec) {
+    super(MimeType.valueOf(CONTENT_TYPE));
+    this.codec = codec;
+  }
+
+  @Override
+  protected boolean supports(Class<?> clazz) {
+    return Event.class.isAssignableFrom(clazz);
+  }
+
+  @Override
+  protected boolean canConvertTo(Object payload, MessageHeaders headers) {
+    return payload instanceof Event<?, ?> event
+        && codec.canEncode(event)
+        && super.canConvertTo(payload, headers);
+  }
+
+  @Override
+  protected Object convertFromInternal(
+      Message<?> message, Class<?> targetClass, Object conversionHint) {
+    return message.getPayload() instanceof byte[] bytes && codec.isEncoded(bytes)
+        ? codec.decode(bytes)
+        : null;
+  }
+
+  @Override
+  protected Object convertToInternal(
+      Object payload, MessageHeaders headers, Object conversionHint) {
+    return codec.encode((Event<?, ?>) payload);
+  }
+}
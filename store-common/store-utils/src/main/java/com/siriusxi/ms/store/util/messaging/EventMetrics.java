@@ -0,0 +1,172 @@
+package com.siriusxi.ms.store.util.messaging;
+
+import com.siriusxi.ms.store.api.event.Event;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Class <code>EventMetrics</code> instruments the event consumers, every meter is tagged with the
+ * consumer <code>group</code>:
+ *
+ * <ul>
+ *   <li><code>store.events.latency</code>, a histogram of the time from the event creation, its
+ *       <code>eventCreatedAt</code>, to its consumption.
+ *   <li><code>store.events.processing</code>, the processing time, per event <code>type</code>.
+ *   <li><code>store.events.processed</code>, the processed events, per event <code>type</code> and
+ *       <code>outcome</code>: success, failure for a failed attempt, or dlq.
+ *   <li><code>store.events.consumer.lag</code>, the messages waiting in the RabbitMQ queue of the
+ *       consumer. The Kafka binder reports its consumer lag by itself, as <code>
+ *       spring.cloud.stream.binder.kafka.offset</code>.
+ * </ul>
+ *
+ * @author mohamed.taman
+ * @version v5.9
+ * @since v5.9
+ */
+@Component
+@Log4j2
+public class EventMetrics {
+
+  private static final String NONE = "none";
+
+  private final MeterRegistry registry;
+  private final String group;
+  private final Timer latency;
+
+  @Autowired
+  public EventMetrics(
+      MeterRegistry registry,
+      ObjectProvider<AmqpAdmin> amqpAdmin,
+      @Value("${spring.cloud.stream.defaultBinder:rabbit}") String binder,
+      @Value("${spring.cloud.stream.bindings.input.destination:}") String destination,
+      @Value("${spring.cloud.stream.bindings.input.group:}") String group) {
+
+    this.registry = registry;
+    this.group = group.isEmpty() ? NONE : group;
+    this.latency =
+        Timer.builder("store.events.latency")
+            .description("Time from the creation of an event to its consumption")
+            .tag("group", this.group)
+            .publishPercentileHistogram()
+            .register(registry);
+
+    if ("rabbit".equals(binder) && !group.isEmpty()) {
+      String queue = destination + "." + group;
+      Gauge.builder("store.events.consumer.lag", amqpAdmin, admin -> queueDepth(admin, queue))
+          .description("Messages waiting in the queue of the consumer")
+          .tag("group", group)
+          .strongReference(true)
+          .register(registry);
+    }
+  }
+
+  /**
+   * Records the time from the event creation to now.
+   *
+   * @param event being consumed.
+   */
+  public void consumed(Event<?, ?> event) {
+    if (event.getEventCreatedAt() == null) return;
+
+    // Clock skew between the producer and the consumer may give a negative latency.
+    var elapsed = Duration.between(event.getEventCreatedAt(), LocalDateTime.now());
+    latency.record(elapsed.isNegative() ? Duration.ZERO : elapsed);
+  }
+
+  /**
+   * Processes events of the same type, timing and counting them.
+   *
+   * @param type of the events.
+   * @param events number of events the work processes.
+   * @param work processes the events, its failures are rethrown.
+   */
+  public void process(Event.Type type, int events, Runnable work) {
+    var sample = start();
+    try {
+      work.run();
+      succeeded(sample, type, events);
+    } catch (RuntimeException ex) {
+      failed(sample, type, events);
+      throw ex;
+    }
+  }
+
+  /**
+   * Processes events of the same type without blocking, timing and counting them on each
+   * subscription.
+   *
+   * @param type of the events.
+   * @param events number of events the work processes.
+   * @param work processes the events, its failures are passed on.
+   * @return the timed work.
+   */
+  public Mono<Void> process(Event.Type type, int events, Mono<Void> work) {
+    return Mono.defer(
+        () -> {
+          var sample = start();
+          return work.doOnSuccess(done -> succeeded(sample, type, events))
+              .doOnError(error -> failed(sample, type, events));
+        });
+  }
+
+  /** @return Timer.Sample to be passed to <code>succeeded</code> or <code>failed</code>. */
+  public Timer.Sample start() {
+    return Timer.start(registry);
+  }
+
+  public void succeeded(Timer.Sample sample, Event.Type type, int events) {
+    sample.stop(processing(type));
+    processed(type, "success").increment(events);
+  }
+
+  public void failed(Timer.Sample sample, Event.Type type, int events) {
+    sample.stop(processing(type));
+    processed(type, "failure").increment(events);
+  }
+
+  public void deadLettered(Event.Type type) {
+    processed(type, "dlq").increment();
+  }
+
+  private Timer processing(Event.Type type) {
+    return Timer.builder("store.events.processing")
+        .description("Processing time of the events")
+        .tags("group", group, "type", typeOf(type))
+        .register(registry);
+  }
+
+  private Counter processed(Event.Type type, String outcome) {
+    return Counter.builder("store.events.processed")
+        .description("Processed events, per outcome")
+        .tags("group", group, "type", typeOf(type), "outcome", outcome)
+        .register(registry);
+  }
+
+  private String typeOf(Event.Type type) {
+    return type == null ? NONE : type.name();
+  }
+
+  private static double queueDepth(ObjectProvider<AmqpAdmin> amqpAdmin, String queue) {
+    try {
+      AmqpAdmin admin = amqpAdmin.getIfAvailable();
+      QueueInformation information = admin == null ? null : admin.getQueueInfo(queue);
+      return information == null ? Double.NaN : information.getMessageCount();
+    } catch (RuntimeException ex) {
+      log.debug("Can not get the depth of the queue: {}, {}", queue, ex.toString());
+      return Double.NaN;
+    }
+  }
+}
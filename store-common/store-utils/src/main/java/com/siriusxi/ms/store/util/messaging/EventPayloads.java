@@ -0,0 +1,72 @@
+package com.siriusxi.ms.store.util.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siriusxi.ms.store.api.event.Event;
+import com.siriusxi.ms.store.util.exceptions.EventProcessingException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Class <code>EventPayloads</code> reads the data of the events consumed as <code>
+ * Event&lt;Integer, Object&gt;</code>, whose data is a single item, or a list of items for the
+ * CREATE_ALL events. JSON events carry their data as maps, which are converted to the item type;
+ * binary events, and the events of the test binder, already carry the items.
+ *
+ * @author mohamed.taman
+ * @version v5.9
+ * @since v5.9
+ */
+@Component
+public class EventPayloads {
+
+  private final ObjectMapper mapper;
+
+  @Autowired
+  public EventPayloads(ObjectMapper mapper) {
+    this.mapper = mapper;
+  }
+
+  /**
+   * @param event carrying a single item.
+   * @param type of the item.
+   * @return the item, or null if the event has no data.
+   */
+  public <T> T one(Event<?, ?> event, Class<T> type) {
+    return as(event.getData(), type);
+  }
+
+  /**
+   * @param event carrying a list of items.
+   * @param type of the items.
+   * @return the items, or an empty list if the event has no data.
+   */
+  public <T> List<T> all(Event<?, ?> event, Class<T> type) {
+
+    if (event.getData() == null) return List.of();
+
+    if (!(event.getData() instanceof List<?> items)) {
+      throw new EventProcessingException(
+          "Expected a list of "
+              .concat(type.getSimpleName())
+              .concat(" in the ")
+              .concat(String.valueOf(event.getEventType()))
+              .concat(" event"));
+    }
+
+    return items.stream().map(item -> as(item, type)).collect(toList());
+  }
+
+  private <T> T as(Object data, Class<T> type) {
+    if (data == null || type.isInstance(data)) return type.cast(data);
+    try {
+      return mapper.convertValue(data, type);
+    } catch (IllegalArgumentException ex) {
+      throw new EventProcessingException(
+          "Can not read the event data as " + type.getSimpleName(), ex);
+    }
+  }
+}
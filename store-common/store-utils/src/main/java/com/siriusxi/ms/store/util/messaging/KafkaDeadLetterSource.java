@@ -0,0 +1,114 @@
+package com.siriusxi.ms.store.util.messaging;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.springframework.kafka.core.ConsumerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+
+import static java.util.stream.Collectors.toList;
+import static org.apache.kafka.clients.consumer.ConsumerConfig.AUTO_OFFSET_RESET_CONFIG;
+import static org.apache.kafka.clients.consumer.ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG;
+import static org.apache.kafka.clients.consumer.ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG;
+import static org.apache.kafka.clients.consumer.ConsumerConfig.MAX_POLL_RECORDS_CONFIG;
+import static org.apache.kafka.clients.consumer.ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG;
+
+/**
+ * Class <code>KafkaDeadLetterSource</code> reads the dead letters from the Kafka DLQ topic of a
+ * consumer, <code>error.destination.group</code>, as the <code>group.replay</code> consumer group.
+ * It reads up to the end offsets of the topic at opening, and commits the offsets of the dead
+ * letters read once they are replayed.
+ *
+ * @author mohamed.taman
+ * @version v5.9
+ * @since v5.9
+ */
+final class KafkaDeadLetterSource implements DeadLetterSource {
+
+  private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+  private static final int MAX_EMPTY_POLLS = 10;
+
+  private final Consumer<byte[], byte[]> consumer;
+  private final Map<TopicPartition, Long> endOffsets;
+
+  @SuppressWarnings("unchecked")
+  KafkaDeadLetterSource(ConsumerFactory<?, ?> factory, String topic, String group, int max) {
+
+    // The factory only reads the override properties of type String.
+    var properties = new Properties();
+    properties.setProperty(KEY_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class.getName());
+    properties.setProperty(VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class.getName());
+    properties.setProperty(ENABLE_AUTO_COMMIT_CONFIG, "false");
+    properties.setProperty(AUTO_OFFSET_RESET_CONFIG, "earliest");
+    properties.setProperty(MAX_POLL_RECORDS_CONFIG, String.valueOf(max));
+
+    this.consumer =
+        (Consumer<byte[], byte[]>) factory.createConsumer(group, null, null, properties);
+
+    List<TopicPartition> partitions =
+        Optional.ofNullable(consumer.partitionsFor(topic)).orElse(List.of()).stream()
+            .map(PartitionInfo::partition)
+            .map(partition -> new TopicPartition(topic, partition))
+            .collect(toList());
+
+    consumer.assign(partitions);
+    this.endOffsets = consumer.endOffsets(partitions);
+  }
+
+  @Override
+  public List<byte[]> poll(int max) {
+    List<byte[]> payloads = new ArrayList<>();
+
+    for (int polls = 0; payloads.isEmpty() && !done() && polls < MAX_EMPTY_POLLS; polls++) {
+      Set<TopicPartition> rewound = new HashSet<>();
+
+      for (ConsumerRecord<byte[], byte[]> record : consumer.poll(POLL_TIMEOUT)) {
+        var partition = new TopicPartition(record.topic(), record.partition());
+        if (rewound.contains(partition)) {
+          continue;
+        }
+
+        long end = endOffsets.get(partition);
+
+        if (record.offset() >= end) {
+          // Dead-lettered after the opening, maybe by this replay, left for the next one.
+          consumer.seek(partition, end);
+          consumer.pause(List.of(partition));
+        } else if (payloads.size() >= max) {
+          // Beyond max, which may be under the max.poll.records of the opening: the partition is
+          // rewound to its first record not returned, read again by the next poll.
+          consumer.seek(partition, record.offset());
+          rewound.add(partition);
+        } else {
+          payloads.add(record.value());
+        }
+      }
+    }
+    return payloads;
+  }
+
+  @Override
+  public void commit() {
+    consumer.commitSync();
+  }
+
+  @Override
+  public void close() {
+    consumer.close();
+  }
+
+  private boolean done() {
+    return endOffsets.entrySet().stream()
+        .allMatch(end -> consumer.position(end.getKey()) >= end.getValue());
+  }
+}
@@ -0,0 +1,316 @@
+package com.siriusxi.ms.store.util.messaging;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Class <code>KeyOrderedDispatcher</code> processes the consumed events in parallel, while the
+ * events of the same key, the product id, are still processed one after the other, in their
+ * arrival order.
+ *
+ * <p>Each key is hashed to one of <code>app.event-processing.concurrency</code> stripes, a single
+ * thread each. An event is acknowledged only once it, and every event dispatched before it, are
+ * processed, so the acknowledgements, and the Kafka offsets, never run ahead of an event still in
+ * progress. At most <code>app.event-processing.maxPending</code> events are dispatched and not yet
+ * acknowledged; the binder thread waits for a free slot beyond that.
+ *
+ * <p>A failed event is retried up to <code>app.event-processing.maxAttempts</code> times, as the
+ * binder would do, then handed to the failure handler, and acknowledged once the handler succeeds.
+ * A failing handler, e.g. the DLQ broker is down, is retried until it succeeds, the event, and the
+ * ones dispatched after it, staying unacknowledged meanwhile; so a failed event is never
+ * acknowledged before it reaches the DLQ. An event still unhandled at shutdown is left
+ * unacknowledged, for the broker to deliver it again.
+ *
+ * <p>Non-blocking work, see <code>dispatchAsync</code>, runs on no stripe: the events of a key are
+ * chained one after the other, and no thread waits while an event is in progress, so up to <code>
+ * maxPending</code> events are in flight at a time.
+ *
+ * <p>With a concurrency of one, the default, events are processed on the binder thread, and
+ * failures are left to the binder.
+ *
+ * @author mohamed.taman
+ * @version v5.9
+ * @since v5.9
+ */
+@Component
+@Log4j2
+public class KeyOrderedDispatcher implements DisposableBean {
+
+  private static final int MAX_FAILURE_BACK_OFF_STEPS = 20;
+
+  private final int maxAttempts;
+  private final Duration backOff;
+  private final ExecutorService[] stripes;
+  private final Semaphore slots;
+  private final Deque<Dispatched> inOrder = new ArrayDeque<>();
+  private final AtomicInteger pending = new AtomicInteger();
+  private final Map<Object, CompletableFuture<Void>> lastOfKey = new HashMap<>();
+  private volatile boolean closed;
+
+  @Autowired
+  public KeyOrderedDispatcher(
+      MeterRegistry registry,
+      @Value("${spring.application.name:events}") String name,
+      @Value("${app.event-processing.concurrency:1}") int concurrency,
+      @Value("${app.event-processing.maxPending:256}") int maxPending,
+      @Value("${app.event-processing.maxAttempts:3}") int maxAttempts,
+      @Value("${app.event-processing.backOffMs:500}") long backOffMs) {
+
+    log.info(
+        "Creates a key ordered event dispatcher, concurrency: {}, maxPending: {}",
+        concurrency,
+        maxPending);
+
+    this.maxAttempts = maxAttempts;
+    this.backOff = Duration.ofMillis(backOffMs);
+    this.slots = new Semaphore(maxPending);
+    this.stripes =
+        concurrency <= 1
+            ? new ExecutorService[0]
+            : IntStream.range(0, concurrency)
+                .mapToObj(
+                    stripe ->
+                        Executors.newSingleThreadExecutor(
+                            task -> new Thread(task, name + "-events-" + stripe)))
+                .toArray(ExecutorService[]::new);
+
+    registry.gauge("events.dispatcher.pending", Tags.empty(), pending);
+  }
+
+  /**
+   * Processes the event after the earlier events of the same key.
+   *
+   * @param key of the event, events of the same key are processed in order.
+   * @param work processes the event.
+   * @param onFailure handles the event once all the attempts failed, e.g. sends it to the DLQ.
+   * @param ack acknowledges the event to the broker.
+   */
+  public void dispatch(
+      Object key, Runnable work, Consumer<RuntimeException> onFailure, Runnable ack) {
+
+    if (stripes.length == 0) {
+      work.run();
+      ack.run();
+      return;
+    }
+
+    slots.acquireUninterruptibly();
+    pending.incrementAndGet();
+
+    var dispatched = new Dispatched(ack);
+    synchronized (inOrder) {
+      inOrder.addLast(dispatched);
+    }
+
+    stripes[Math.floorMod(Objects.hashCode(key), stripes.length)].execute(
+        () -> {
+          boolean handled = false;
+          try {
+            handled = runWithRetries(work, onFailure);
+          } finally {
+            complete(dispatched, handled);
+          }
+        });
+  }
+
+  /**
+   * Processes the event after the earlier events of the same key, without blocking a thread while
+   * the work is in progress. With a concurrency of one, the binder thread waits for the work.
+   *
+   * @param key of the event, events of the same key are processed in order.
+   * @param work gives the processing of the event, subscribed once per attempt.
+   * @param onFailure handles the event once all the attempts failed, e.g. sends it to the DLQ.
+   * @param ack acknowledges the event to the broker.
+   */
+  public void dispatchAsync(
+      Object key, Supplier<Mono<Void>> work, Consumer<RuntimeException> onFailure, Runnable ack) {
+
+    if (stripes.length == 0) {
+      work.get().block();
+      ack.run();
+      return;
+    }
+
+    slots.acquireUninterruptibly();
+    pending.incrementAndGet();
+
+    var dispatched = new Dispatched(ack);
+    synchronized (inOrder) {
+      inOrder.addLast(dispatched);
+    }
+
+    var done = new CompletableFuture<Void>();
+    CompletableFuture<Void> previous;
+    synchronized (lastOfKey) {
+      previous = lastOfKey.put(key, done);
+    }
+
+    var handled = new AtomicBoolean();
+    Mono<Void> processing =
+        Mono.defer(work)
+            .retryWhen(retries())
+            .onErrorResume(
+                ex -> {
+                  log.warn("Gives up an event after {} attempts: {}", maxAttempts, ex.toString());
+                  return Mono.<Void>fromRunnable(
+                          () -> onFailure.accept(Exceptions.propagate(ex)))
+                      .retryWhen(failureRetries());
+                })
+            .doOnSuccess(nothing -> handled.set(true))
+            .onErrorResume(ex -> Mono.empty())
+            .doFinally(
+                signal -> {
+                  synchronized (lastOfKey) {
+                    lastOfKey.remove(key, done);
+                  }
+                  done.complete(null);
+                  complete(dispatched, handled.get());
+                });
+
+    (previous == null ? processing : Mono.fromFuture(previous).then(processing)).subscribe();
+  }
+
+  @Override
+  public void destroy() {
+    closed = true;
+    for (ExecutorService stripe : stripes) stripe.shutdown();
+  }
+
+  /** @return whether the event is processed, or handed to the failure handler. */
+  private boolean runWithRetries(Runnable work, Consumer<RuntimeException> onFailure) {
+    for (int attempt = 1; ; attempt++) {
+      try {
+        work.run();
+        return true;
+      } catch (RuntimeException ex) {
+        if (attempt >= maxAttempts) {
+          log.warn("Gives up an event after {} attempts: {}", attempt, ex.toString());
+          return fail(onFailure, ex);
+        }
+        log.debug("Retries an event after attempt {} failed: {}", attempt, ex.toString());
+        sleep(backOff.multipliedBy(attempt));
+      }
+    }
+  }
+
+  /** Retries as <code>runWithRetries</code> does, the failure of the last attempt is rethrown. */
+  private Retry retries() {
+    return Retry.from(
+        signals ->
+            signals.concatMap(
+                signal -> {
+                  long attempt = signal.totalRetries() + 1;
+                  if (attempt >= maxAttempts) return Mono.<Long>error(signal.failure());
+                  log.debug(
+                      "Retries an event after attempt {} failed: {}",
+                      attempt,
+                      signal.failure().toString());
+                  return Mono.delay(backOff.multipliedBy(attempt));
+                }));
+  }
+
+  /**
+   * Hands the failed event to the failure handler, until it succeeds or the dispatcher is closed.
+   *
+   * @return whether the handler succeeded.
+   */
+  private boolean fail(Consumer<RuntimeException> onFailure, RuntimeException ex) {
+    for (int attempt = 1; !closed; attempt++) {
+      try {
+        onFailure.accept(ex);
+        return true;
+      } catch (RuntimeException failure) {
+        log.error(
+            "Can not handle a failed event, attempt {}: {}", attempt, failure.toString());
+        sleep(failureBackOff(attempt));
+      }
+    }
+    return false;
+  }
+
+  /** Retries the failure handler as <code>fail</code> does. */
+  private Retry failureRetries() {
+    return Retry.from(
+        signals ->
+            signals.concatMap(
+                signal -> {
+                  long attempt = signal.totalRetries() + 1;
+                  log.error(
+                      "Can not handle a failed event, attempt {}: {}",
+                      attempt,
+                      signal.failure().toString());
+                  if (closed) return Mono.<Long>error(signal.failure());
+                  return Mono.delay(failureBackOff(attempt));
+                }));
+  }
+
+  private Duration failureBackOff(long attempt) {
+    return backOff.multipliedBy(Math.min(attempt, MAX_FAILURE_BACK_OFF_STEPS));
+  }
+
+  private void complete(Dispatched dispatched, boolean handled) {
+    // Acknowledges in the dispatch order, as Kafka commits the offsets cumulatively.
+    synchronized (inOrder) {
+      dispatched.done = true;
+      dispatched.handled = handled;
+      while (!inOrder.isEmpty() && inOrder.peekFirst().done) {
+        if (!inOrder.peekFirst().handled) {
+          // Closed with an unhandled event, neither it nor the ones after it are acknowledged.
+          log.warn("Leaves {} events unacknowledged at shutdown", inOrder.size());
+          return;
+        }
+        try {
+          inOrder.pollFirst().ack.run();
+        } catch (RuntimeException ex) {
+          log.error("Can not acknowledge an event: {}", ex.toString());
+        } finally {
+          pending.decrementAndGet();
+          slots.release();
+        }
+      }
+    }
+  }
+
+  private void sleep(Duration duration) {
+    try {
+      Thread.sleep(duration.toMillis());
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static final class Dispatched {
+
+    private final Runnable ack;
+    private boolean done;
+    private boolean handled;
+
+    private Dispatched(Runnable ack) {
+      this.ack = ack;
+    }
+  }
+}
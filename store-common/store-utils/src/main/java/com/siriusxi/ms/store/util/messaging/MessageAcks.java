@@ -0,0 +1,58 @@
+package com.siriusxi.ms.store.util.messaging;
+
+import com.rabbitmq.client.Channel;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Class <code>MessageAcks</code> gets the manual acknowledgement of a consumed message, from the
+ * headers the binders add when the consumer acknowledges itself: the Kafka <code>
+ * Acknowledgment</code>, or the RabbitMQ channel and delivery tag; or from the {@link
+ * ReplayReceipt} of a replayed dead letter.
+ *
+ * @author mohamed.taman
+ * @version v5.9
+ * @since v5.9
+ */
+public final class MessageAcks {
+
+  private static final Runnable AUTO_ACK = () -> {};
+
+  private MessageAcks() {}
+
+  /**
+   * @param message consumed from a binder.
+   * @return acknowledges the message, or does nothing if the binder acknowledges it by itself.
+   */
+  public static Runnable of(Message<?> message) {
+
+    MessageHeaders headers = message.getHeaders();
+
+    if (headers.get(KafkaHeaders.ACKNOWLEDGMENT) instanceof Acknowledgment acknowledgment) {
+      return acknowledgment::acknowledge;
+    }
+
+    if (headers.get(AmqpHeaders.CHANNEL) instanceof Channel channel
+        && headers.get(AmqpHeaders.DELIVERY_TAG) instanceof Long deliveryTag) {
+      return () -> {
+        try {
+          channel.basicAck(deliveryTag, false);
+        } catch (IOException ex) {
+          throw new UncheckedIOException(ex);
+        }
+      };
+    }
+
+    if (headers.get(ReplayReceipt.HEADER) instanceof ReplayReceipt receipt) {
+      return receipt::done;
+    }
+
+    return AUTO_ACK;
+  }
+}
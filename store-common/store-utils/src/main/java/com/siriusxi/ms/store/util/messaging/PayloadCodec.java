@@ -0,0 +1,39 @@
+package com.siriusxi.ms.store.util.messaging;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Interface <code>PayloadCodec</code> writes and reads one type of event data for the {@link
+ * EventCodec}. Each codec owns a tag, written before the data, so the reader knows which codec to
+ * use without a target type.
+ *
+ * <p>Tags are part of the wire format, so a tag must never be reused for another type, and a
+ * codec must only add fields at the end, behind a new {@link EventCodec} format version.
+ *
+ * @param <T> the type of the event data.
+ * @author mohamed.taman
+ * @version v5.9
+ * @since v5.9
+ */
+public interface PayloadCodec<T> {
+
+  /** @return the tag of the data type, from 1 to 127, 0 marks an event without data. */
+  byte tag();
+
+  Class<T> type();
+
+  void write(T data, DataOutput out) throws IOException;
+
+  T read(DataInput in) throws IOException;
+
+  static void writeString(String value, DataOutput out) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) out.writeUTF(value);
+  }
+
+  static String readString(DataInput in) throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+}
@@ -0,0 +1,91 @@
+package com.siriusxi.ms.store.util.messaging;
+
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.GetResponse;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.connection.Connection;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Class <code>RabbitDeadLetterSource</code> reads the dead letters from the RabbitMQ DLQ of a
+ * consumer, <code>destination.group.dlq</code>. The dead letters are read unacknowledged, on a
+ * channel of its own, as the delivery tags are only valid on the channel they were read from; a
+ * commit acknowledges the ones read so far. The ones still unacknowledged at closing, as a replay
+ * that failed, are requeued.
+ *
+ * @author mohamed.taman
+ * @version v5.9
+ * @since v5.9
+ */
+@Log4j2
+final class RabbitDeadLetterSource implements DeadLetterSource {
+
+  private final Connection connection;
+  private final Channel channel;
+  private final String queue;
+  private long remaining;
+  private long lastTag;
+  private long acknowledgedTag;
+
+  RabbitDeadLetterSource(RabbitTemplate template, AmqpAdmin admin, String queue) {
+    QueueInformation information = admin.getQueueInfo(queue);
+
+    this.queue = queue;
+    this.remaining = information == null ? 0 : information.getMessageCount();
+    this.connection = template.getConnectionFactory().createConnection();
+    this.channel = connection.createChannel(false);
+  }
+
+  @Override
+  public List<byte[]> poll(int max) {
+    List<byte[]> payloads = new ArrayList<>();
+
+    try {
+      while (remaining > 0 && payloads.size() < max) {
+        GetResponse response = channel.basicGet(queue, false);
+        if (response == null) {
+          remaining = 0;
+        } else {
+          remaining--;
+          lastTag = response.getEnvelope().getDeliveryTag();
+          payloads.add(response.getBody());
+        }
+      }
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+    return payloads;
+  }
+
+  @Override
+  public void commit() {
+    if (lastTag == acknowledgedTag) return;
+
+    try {
+      channel.basicAck(lastTag, true);
+      acknowledgedTag = lastTag;
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  @Override
+  public void close() {
+    try {
+      if (lastTag != acknowledgedTag) channel.basicNack(lastTag, true, true);
+      channel.close();
+    } catch (IOException | TimeoutException ex) {
+      log.warn("Can not close the DLQ channel of: {}, {}", queue, ex.toString());
+    } finally {
+      connection.close();
+    }
+  }
+}
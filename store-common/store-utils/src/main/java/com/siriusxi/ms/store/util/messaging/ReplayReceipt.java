@@ -0,0 +1,63 @@
+package com.siriusxi.ms.store.util.messaging;
+
+import org.springframework.messaging.Message;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Class <code>ReplayReceipt</code> tells the dead letters replay when the event processor is done
+ * with the events of a replayed batch, processed or dead-lettered again. The replay sends it in
+ * the {@value HEADER} header of each event, and the processor completes it as it acknowledges the
+ * event, see {@link MessageAcks}; so the replay also waits for the events the {@link
+ * KeyOrderedDispatcher} processes on its own threads, before it removes them from the DLQ.
+ *
+ * @author mohamed.taman
+ * @version v5.9
+ * @since v5.9
+ */
+public final class ReplayReceipt {
+
+  public static final String HEADER = "x-replay-receipt";
+
+  private final CountDownLatch pending;
+  private final AtomicInteger deadLettered = new AtomicInteger();
+
+  ReplayReceipt(int events) {
+    this.pending = new CountDownLatch(events);
+  }
+
+  /**
+   * @param message of a consumed event.
+   * @return the receipt of the event, if replayed.
+   */
+  public static Optional<ReplayReceipt> of(Message<?> message) {
+    return Optional.ofNullable(message.getHeaders().get(HEADER, ReplayReceipt.class));
+  }
+
+  /** The processor is done with one of the events. */
+  public void done() {
+    pending.countDown();
+  }
+
+  /** The processor sent one of the events back to the DLQ. */
+  public void deadLettered() {
+    deadLettered.incrementAndGet();
+  }
+
+  int deadLetteredCount() {
+    return deadLettered.get();
+  }
+
+  boolean await(Duration timeout) {
+    try {
+      return pending.await(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+}
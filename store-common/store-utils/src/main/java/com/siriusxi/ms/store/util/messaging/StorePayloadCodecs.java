@@ -0,0 +1,120 @@
+package com.siriusxi.ms.store.util.messaging;
+
+import com.siriusxi.ms.store.api.core.product.dto.Product;
+import com.siriusxi.ms.store.api.core.recommendation.dto.Recommendation;
+import com.siriusxi.ms.store.api.core.review.dto.Review;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import static com.siriusxi.ms.store.util.messaging.PayloadCodec.readString;
+import static com.siriusxi.ms.store.util.messaging.PayloadCodec.writeString;
+
+/**
+ * Class <code>StorePayloadCodecs</code> holds the {@link PayloadCodec}s of the data carried by the
+ * store events, the product, recommendation and review. The fields are written in their
+ * declaration order.
+ *
+ * @author mohamed.taman
+ * @version v5.9
+ * @since v5.9
+ */
+public final class StorePayloadCodecs {
+
+  public static final PayloadCodec<Product> PRODUCT =
+      new PayloadCodec<>() {
+        @Override
+        public byte tag() {
+          return 1;
+        }
+
+        @Override
+        public Class<Product> type() {
+          return Product.class;
+        }
+
+        @Override
+        public void write(Product data, DataOutput out) throws IOException {
+          out.writeInt(data.getProductId());
+          writeString(data.getName(), out);
+          out.writeInt(data.getWeight());
+          writeString(data.getServiceAddress(), out);
+        }
+
+        @Override
+        public Product read(DataInput in) throws IOException {
+          return new Product(in.readInt(), readString(in), in.readInt(), readString(in));
+        }
+      };
+
+  public static final PayloadCodec<Recommendation> RECOMMENDATION =
+      new PayloadCodec<>() {
+        @Override
+        public byte tag() {
+          return 2;
+        }
+
+        @Override
+        public Class<Recommendation> type() {
+          return Recommendation.class;
+        }
+
+        @Override
+        public void write(Recommendation data, DataOutput out) throws IOException {
+          out.writeInt(data.getProductId());
+          out.writeInt(data.getRecommendationId());
+          writeString(data.getAuthor(), out);
+          out.writeInt(data.getRate());
+          writeString(data.getContent(), out);
+          writeString(data.getServiceAddress(), out);
+        }
+
+        @Override
+        public Recommendation read(DataInput in) throws IOException {
+          return new Recommendation(
+              in.readInt(),
+              in.readInt(),
+              readString(in),
+              in.readInt(),
+              readString(in),
+              readString(in));
+        }
+      };
+
+  public static final PayloadCodec<Review> REVIEW =
+      new PayloadCodec<>() {
+        @Override
+        public byte tag() {
+          return 3;
+        }
+
+        @Override
+        public Class<Review> type() {
+          return Review.class;
+        }
+
+        @Override
+        public void write(Review data, DataOutput out) throws IOException {
+          out.writeInt(data.getProductId());
+          out.writeInt(data.getReviewId());
+          writeString(data.getAuthor(), out);
+          writeString(data.getSubject(), out);
+          writeString(data.getContent(), out);
+          writeString(data.getServiceAddress(), out);
+        }
+
+        @Override
+        public Review read(DataInput in) throws IOException {
+          return new Review(
+              in.readInt(),
+              in.readInt(),
+              readString(in),
+              readString(in),
+              readString(in),
+              readString(in));
+        }
+      };
+
+  private StorePayloadCodecs() {}
+}
@@ -0,0 +1,100 @@
+package com.siriusxi.ms.store.util.persistence;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.WriteModel;
+import lombok.extern.log4j.Log4j2;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Class <code>MongoBulkInserter</code> inserts many entities of one type with one round trip to
+ * the database, instead of one per entity as a repository does.
+ *
+ * <p>Inserts are sent as one unordered bulk write, so a duplicate entity does not stop the rest of
+ * the batch; the duplicates are reported back by their position in the batch. The bulk write
+ * bypasses the repository, so each entity is first prepared as the repository would do on insert,
+ * e.g. its version started.
+ *
+ * @param <E> type of the entities.
+ * @author mohamed.taman
+ * @version v5.9
+ * @since v5.9
+ */
+@Log4j2
+public class MongoBulkInserter<E> {
+
+  private static final int DUPLICATE_KEY = 11000;
+
+  private final ReactiveMongoTemplate template;
+  private final Class<E> entityType;
+  private final Consumer<E> beforeInsert;
+
+  /**
+   * @param template of the database.
+   * @param entityType of the entities, which gives their collection.
+   * @param beforeInsert prepares an entity as its repository would do, e.g. starts its version.
+   */
+  public MongoBulkInserter(
+      ReactiveMongoTemplate template, Class<E> entityType, Consumer<E> beforeInsert) {
+    this.template = template;
+    this.entityType = entityType;
+    this.beforeInsert = beforeInsert;
+  }
+
+  /**
+   * Inserts the entities with one unordered bulk write.
+   *
+   * @param entities to be inserted.
+   * @return the positions, in <code>entities</code>, of the entities that were not inserted
+   *     because their key already exists. Any other failure is an error.
+   */
+  public Mono<List<Integer>> insert(List<E> entities) {
+
+    List<WriteModel<Document>> inserts =
+        entities.stream().map(this::toDocument).map(InsertOneModel::new).collect(toList());
+
+    return template
+        .getCollection(template.getCollectionName(entityType))
+        .flatMap(
+            collection ->
+                Mono.from(collection.bulkWrite(inserts, new BulkWriteOptions().ordered(false))))
+        .doOnNext(
+            result ->
+                log.debug(
+                    "Inserted {} {} in bulk",
+                    result.getInsertedCount(),
+                    entityType.getSimpleName()))
+        .map(result -> List.<Integer>of())
+        .onErrorResume(MongoBulkWriteException.class, this::duplicatesOf);
+  }
+
+  private Document toDocument(E entity) {
+    beforeInsert.accept(entity);
+    var document = new Document();
+    template.getConverter().write(entity, document);
+    return document;
+  }
+
+  private Mono<List<Integer>> duplicatesOf(MongoBulkWriteException ex) {
+
+    List<BulkWriteError> errors = ex.getWriteErrors();
+
+    if (ex.getWriteConcernError() != null
+        || errors.stream().anyMatch(error -> error.getCode() != DUPLICATE_KEY)) {
+      return Mono.error(ex);
+    }
+
+    log.debug(
+        "{} {} of the bulk insert are duplicates", errors.size(), entityType.getSimpleName());
+    return Mono.just(errors.stream().map(BulkWriteError::getIndex).collect(toList()));
+  }
+}
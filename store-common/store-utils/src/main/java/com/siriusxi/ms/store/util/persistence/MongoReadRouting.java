@@ -0,0 +1,134 @@
+package com.siriusxi.ms.store.util.persistence;
+
+import com.mongodb.ReadPreference;
+import com.siriusxi.ms.store.util.http.ReadYourWrites;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.data.mongodb.ReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.repository.support.ReactiveMongoRepositoryFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Class <code>MongoReadRouting</code> sends the reads of the GET endpoints to the replica set
+ * members chosen by <code>app.mongo-reads.readPreference</code>, such as <code>
+ * secondaryPreferred</code>, bounded by <code>app.mongo-reads.maxStalenessSec</code>, so they do
+ * not compete with the writes on the primary. The writes, and the reads of the event processing,
+ * keep using the repositories, on the primary.
+ *
+ * <p>A request that opts in to {@link ReadYourWrites} is read from the primary. The routed reads
+ * are counted by <code>store.mongo.reads</code>, per <code>route</code>, <code>primary</code> or
+ * <code>readPreference</code>; where the reads actually ran is counted by {@link
+ * MongoServerMetrics}.
+ *
+ * @author mohamed.taman
+ * @version v5.9
+ * @since v5.9
+ */
+@Component
+@ConditionalOnClass(name = "org.springframework.data.mongodb.core.ReactiveMongoTemplate")
+@Log4j2
+public class MongoReadRouting {
+
+  private final ReadYourWrites readYourWrites;
+  private final ReactiveMongoTemplate template;
+  private final boolean routed;
+  private final Counter primaryReads;
+  private final Counter routedReads;
+
+  @Autowired
+  public MongoReadRouting(
+      ReactiveMongoDatabaseFactory databaseFactory,
+      MongoConverter converter,
+      ReadYourWrites readYourWrites,
+      MeterRegistry registry,
+      @Value("${app.mongo-reads.readPreference:primary}") String readPreference,
+      @Value("${app.mongo-reads.maxStalenessSec:0}") long maxStalenessSec) {
+
+    var preference = readPreferenceOf(readPreference, maxStalenessSec);
+
+    log.info("Routes the reads of the GET endpoints to: {}", preference);
+
+    this.readYourWrites = readYourWrites;
+    this.routed = !preference.equals(ReadPreference.primary());
+    this.template = new ReactiveMongoTemplate(databaseFactory, converter);
+    this.template.setReadPreference(preference);
+    this.primaryReads = reads(registry, "primary");
+    this.routedReads = reads(registry, "readPreference");
+  }
+
+  /**
+   * @param repositoryType of a reactive Mongo repository.
+   * @return a repository of the type, whose queries use the read preference.
+   */
+  public <R> R repository(Class<R> repositoryType) {
+    return new ReactiveMongoRepositoryFactory(template).getRepository(repositoryType);
+  }
+
+  /**
+   * Picks the read of the request.
+   *
+   * @param onPrimary the read on the primary, with a repository of the application.
+   * @param onReadPreference the same read with a <code>repository</code> of this routing.
+   * @return the read on the primary if no read preference is set or the request reads its writes,
+   *     the read with the read preference otherwise.
+   */
+  public <T> Mono<T> read(Mono<T> onPrimary, Mono<T> onReadPreference) {
+    return onPrimary(readYourWrites.requested())
+        .flatMap(primary -> primary ? onPrimary : onReadPreference);
+  }
+
+  /**
+   * Picks the read of the request.
+   *
+   * @param onPrimary the read on the primary, with a repository of the application.
+   * @param onReadPreference the same read with a <code>repository</code> of this routing.
+   * @return the read on the primary if no read preference is set or the request reads its writes,
+   *     the read with the read preference otherwise.
+   */
+  public <T> Flux<T> read(Flux<T> onPrimary, Flux<T> onReadPreference) {
+    return onPrimary(readYourWrites.requested())
+        .flatMapMany(primary -> primary ? onPrimary : onReadPreference);
+  }
+
+  /**
+   * Tells the route of the reads of the request, without counting a read, for a caller that keeps
+   * what it reads, as a cache does, and must not keep what a lagging secondary served.
+   *
+   * @return whether the reads of the request go to the primary.
+   */
+  public Mono<Boolean> onPrimary() {
+    return readYourWrites.requested().map(requested -> !routed || requested);
+  }
+
+  private Mono<Boolean> onPrimary(Mono<Boolean> readsYourWrites) {
+    return readsYourWrites
+        .map(requested -> !routed || requested)
+        .doOnNext(primary -> (primary ? primaryReads : routedReads).increment());
+  }
+
+  private static ReadPreference readPreferenceOf(String name, long maxStalenessSec) {
+    // The primary takes no staleness bound, and the driver checks the bound is at least 90s.
+    return maxStalenessSec > 0 && !"primary".equalsIgnoreCase(name)
+        ? ReadPreference.valueOf(name, List.of(), maxStalenessSec, SECONDS)
+        : ReadPreference.valueOf(name);
+  }
+
+  private static Counter reads(MeterRegistry registry, String route) {
+    return Counter.builder("store.mongo.reads")
+        .description("Reads of the GET endpoints, per route")
+        .tag("route", route)
+        .register(registry);
+  }
+}
@@ -0,0 +1,75 @@
+package com.siriusxi.ms.store.util.persistence;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.connection.ServerType;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Class <code>MongoServerMetrics</code> counts the read commands sent to the database, per replica
+ * set member type, as <code>store.mongo.commands</code> tagged with the <code>command</code> and
+ * the <code>server</code>: <code>primary</code>, <code>secondary</code>, or <code>standalone
+ * </code>. It shows the primary and secondary split of the {@link MongoReadRouting}.
+ *
+ * @author mohamed.taman
+ * @version v5.9
+ * @since v5.9
+ */
+@Component
+@ConditionalOnClass(name = "com.mongodb.reactivestreams.client.MongoClient")
+public class MongoServerMetrics implements MongoClientSettingsBuilderCustomizer {
+
+  private static final Set<String> READS = Set.of("find", "getMore", "aggregate", "count");
+
+  private final MeterRegistry registry;
+
+  @Autowired
+  public MongoServerMetrics(MeterRegistry registry) {
+    this.registry = registry;
+  }
+
+  @Override
+  public void customize(MongoClientSettings.Builder settings) {
+    settings.addCommandListener(
+        new CommandListener() {
+          @Override
+          public void commandStarted(CommandStartedEvent event) {
+            if (READS.contains(event.getCommandName())) {
+              commands(event.getCommandName(), event.getConnectionDescription().getServerType())
+                  .increment();
+            }
+          }
+
+          @Override
+          public void commandSucceeded(CommandSucceededEvent event) {}
+
+          @Override
+          public void commandFailed(CommandFailedEvent event) {}
+        });
+  }
+
+  private Counter commands(String command, ServerType serverType) {
+    return Counter.builder("store.mongo.commands")
+        .description("Read commands sent to the database, per server")
+        .tags("command", command, "server", serverOf(serverType))
+        .register(registry);
+  }
+
+  private static String serverOf(ServerType serverType) {
+    return switch (serverType) {
+      case REPLICA_SET_PRIMARY -> "primary";
+      case REPLICA_SET_SECONDARY -> "secondary";
+      default -> serverType.name().toLowerCase();
+    };
+  }
+}
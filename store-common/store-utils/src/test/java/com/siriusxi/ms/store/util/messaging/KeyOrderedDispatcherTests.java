@@ -0,0 +1,157 @@
+package com.siriusxi.ms.store.util.messaging;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeyOrderedDispatcherTests {
+
+  // Integer keys 0 and 1 hash to two different stripes.
+  private static final int SLOW_KEY = 0;
+  private static final int OTHER_KEY = 1;
+
+  private final KeyOrderedDispatcher dispatcher =
+      new KeyOrderedDispatcher(new SimpleMeterRegistry(), "tests", 4, 100, 3, 10);
+
+  private final List<String> processed = Collections.synchronizedList(new ArrayList<>());
+  private final List<String> acked = Collections.synchronizedList(new ArrayList<>());
+
+  @AfterEach
+  public void closeDispatcher() {
+    dispatcher.destroy();
+  }
+
+  @Test
+  public void eventsOfOneKeyRunInOrderAndOtherKeysInParallel() throws InterruptedException {
+
+    var otherKeyDone = new CountDownLatch(2);
+    var otherKeyRanMeanwhile = new AtomicBoolean();
+    var acks = new CountDownLatch(5);
+
+    dispatch(SLOW_KEY, "a1", () -> otherKeyRanMeanwhile.set(await(otherKeyDone)), acks);
+    dispatch(SLOW_KEY, "a2", () -> {}, acks);
+    dispatch(SLOW_KEY, "a3", () -> {}, acks);
+    dispatch(OTHER_KEY, "b1", otherKeyDone::countDown, acks);
+    dispatch(OTHER_KEY, "b2", otherKeyDone::countDown, acks);
+
+    assertThat(acks.await(5, TimeUnit.SECONDS)).isTrue();
+
+    // The other key ran while the first event of the slow key was still in progress.
+    assertThat(otherKeyRanMeanwhile).isTrue();
+    assertThat(processed).containsSubsequence("a1", "a2", "a3");
+    assertThat(processed).containsSubsequence("b1", "b2");
+
+    // The acknowledgements follow the dispatch order, not the processing order.
+    assertThat(acked).containsExactly("a1", "a2", "a3", "b1", "b2");
+  }
+
+  @Test
+  public void noEventIsAckedBeforeAnEarlierOneIsDone() throws InterruptedException {
+
+    var release = new CountDownLatch(1);
+    var otherKeyDone = new CountDownLatch(1);
+    var acks = new CountDownLatch(2);
+
+    dispatch(SLOW_KEY, "a1", () -> await(release), acks);
+    dispatch(OTHER_KEY, "b1", otherKeyDone::countDown, acks);
+
+    assertThat(otherKeyDone.await(5, TimeUnit.SECONDS)).isTrue();
+    TimeUnit.MILLISECONDS.sleep(100);
+    assertThat(acked).isEmpty();
+
+    release.countDown();
+
+    assertThat(acks.await(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(acked).containsExactly("a1", "b1");
+  }
+
+  @Test
+  public void aFailedEventIsAckedOnlyOnceItReachesTheDlq() throws InterruptedException {
+
+    var attempts = new AtomicInteger();
+    var dlqAttempts = new AtomicInteger();
+    var acks = new CountDownLatch(2);
+
+    dispatcher.dispatch(
+        SLOW_KEY,
+        () -> {
+          attempts.incrementAndGet();
+          throw new IllegalStateException("Failed");
+        },
+        ex -> {
+          // The DLQ is down for the first two sends.
+          if (dlqAttempts.incrementAndGet() < 3) throw new IllegalStateException("DLQ down");
+          processed.add("dlq");
+        },
+        () -> ack("a1", acks));
+    dispatch(OTHER_KEY, "b1", () -> {}, acks);
+
+    assertThat(acks.await(5, TimeUnit.SECONDS)).isTrue();
+
+    assertThat(attempts).hasValue(3);
+    assertThat(dlqAttempts).hasValue(3);
+    assertThat(acked).containsExactly("a1", "b1");
+    assertThat(processed.indexOf("dlq")).isLessThan(processed.indexOf("ack a1"));
+  }
+
+  @Test
+  public void asyncEventsOfOneKeyRunInOrderAndOtherKeysInParallel() throws InterruptedException {
+
+    var acks = new CountDownLatch(3);
+
+    dispatchAsync(SLOW_KEY, "a1", Mono.delay(Duration.ofMillis(300)).then(), acks);
+    dispatchAsync(SLOW_KEY, "a2", Mono.empty(), acks);
+    dispatchAsync(OTHER_KEY, "b1", Mono.empty(), acks);
+
+    assertThat(acks.await(5, TimeUnit.SECONDS)).isTrue();
+
+    assertThat(processed).containsSubsequence("b1", "a1", "a2");
+    assertThat(acked).containsExactly("a1", "a2", "b1");
+  }
+
+  private void dispatch(int key, String event, Runnable work, CountDownLatch acks) {
+    dispatcher.dispatch(
+        key,
+        () -> {
+          work.run();
+          processed.add(event);
+        },
+        ex -> processed.add("dlq " + event),
+        () -> ack(event, acks));
+  }
+
+  private void dispatchAsync(int key, String event, Mono<Void> work, CountDownLatch acks) {
+    dispatcher.dispatchAsync(
+        key,
+        () -> work.then(Mono.fromRunnable(() -> processed.add(event))),
+        ex -> processed.add("dlq " + event),
+        () -> ack(event, acks));
+  }
+
+  private void ack(String event, CountDownLatch acks) {
+    processed.add("ack " + event);
+    acked.add(event);
+    acks.countDown();
+  }
+
+  private boolean await(CountDownLatch latch) {
+    try {
+      return latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+}
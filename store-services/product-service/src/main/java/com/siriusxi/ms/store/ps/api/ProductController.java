@@ -7,8 +7,11 @@ import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 /**
  * Class <code>ProductController</code> is the implementation of the main Product Endpoint API
  * definition.
@@ -35,4 +38,10 @@ public class ProductController implements ProductEndpoint {
   public Mono<Product> getProduct(int id, int delay, int faultPercent) {
     return prodService.getProduct(id, delay, faultPercent);
   }
+
+  /** {@inheritDoc} */
+  @Override
+  public Flux<Product> getProducts(List<Integer> ids) {
+    return prodService.getProducts(ids);
+  }
 }
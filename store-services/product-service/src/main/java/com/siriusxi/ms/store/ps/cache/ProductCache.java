@@ -0,0 +1,108 @@
+package com.siriusxi.ms.store.ps.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.siriusxi.ms.store.api.core.product.dto.Product;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Class <code>ProductCache</code> is an in-process, size and TTL bounded near cache of the products
+ * read by <code>getProduct</code>, so a repeated read does not query the database.
+ *
+ * <p>Entries are evicted when the product is created or deleted, by this instance or, through the
+ * product events, by any other; the TTL bounds the staleness of a missed event. Hits, misses,
+ * evictions and size are exported as <code>cache.*</code> meters tagged with <code>
+ * cache=product</code>, the misses being the reads that went to the database.
+ *
+ * <p>A read that started before an eviction does not put its, maybe stale, product in the cache:
+ * readers take a <code>stamp</code> before the read, and the product is only kept if no eviction
+ * happened since. Only the products read from the primary are kept, a secondary may still serve
+ * the product as it was before its last eviction; so with a read preference other than the
+ * primary, the cache only keeps the products of the requests that read their writes.
+ *
+ * @see com.siriusxi.ms.store.ps.infra.CacheInvalidationProcessor
+ * @author mohamed.taman
+ * @version v5.9
+ * @since v5.9
+ */
+@Component
+@Log4j2
+public class ProductCache {
+
+  private static final String CACHE_NAME = "product";
+
+  private final boolean enabled;
+  private final Cache<Integer, Product> cache;
+  private final AtomicLong evictions = new AtomicLong();
+
+  @Autowired
+  public ProductCache(
+      MeterRegistry registry,
+      @Value("${app.product-cache.enabled:true}") boolean enabled,
+      @Value("${app.product-cache.maxSize:10000}") long maxSize,
+      @Value("${app.product-cache.ttlSec:60}") int ttlSec) {
+
+    log.info(
+        "Creates a product cache, enabled: {}, maxSize: {}, ttlSec: {}", enabled, maxSize, ttlSec);
+
+    this.enabled = enabled;
+    this.cache =
+        Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofSeconds(ttlSec))
+            .recordStats()
+            .build();
+
+    CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+  }
+
+  public Optional<Product> get(int productId) {
+    return enabled ? Optional.ofNullable(cache.getIfPresent(productId)) : Optional.empty();
+  }
+
+  /** @return stamp to be passed to <code>put</code>, taken before reading the product. */
+  public long stamp() {
+    return evictions.get();
+  }
+
+  /**
+   * Caches the product, unless an eviction happened since the stamp was taken.
+   *
+   * @param product read from the database.
+   * @param stamp taken before the read.
+   */
+  public void put(Product product, long stamp) {
+    if (!enabled || evictions.get() != stamp) return;
+
+    cache.put(product.getProductId(), product);
+
+    // An eviction between the check and the put may have missed the product.
+    if (evictions.get() != stamp) cache.invalidate(product.getProductId());
+  }
+
+  public void evict(int productId) {
+    log.debug("Evicts the cached product for productId: {}", productId);
+    evictions.incrementAndGet();
+    cache.invalidate(productId);
+  }
+
+  public void evictAll(Collection<Integer> productIds) {
+    evictions.incrementAndGet();
+    cache.invalidateAll(productIds);
+  }
+
+  public void clear() {
+    evictions.incrementAndGet();
+    cache.invalidateAll();
+  }
+}
@@ -0,0 +1,104 @@
+package com.siriusxi.ms.store.ps.infra;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siriusxi.ms.store.api.core.product.dto.Product;
+import com.siriusxi.ms.store.api.event.Event;
+import com.siriusxi.ms.store.ps.cache.ProductCache;
+import com.siriusxi.ms.store.ps.persistence.ProductBulkWriter;
+import com.siriusxi.ms.store.ps.persistence.ProductEntity;
+import com.siriusxi.ms.store.ps.service.ProductMapper;
+import com.siriusxi.ms.store.util.messaging.BatchEventProcessor;
+import com.siriusxi.ms.store.util.messaging.EventChannels;
+import com.siriusxi.ms.store.util.messaging.EventCodec;
+import com.siriusxi.ms.store.util.messaging.EventMetrics;
+import com.siriusxi.ms.store.util.messaging.EventPayloads;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.stream.annotation.EnableBinding;
+import org.springframework.cloud.stream.annotation.StreamListener;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Class <code>BatchMessageProcessor</code> is the batch mode of the {@link MessageProcessor}, it
+ * receives the product events as lists, and writes each run of consecutive CREATE or DELETE events
+ * with one bulk operation, instead of one database call per event.
+ *
+ * @implNote Enabled with <code>app.product-events.batch.enabled</code>, which also needs the
+ *     binder batch mode, see the <code>streaming_batch</code> profile.
+ * @see BatchEventProcessor
+ * @see ProductBulkWriter
+ * @author mohamed.taman
+ * @version v5.9
+ * @since v5.9
+ */
+@EnableBinding(EventChannels.class)
+@ConditionalOnProperty(name = "app.product-events.batch.enabled", havingValue = "true")
+@Log4j2
+public class BatchMessageProcessor extends BatchEventProcessor<Product> {
+
+  private final ProductBulkWriter writer;
+  private final ProductMapper mapper;
+  private final ProductCache cache;
+
+  @Autowired
+  public BatchMessageProcessor(
+      ProductBulkWriter writer,
+      ProductMapper mapper,
+      ProductCache cache,
+      EventChannels channels,
+      ObjectMapper objectMapper,
+      EventCodec codec,
+      EventMetrics metrics,
+      EventPayloads payloads) {
+    super("product", Product.class, channels.dlq(), objectMapper, codec, metrics, payloads);
+    this.writer = writer;
+    this.mapper = mapper;
+    this.cache = cache;
+  }
+
+  @StreamListener(target = EventChannels.INPUT)
+  public void process(List<?> payloads) {
+    processBatch(payloads);
+  }
+
+  @Override
+  protected Mono<Void> create(List<Event<Integer, Product>> run) {
+
+    List<ProductEntity> entities =
+        run.stream().map(event -> mapper.apiToEntity(event.getData())).collect(toList());
+
+    return writer
+        .insert(entities)
+        .doOnNext(
+            duplicates -> {
+              log.info("Created {} products", run.size() - duplicates.size());
+              for (int index : duplicates) {
+                var event = run.get(index);
+                reject(event, "Duplicate key, Product Id: " + event.getData().getProductId());
+              }
+            })
+        .then();
+  }
+
+  @Override
+  protected Mono<Void> delete(List<Event<Integer, Product>> run) {
+
+    List<Integer> productIds = run.stream().map(Event::getKey).collect(toList());
+
+    return writer
+        .remove(productIds)
+        .doOnNext(count -> log.info("Deleted {} of {} products", count, productIds.size()))
+        .doFinally(signal -> cache.evictAll(productIds))
+        .then();
+  }
+
+  @Override
+  protected int productIdOf(Product product) {
+    return product.getProductId();
+  }
+}
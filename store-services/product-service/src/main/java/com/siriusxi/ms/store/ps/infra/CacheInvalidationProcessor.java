@@ -0,0 +1,67 @@
+package com.siriusxi.ms.store.ps.infra;
+
+import com.siriusxi.ms.store.api.event.Event;
+import com.siriusxi.ms.store.ps.cache.ProductCache;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.stream.annotation.EnableBinding;
+import org.springframework.cloud.stream.annotation.Input;
+import org.springframework.cloud.stream.annotation.StreamListener;
+import org.springframework.messaging.SubscribableChannel;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+import static com.siriusxi.ms.store.ps.infra.CacheInvalidationProcessor.MessageSinks;
+
+/**
+ * Class <code>CacheInvalidationProcessor</code> listens to the product events, as the {@link
+ * MessageProcessor} does, and evicts the product from the local cache. The instance that writes
+ * the product evicts it as well, this processor lets the other instances do so.
+ *
+ * <p>The event reaches this anonymous subscription as it reaches the consumer group that writes
+ * the product, so the eviction usually comes before the write commits, and a read in between
+ * caches the old product again. The product is therefore evicted once more, <code>
+ * app.product-cache.invalidationDelayMs</code> later, once the write is expected to be done; a
+ * write later than that is still bounded by the TTL.
+ *
+ * @implNote The binding has no consumer group on purpose, so that every product instance gets its
+ *     own anonymous subscription and receives all events.
+ * @see ProductCache
+ * @author mohamed.taman
+ * @version v5.9
+ * @since v5.9
+ */
+@EnableBinding(MessageSinks.class)
+@Log4j2
+public class CacheInvalidationProcessor {
+
+  private final ProductCache cache;
+  private final Duration invalidationDelay;
+
+  @Autowired
+  public CacheInvalidationProcessor(
+      ProductCache cache,
+      @Value("${app.product-cache.invalidationDelayMs:2000}") long invalidationDelayMs) {
+    this.cache = cache;
+    this.invalidationDelay = Duration.ofMillis(invalidationDelayMs);
+  }
+
+  @StreamListener(target = MessageSinks.INPUT_CACHE)
+  public void onProductEvent(Event<Integer, Object> event) {
+    log.debug("Got a {} event for productId: {}", event.getEventType(), event.getKey());
+
+    int productId = event.getKey();
+    cache.evict(productId);
+    Mono.delay(invalidationDelay).subscribe(tick -> cache.evict(productId));
+  }
+
+  public interface MessageSinks {
+
+    String INPUT_CACHE = "input-cache";
+
+    @Input(INPUT_CACHE)
+    SubscribableChannel inputCache();
+  }
+}
@@ -4,38 +4,62 @@ import com.siriusxi.ms.store.api.core.product.ProductService;
 import com.siriusxi.ms.store.api.core.product.dto.Product;
 import com.siriusxi.ms.store.api.event.Event;
 import com.siriusxi.ms.store.util.exceptions.EventProcessingException;
+import com.siriusxi.ms.store.util.messaging.EventChannels;
+import com.siriusxi.ms.store.util.messaging.EventConsumer;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cloud.stream.annotation.EnableBinding;
 import org.springframework.cloud.stream.annotation.StreamListener;
-import org.springframework.cloud.stream.messaging.Sink;
+import org.springframework.messaging.Message;
+import reactor.core.publisher.Mono;
 
-@EnableBinding(Sink.class)
+@EnableBinding(EventChannels.class)
+@ConditionalOnProperty(
+        name = "app.product-events.batch.enabled",
+        havingValue = "false",
+        matchIfMissing = true)
 @Log4j2
 public class MessageProcessor {
 
     private final ProductService productService;
+    private final EventChannels channels;
+    private final EventConsumer consumer;
 
     @Autowired
-    public MessageProcessor(@Qualifier("ProductServiceImpl") ProductService productService) {
+    public MessageProcessor(
+            @Qualifier("ProductServiceImpl") ProductService productService,
+            EventChannels channels,
+            EventConsumer consumer) {
         this.productService = productService;
+        this.channels = channels;
+        this.consumer = consumer;
     }
 
-    @StreamListener(target = Sink.INPUT)
-    public void process(Event<Integer, Product> event) {
+    /*
+     Events of the same product are processed in order, events of different products
+     may be processed in parallel, see KeyOrderedDispatcher. The product is written with
+     the reactive driver, so no thread waits for the database while an event is in progress.
+    */
+    @StreamListener(target = EventChannels.INPUT)
+    public void process(Message<Event<Integer, Product>> message) {
+        consumer.consume(message, channels.dlq(), this::process);
+    }
+
+    private Mono<Void> process(Event<Integer, Product> event) {
 
         log.info("Process message created at {}...", event.getEventCreatedAt());
 
-        switch (event.getEventType()) {
+        Mono<Void> processing = switch (event.getEventType()) {
             case CREATE -> {
                 Product product = event.getData();
                 log.info("Create product with ID: {}", product.getProductId());
-                productService.createProduct(product);
+                yield productService.createProductAsync(product).then();
             }
             case DELETE -> {
                 log.info("Delete product with Product Id: {}", event.getKey());
-                productService.deleteProduct(event.getKey());
+                yield productService.deleteProductAsync(event.getKey());
             }
             default -> {
                 String errorMessage =
@@ -45,9 +69,8 @@ public class MessageProcessor {
                 log.warn(errorMessage);
                 throw new EventProcessingException(errorMessage);
             }
-        }
+        };
 
-        log.info("Message processing done!");
+        return processing.doOnSuccess(done -> log.info("Message processing done!"));
     }
-
 }
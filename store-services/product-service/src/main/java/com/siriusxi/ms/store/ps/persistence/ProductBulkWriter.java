@@ -0,0 +1,61 @@
+package com.siriusxi.ms.store.ps.persistence;
+
+import com.mongodb.client.result.DeleteResult;
+import com.siriusxi.ms.store.util.persistence.MongoBulkInserter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Class <code>ProductBulkWriter</code> writes many products with one round trip to the database,
+ * instead of one per product as the <code>ProductRepository</code> does.
+ *
+ * @see MongoBulkInserter
+ * @author mohamed.taman
+ * @version v5.9
+ * @since v5.9
+ */
+@Component
+public class ProductBulkWriter {
+
+  private final ReactiveMongoTemplate template;
+  private final MongoBulkInserter<ProductEntity> inserter;
+
+  @Autowired
+  public ProductBulkWriter(ReactiveMongoTemplate template) {
+    this.template = template;
+    // Starts the version as the repository does, as the bulk write bypasses it.
+    this.inserter =
+        new MongoBulkInserter<>(template, ProductEntity.class, entity -> entity.setVersion(0));
+  }
+
+  /**
+   * Inserts the products with one unordered bulk write.
+   *
+   * @param entities to be inserted.
+   * @return the positions, in <code>entities</code>, of the products that were not inserted
+   *     because their product id already exists. Any other failure is an error.
+   */
+  public Mono<List<Integer>> insert(List<ProductEntity> entities) {
+    return inserter.insert(entities);
+  }
+
+  /**
+   * Deletes the products with one <code>$in</code> query. Products that do not exist are ignored.
+   *
+   * @param productIds of the products to be deleted.
+   * @return the number of deleted products.
+   */
+  public Mono<Long> remove(Collection<Integer> productIds) {
+    return template
+        .remove(query(where("productId").in(productIds)), ProductEntity.class)
+        .map(DeleteResult::getDeletedCount);
+  }
+}
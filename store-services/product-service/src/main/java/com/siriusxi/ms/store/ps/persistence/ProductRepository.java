@@ -2,10 +2,30 @@ package com.siriusxi.ms.store.ps.persistence;
 
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Collection;
+
 @Repository
 public interface ProductRepository extends ReactiveCrudRepository<ProductEntity, String> {
 
   Mono<ProductEntity> findByProductId(int productId);
+
+  /**
+   * Finds all the products of the given ids with one <code>$in</code> query, sorted by product id,
+   * so the unique <code>productId</code> index serves both the filter and the sort.
+   *
+   * @param productIds are the product ids that you are looking for.
+   * @return the found products, sorted by product id.
+   */
+  Flux<ProductEntity> findByProductIdInOrderByProductIdAsc(Collection<Integer> productIds);
+
+  /**
+   * Deletes the product with one <code>deleteMany</code> by product id, without reading it first.
+   *
+   * @param productId of the product to delete.
+   * @return the number of deleted products, 0 or 1.
+   */
+  Mono<Long> deleteByProductId(int productId);
 }
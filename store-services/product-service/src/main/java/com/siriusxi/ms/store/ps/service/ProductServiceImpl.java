@@ -2,17 +2,23 @@ package com.siriusxi.ms.store.ps.service;
 
 import com.siriusxi.ms.store.api.core.product.ProductService;
 import com.siriusxi.ms.store.api.core.product.dto.Product;
+import com.siriusxi.ms.store.ps.cache.ProductCache;
 import com.siriusxi.ms.store.ps.persistence.ProductRepository;
 import com.siriusxi.ms.store.util.exceptions.InvalidInputException;
 import com.siriusxi.ms.store.util.exceptions.NotFoundException;
+import com.siriusxi.ms.store.util.http.Deadlines;
+import com.siriusxi.ms.store.util.http.ReadYourWrites;
 import com.siriusxi.ms.store.util.http.ServiceUtil;
+import com.siriusxi.ms.store.util.persistence.MongoReadRouting;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.Duration;
+import java.util.List;
 import java.util.Random;
 
 import static reactor.core.publisher.Mono.error;
@@ -24,20 +30,41 @@ public class ProductServiceImpl implements ProductService {
   private final ServiceUtil serviceUtil;
 
   private final ProductRepository repository;
+  private final ProductRepository readRepository;
 
   private final ProductMapper mapper;
+  private final ProductCache cache;
+  private final Deadlines deadlines;
+  private final MongoReadRouting reads;
+  private final ReadYourWrites readYourWrites;
   private final Random randomNumberGenerator = new Random();
 
   @Autowired
   public ProductServiceImpl(
-      ProductRepository repository, ProductMapper mapper, ServiceUtil serviceUtil) {
+      ProductRepository repository,
+      ProductMapper mapper,
+      ProductCache cache,
+      ServiceUtil serviceUtil,
+      Deadlines deadlines,
+      MongoReadRouting reads,
+      ReadYourWrites readYourWrites) {
     this.repository = repository;
+    this.readRepository = reads.repository(ProductRepository.class);
     this.mapper = mapper;
+    this.cache = cache;
     this.serviceUtil = serviceUtil;
+    this.deadlines = deadlines;
+    this.reads = reads;
+    this.readYourWrites = readYourWrites;
   }
 
   @Override
   public Product createProduct(Product body) {
+    return createProductAsync(body).block();
+  }
+
+  @Override
+  public Mono<Product> createProductAsync(Product body) {
 
     isValidProductId(body.getProductId());
 
@@ -48,7 +75,7 @@ public class ProductServiceImpl implements ProductService {
             DuplicateKeyException.class,
             ex -> new InvalidInputException("Duplicate key, Product Id: " + body.getProductId()))
         .map(mapper::entityToApi)
-        .block();
+        .doFinally(signal -> cache.evict(body.getProductId()));
   }
 
   @Override
@@ -60,9 +87,56 @@ public class ProductServiceImpl implements ProductService {
 
     if (faultPercent > 0) throwErrorIfBadLuck(faultPercent);
 
-    return repository
-        .findByProductId(productId)
-        .switchIfEmpty(error(new NotFoundException("No product found for productId: " + productId)))
+    // A request that reads its writes skips the cache, as it may hold an older product.
+    return readYourWrites
+        .requested()
+        .flatMap(latest -> latest ? Mono.<Product>empty() : Mono.justOrEmpty(cache.get(productId)))
+        .switchIfEmpty(Mono.defer(() -> readProduct(productId)));
+  }
+
+  private Mono<Product> readProduct(int productId) {
+
+    long stamp = cache.stamp();
+
+    // A product read from a secondary may be older than its last eviction, so it is not cached.
+    return reads
+        .onPrimary()
+        .flatMap(
+            primary ->
+                deadlines
+                    .within(
+                        "product.db",
+                        reads.read(
+                            repository.findByProductId(productId),
+                            readRepository.findByProductId(productId)))
+                    .switchIfEmpty(
+                        error(
+                            new NotFoundException(
+                                "No product found for productId: " + productId)))
+                    .log()
+                    .map(mapper::entityToApi)
+                    .map(
+                        e -> {
+                          e.setServiceAddress(serviceUtil.getServiceAddress());
+                          return e;
+                        })
+                    .doOnNext(
+                        product -> {
+                          if (primary) cache.put(product, stamp);
+                        }));
+  }
+
+  @Override
+  public Flux<Product> getProducts(List<Integer> productIds) {
+
+    productIds.forEach(this::isValidProductId);
+
+    return deadlines
+        .within(
+            "product.db",
+            reads.read(
+                repository.findByProductIdInOrderByProductIdAsc(productIds),
+                readRepository.findByProductIdInOrderByProductIdAsc(productIds)))
         .log()
         .map(mapper::entityToApi)
         .map(
@@ -78,12 +152,21 @@ public class ProductServiceImpl implements ProductService {
   */
   @Override
   public void deleteProduct(int productId) {
+    deleteProductAsync(productId).block();
+  }
+
+  @Override
+  public Mono<Void> deleteProductAsync(int productId) {
 
     isValidProductId(productId);
 
     log.debug("deleteProduct: tries to delete an entity with productId: {}", productId);
 
-    repository.findByProductId(productId).log().map(repository::delete).flatMap(e -> e).block();
+    return repository
+        .deleteByProductId(productId)
+        .doOnNext(count -> log.debug("deleteProduct: deleted {} products", count))
+        .doFinally(signal -> cache.evict(productId))
+        .then();
   }
 
   // TODO could be added to a utility class to be used by all core services implementations.
@@ -0,0 +1,131 @@
+package com.siriusxi.ms.store.ps;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Envelope;
+import com.rabbitmq.client.GetResponse;
+import com.siriusxi.ms.store.api.core.product.dto.Product;
+import com.siriusxi.ms.store.api.event.Event;
+import com.siriusxi.ms.store.ps.persistence.ProductRepository;
+import com.siriusxi.ms.store.util.messaging.DeadLetterReplayEndpoint;
+import com.siriusxi.ms.store.util.messaging.DeadLetterReplayEndpoint.Progress;
+import com.siriusxi.ms.store.util.messaging.EventChannels;
+import com.siriusxi.ms.store.util.messaging.EventCodec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.connection.Connection;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cloud.stream.test.binder.MessageCollector;
+import org.springframework.messaging.Message;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.siriusxi.ms.store.api.event.Event.Type.CREATE;
+import static com.siriusxi.ms.store.util.messaging.DeadLetterReplayEndpoint.State.DONE;
+import static com.siriusxi.ms.store.util.messaging.DeadLetterReplayEndpoint.State.RUNNING;
+import static com.siriusxi.ms.store.util.messaging.EventChannels.EXCEPTION_MESSAGE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+
+@SpringBootTest(
+    webEnvironment = RANDOM_PORT,
+    properties = {
+            "spring.data.mongodb.port: 0",
+            "eureka.client.enabled: false",
+            "spring.cloud.config.enabled: false",
+            "spring.sleuth.enabled: false",
+            "spring.data.mongodb.auto-index-creation: true",
+            "app.database.host: localhost",
+            "spring.cloud.stream.bindings.input.destination: products",
+            "spring.cloud.stream.bindings.input.group: productsGroup",
+            "spring.cloud.stream.bindings.dlq.destination: DLX"})
+class DeadLetterReplayTests {
+
+  private static final String QUEUE = "products.productsGroup.dlq";
+
+  @MockBean
+  private RabbitTemplate rabbitTemplate;
+
+  @MockBean
+  private AmqpAdmin amqpAdmin;
+
+  @Autowired
+  private DeadLetterReplayEndpoint endpoint;
+
+  @Autowired
+  private ProductRepository repository;
+
+  @Autowired
+  private EventChannels channels;
+
+  @Autowired
+  private MessageCollector collector;
+
+  @Autowired
+  private EventCodec codec;
+
+  private final Channel channel = mock(Channel.class);
+
+  @BeforeEach
+  public void setup() {
+    repository.deleteAll().block();
+
+    var connectionFactory = mock(ConnectionFactory.class);
+    var connection = mock(Connection.class);
+    when(rabbitTemplate.getConnectionFactory()).thenReturn(connectionFactory);
+    when(connectionFactory.createConnection()).thenReturn(connection);
+    when(connection.createChannel(false)).thenReturn(channel);
+  }
+
+  @Test
+  public void replaysTheDeadLettersAndAcknowledgesThemOnceProcessed() throws Exception {
+
+    when(amqpAdmin.getQueueInfo(QUEUE)).thenReturn(new QueueInformation(QUEUE, 2, 0));
+    when(channel.basicGet(QUEUE, false)).thenReturn(deadLetter(1, 1), deadLetter(2, 1));
+
+    endpoint.replay(null, null);
+    Progress progress = awaitEnd();
+
+    // The second dead letter is a duplicate, so it goes back to the DLQ.
+    assertEquals(DONE, progress.state());
+    assertEquals(2, progress.replayed());
+    assertEquals(1, progress.deadLettered());
+    assertNotNull(repository.findByProductId(1).block());
+
+    Message<?> deadLetter = collector.forChannel(channels.dlq()).poll(5, TimeUnit.SECONDS);
+    assertNotNull(deadLetter);
+    assertEquals("Duplicate key, Product Id: 1", deadLetter.getHeaders().get(EXCEPTION_MESSAGE));
+
+    verify(channel).basicAck(2, true);
+    verify(channel, never()).basicNack(anyLong(), anyBoolean(), anyBoolean());
+  }
+
+  private GetResponse deadLetter(long deliveryTag, int productId) {
+    var product = new Product(productId, "Name " + productId, productId, "SA");
+    return new GetResponse(
+        new Envelope(deliveryTag, false, "DLX", QUEUE),
+        new AMQP.BasicProperties(),
+        codec.encode(new Event<>(CREATE, productId, product)),
+        0);
+  }
+
+  private Progress awaitEnd() throws InterruptedException {
+    for (int polls = 0; polls < 100 && endpoint.progress().state() == RUNNING; polls++) {
+      TimeUnit.MILLISECONDS.sleep(100);
+    }
+    return endpoint.progress();
+  }
+}
@@ -1,23 +1,30 @@
 package com.siriusxi.ms.store.ps;
 
+import com.siriusxi.ms.store.ps.persistence.ProductBulkWriter;
 import com.siriusxi.ms.store.ps.persistence.ProductEntity;
 import com.siriusxi.ms.store.ps.persistence.ProductRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.dao.OptimisticLockingFailureException;
 import reactor.test.StepVerifier;
 
+import java.util.List;
+
 @DataMongoTest(properties = {
         "spring.cloud.config.enabled: false",
         "spring.data.mongodb.auto-index-creation: true",
         "app.database.host: localhost"})
+@Import(ProductBulkWriter.class)
 class PersistenceTests {
 
   @Autowired private ProductRepository repository;
 
+  @Autowired private ProductBulkWriter bulkWriter;
+
   private ProductEntity savedEntity;
 
   @BeforeEach
@@ -92,6 +99,27 @@ class PersistenceTests {
         .verify();
   }
 
+  @Test
+  public void bulkInsertAndRemove() {
+
+    var duplicate = new ProductEntity(savedEntity.getProductId(), "n", 1);
+
+    // Only the duplicate is rejected, by its position, the rest of the batch is inserted.
+    StepVerifier.create(
+            bulkWriter.insert(
+                List.of(new ProductEntity(2, "n", 2), duplicate, new ProductEntity(3, "n", 3))))
+        .expectNext(List.of(1))
+        .verifyComplete();
+
+    StepVerifier.create(repository.findByProductId(2))
+        .expectNextMatches(foundEntity -> foundEntity.getVersion() == 0)
+        .verifyComplete();
+
+    StepVerifier.create(bulkWriter.remove(List.of(1, 2, 13))).expectNext(2L).verifyComplete();
+
+    StepVerifier.create(repository.count()).expectNext(1L).verifyComplete();
+  }
+
   @Test
   public void optimisticLockError() {
 
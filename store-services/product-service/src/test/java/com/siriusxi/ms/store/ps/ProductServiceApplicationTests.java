@@ -2,8 +2,14 @@ package com.siriusxi.ms.store.ps;
 
 import com.siriusxi.ms.store.api.core.product.dto.Product;
 import com.siriusxi.ms.store.api.event.Event;
+import com.siriusxi.ms.store.ps.cache.ProductCache;
+import com.siriusxi.ms.store.ps.infra.CacheInvalidationProcessor.MessageSinks;
 import com.siriusxi.ms.store.ps.persistence.ProductRepository;
 import com.siriusxi.ms.store.util.exceptions.InvalidInputException;
+import com.siriusxi.ms.store.util.http.Deadlines;
+import com.siriusxi.ms.store.util.http.ReadYourWrites;
+import com.siriusxi.ms.store.util.messaging.EventCodec;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,13 +17,20 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.cloud.stream.messaging.Sink;
 import org.springframework.http.HttpStatus;
 import org.springframework.integration.channel.AbstractMessageChannel;
+import org.springframework.messaging.MessageHeaders;
 import org.springframework.messaging.MessagingException;
 import org.springframework.messaging.support.GenericMessage;
+import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static com.siriusxi.ms.store.api.event.Event.Type.CREATE;
 import static com.siriusxi.ms.store.api.event.Event.Type.DELETE;
+import static com.siriusxi.ms.store.util.messaging.EventMessageConverter.CONTENT_TYPE;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.integration.IntegrationMessageHeaderAccessor.DELIVERY_ATTEMPT;
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
 import static org.springframework.http.HttpStatus.*;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
@@ -31,7 +44,8 @@ import static org.springframework.http.MediaType.APPLICATION_JSON;
             "spring.sleuth.enabled: false",
             "spring.data.mongodb.auto-index-creation: true",
             "app.database.host: localhost",
-            "server.error.include-message: always"})
+            "server.error.include-message: always",
+            "app.product-cache.invalidationDelayMs: 200"})
 class ProductServiceApplicationTests {
 
   private final String BASE_URI = "/products/";
@@ -45,12 +59,25 @@ class ProductServiceApplicationTests {
   @Autowired
   private Sink channels;
 
+  @Autowired
+  private EventCodec codec;
+
+  @Autowired
+  private MeterRegistry registry;
+
+  @Autowired
+  private ProductCache cache;
+
+  @Autowired
+  private MessageSinks cacheChannels;
+
   private AbstractMessageChannel input = null;
 
   @BeforeEach
   public void setupDb() {
     input = (AbstractMessageChannel) channels.input();
     repository.deleteAll().block();
+    cache.clear();
   }
 
   @Test
@@ -70,6 +97,73 @@ class ProductServiceApplicationTests {
             .jsonPath("$.productId").isEqualTo(productId);
   }
 
+  @Test
+  public void getProductsByIds() {
+
+    sendCreateProductEvent(3);
+    sendCreateProductEvent(1);
+    sendCreateProductEvent(2);
+
+    getAndVerifyProduct("/products?ids=3,1,13,2", OK)
+            .jsonPath("$.length()").isEqualTo(3)
+            .jsonPath("$[0].productId").isEqualTo(1)
+            .jsonPath("$[1].productId").isEqualTo(2)
+            .jsonPath("$[2].productId").isEqualTo(3);
+  }
+
+  @Test
+  public void createProductFromBinaryEvent() {
+
+    int productId = 1;
+
+    var product = new Product(productId, "Name 1", productId, "SA");
+    input.send(
+        MessageBuilder.withPayload(codec.encode(new Event<>(CREATE, productId, product)))
+            .setHeader(MessageHeaders.CONTENT_TYPE, CONTENT_TYPE)
+            .build());
+
+    assertNotNull(repository.findByProductId(productId).block());
+
+    getAndVerifyProduct(productId, OK)
+            .jsonPath("$.name").isEqualTo("Name 1");
+  }
+
+  @Test
+  public void countsTheProcessedEvents() {
+
+    double created = processed(CREATE, "success");
+    double failed = processed(CREATE, "failure");
+
+    sendCreateProductEvent(1);
+    assertThrows(MessagingException.class, () -> sendCreateProductEvent(1));
+
+    assertEquals(created + 1, processed(CREATE, "success"));
+    assertEquals(failed + 1, processed(CREATE, "failure"));
+    assertTrue(registry.get("store.events.latency").timer().count() > 0);
+  }
+
+  @Test
+  public void countsTheLastBinderAttemptAsDeadLettered() {
+
+    sendCreateProductEvent(1);
+
+    double deadLettered = processed(CREATE, "dlq");
+    long latencies = registry.get("store.events.latency").timer().count();
+
+    var product = new Product(1, "Name 1", 1, "SA");
+    for (int attempt = 2; attempt <= 3; attempt++) {
+      var message =
+          MessageBuilder.withPayload(new Event<>(CREATE, 1, product))
+              .setHeader(DELIVERY_ATTEMPT, new AtomicInteger(attempt))
+              .build();
+      assertThrows(MessagingException.class, () -> input.send(message));
+    }
+
+    // Only the first attempt of an event records its latency.
+    assertEquals(latencies, registry.get("store.events.latency").timer().count());
+    assertEquals(deadLettered + 1, processed(CREATE, "dlq"));
+  }
+
   @Test
   public void duplicateError() {
 
@@ -105,6 +199,65 @@ class ProductServiceApplicationTests {
     assertNull(repository.findByProductId(productId).block());
   }
 
+  @Test
+  public void cachesTheProductUntilItIsDeleted() {
+
+    int productId = 1;
+
+    sendCreateProductEvent(productId);
+
+    double hits = cacheHits();
+    getAndVerifyProduct(productId, OK);
+    getAndVerifyProduct(productId, OK).jsonPath("$.name").isEqualTo("Name 1");
+    assertEquals(hits + 1, cacheHits());
+
+    sendDeleteProductEvent(productId);
+    getAndVerifyProduct(productId, NOT_FOUND);
+  }
+
+  @Test
+  public void readsItsWritesWithoutTheCache() {
+
+    int productId = 1;
+
+    sendCreateProductEvent(productId);
+    getAndVerifyProduct(productId, OK);
+
+    double hits = cacheHits();
+    double primaryReads = primaryReads();
+
+    client
+        .get()
+        .uri(BASE_URI.concat(String.valueOf(productId)))
+        .header(ReadYourWrites.HEADER, "true")
+        .accept(APPLICATION_JSON)
+        .exchange()
+        .expectStatus().isEqualTo(OK)
+        .expectBody()
+        .jsonPath("$.name").isEqualTo("Name 1");
+
+    assertEquals(hits, cacheHits());
+    assertEquals(primaryReads + 1, primaryReads());
+  }
+
+  @Test
+  public void evictsTheProductAgainOnceTheEventIsWritten() throws InterruptedException {
+
+    int productId = 1;
+
+    cacheChannels.inputCache().send(
+        new GenericMessage<>(new Event<>(DELETE, productId, null)));
+
+    // A read between the eviction and the write of the event caches the old product again.
+    cache.put(new Product(productId, "Name 1", 1, "SA"), cache.stamp());
+    assertTrue(cache.get(productId).isPresent());
+
+    for (int polls = 0; polls < 50 && cache.get(productId).isPresent(); polls++) {
+      TimeUnit.MILLISECONDS.sleep(100);
+    }
+    assertTrue(cache.get(productId).isEmpty());
+  }
+
   @Test
   public void getProductInvalidParameterString() {
     var uri = BASE_URI.concat("no-integer");
@@ -134,6 +287,25 @@ class ProductServiceApplicationTests {
         .jsonPath("$.message").isEqualTo("Invalid productId: ".concat(String.valueOf(productIdInvalid)));
   }
 
+  @Test
+  public void getProductDeadlineExceeded() {
+
+    int productId = 1;
+
+    sendCreateProductEvent(productId);
+
+    // The caller has no budget left, so the database is not even queried.
+    client
+        .get()
+        .uri(BASE_URI.concat(String.valueOf(productId)))
+        .header(Deadlines.HEADER, "0")
+        .accept(APPLICATION_JSON)
+        .exchange()
+        .expectStatus().isEqualTo(GATEWAY_TIMEOUT)
+        .expectBody()
+        .jsonPath("$.message").isEqualTo("Request deadline exceeded by: product.db");
+  }
+
   private WebTestClient.BodyContentSpec getAndVerifyProduct(
       int productId, HttpStatus expectedStatus) {
     return getAndVerifyProduct(BASE_URI.concat(String.valueOf(productId)), expectedStatus);
@@ -164,4 +336,25 @@ class ProductServiceApplicationTests {
     Event<Integer, Product> event = new Event<>(DELETE, productId, null);
     input.send(new GenericMessage<>(event));
   }
+
+  private double cacheHits() {
+    return registry
+        .get("cache.gets")
+        .tags("cache", "product", "result", "hit")
+        .functionCounter()
+        .count();
+  }
+
+  private double primaryReads() {
+    return registry.get("store.mongo.reads").tag("route", "primary").counter().count();
+  }
+
+  private double processed(Event.Type type, String outcome) {
+    var counter =
+        registry
+            .find("store.events.processed")
+            .tags("type", type.name(), "outcome", outcome)
+            .counter();
+    return counter == null ? 0 : counter.count();
+  }
 }
@@ -2,12 +2,17 @@ package com.siriusxi.ms.store.rs.api;
 
 import com.siriusxi.ms.store.api.core.recommendation.RecommendationEndpoint;
 import com.siriusxi.ms.store.api.core.recommendation.RecommendationService;
+import com.siriusxi.ms.store.api.core.recommendation.dto.RatingStats;
 import com.siriusxi.ms.store.api.core.recommendation.dto.Recommendation;
+import com.siriusxi.ms.store.api.core.recommendation.dto.RecommendationPage;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.web.bind.annotation.RestController;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
 
 /**
  * Class <code>RecommendationController</code> is the implementation of the main Recommendation
@@ -36,4 +41,22 @@ public class RecommendationController implements RecommendationEndpoint {
   public Flux<Recommendation> getRecommendations(int productId) {
     return recommendationService.getRecommendations(productId);
   }
+
+  /** {@inheritDoc} */
+  @Override
+  public Flux<Recommendation> getRecommendations(List<Integer> productIds) {
+    return recommendationService.getRecommendations(productIds);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public Mono<RecommendationPage> getRecommendations(int productId, int after, int limit) {
+    return recommendationService.getRecommendations(productId, after, limit);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public Mono<RatingStats> getRatingStats(int productId) {
+    return recommendationService.getRatingStats(productId);
+  }
 }
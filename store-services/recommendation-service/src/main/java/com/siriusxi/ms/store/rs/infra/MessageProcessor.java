@@ -4,54 +4,84 @@ import com.siriusxi.ms.store.api.core.recommendation.RecommendationService;
 import com.siriusxi.ms.store.api.core.recommendation.dto.Recommendation;
 import com.siriusxi.ms.store.api.event.Event;
 import com.siriusxi.ms.store.util.exceptions.EventProcessingException;
+import com.siriusxi.ms.store.util.messaging.EventChannels;
+import com.siriusxi.ms.store.util.messaging.EventConsumer;
+import com.siriusxi.ms.store.util.messaging.EventPayloads;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.cloud.stream.annotation.EnableBinding;
 import org.springframework.cloud.stream.annotation.StreamListener;
-import org.springframework.cloud.stream.messaging.Sink;
+import org.springframework.messaging.Message;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
 
 import static java.lang.String.*;
 
-@EnableBinding(Sink.class)
+@EnableBinding(EventChannels.class)
 @Log4j2
 public class MessageProcessor {
 
     private final RecommendationService service;
+    private final EventChannels channels;
+    private final EventConsumer consumer;
+    private final EventPayloads payloads;
 
     @Autowired
-    public MessageProcessor(@Qualifier("RecommendationServiceImpl") RecommendationService service) {
+    public MessageProcessor(
+            @Qualifier("RecommendationServiceImpl") RecommendationService service,
+            EventChannels channels,
+            EventConsumer consumer,
+            EventPayloads payloads) {
         this.service = service;
+        this.channels = channels;
+        this.consumer = consumer;
+        this.payloads = payloads;
+    }
+
+    /*
+     Events of the same product are processed in order, events of different products
+     may be processed in parallel, see KeyOrderedDispatcher. The recommendations are written
+     with the reactive driver, so no thread waits for the database while an event is in progress.
+    */
+    @StreamListener(target = EventChannels.INPUT)
+    public void process(Message<Event<Integer, Object>> message) {
+        consumer.consume(message, channels.dlq(), this::process);
     }
 
-    @StreamListener(target = Sink.INPUT)
-    public void process(Event<Integer, Recommendation> event) {
+    private Mono<Void> process(Event<Integer, Object> event) {
 
         log.info("Process message created at {}...", event.getEventCreatedAt());
 
-        switch (event.getEventType()) {
+        Mono<Void> processing = switch (event.getEventType()) {
             case CREATE -> {
-                Recommendation recommendation = event.getData();
+                Recommendation recommendation = payloads.one(event, Recommendation.class);
                 log.info("Create recommendation with ID: {}/{}", recommendation.getProductId(),
                         recommendation.getRecommendationId());
-                service.createRecommendation(recommendation);
+                yield service.createRecommendationAsync(recommendation).then();
+            }
+            case CREATE_ALL -> {
+                List<Recommendation> recommendations = payloads.all(event, Recommendation.class);
+                log.info("Create {} recommendations with ProductID: {}", recommendations.size(),
+                        event.getKey());
+                yield service.createRecommendationsAsync(event.getKey(), recommendations).then();
             }
             case DELETE -> {
                 int productId = event.getKey();
                 log.info("Delete recommendations with ProductID: {}", productId);
-                service.deleteRecommendations(productId);
+                yield service.deleteRecommendationsAsync(productId);
             }
             default -> {
                 String errorMessage =
                         "Incorrect event type: "
                                 .concat(valueOf(event.getEventType()))
-                                .concat(", expected a CREATE or DELETE event");
+                                .concat(", expected a CREATE, CREATE_ALL or DELETE event");
                 log.warn(errorMessage);
                 throw new EventProcessingException(errorMessage);
             }
-        }
+        };
 
-        log.info("Message processing done!");
+        return processing.doOnSuccess(done -> log.info("Message processing done!"));
     }
-
 }
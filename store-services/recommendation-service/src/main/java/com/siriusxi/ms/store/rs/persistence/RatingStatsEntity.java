@@ -0,0 +1,34 @@
+package com.siriusxi.ms.store.rs.persistence;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Class <code>RatingStatsEntity</code> holds the rating statistics of the recommendations of one
+ * product, keyed by the product id. It is kept up to date by the {@link RatingStatsWriter} as the
+ * recommendations are created and deleted, so it is read without reading the recommendations.
+ *
+ * @author mohamed.taman
+ * @version v5.9
+ * @since v5.9
+ */
+@Document(collection = "rating-stats")
+@Data
+@NoArgsConstructor
+public class RatingStatsEntity {
+
+  @Id private int productId;
+
+  private long count;
+  private long sum;
+  private Integer min;
+  private Integer max;
+
+  /** Number of recommendations per rating, keyed by the rating. */
+  private Map<String, Long> histogram = new HashMap<>();
+}
@@ -0,0 +1,16 @@
+package com.siriusxi.ms.store.rs.persistence;
+
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Interface <code>RatingStatsRepository</code> reads the rating statistics of the products, by
+ * product id; they are written by the {@link RatingStatsWriter}.
+ *
+ * @author mohamed.taman
+ * @version v5.9
+ * @since v5.9
+ */
+@Repository
+public interface RatingStatsRepository
+    extends ReactiveCrudRepository<RatingStatsEntity, Integer> {}
@@ -0,0 +1,163 @@
+package com.siriusxi.ms.store.rs.persistence;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.IntSummaryStatistics;
+
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.counting;
+import static java.util.stream.Collectors.groupingBy;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Class <code>RatingStatsWriter</code> maintains the {@link RatingStatsEntity} of a product as its
+ * recommendations are created and deleted.
+ *
+ * <p>The ratings of the created recommendations are added with one upsert of <code>$inc</code>,
+ * <code>$min</code> and <code>$max</code> operators, applied atomically to the statistics
+ * document, so concurrent writers never lose an update and nothing has to be read first. As the
+ * recommendations are only deleted all together, with their product, the statistics are deleted
+ * with them.
+ *
+ * <p>The statistics are not updated atomically with the recommendations, an update may fail after
+ * the recommendations are inserted. The redelivered event then finds its recommendations already
+ * there, and has the statistics recomputed from them, see {@link #recompute(int)}. The products
+ * whose recommendations were created before the statistics existed have none, they are computed
+ * on their first read, see {@link #backfill(int)}.
+ *
+ * @author mohamed.taman
+ * @version v5.9
+ * @since v5.9
+ */
+@Component
+@Log4j2
+public class RatingStatsWriter {
+
+  private final ReactiveMongoTemplate template;
+
+  @Autowired
+  public RatingStatsWriter(ReactiveMongoTemplate template) {
+    this.template = template;
+  }
+
+  /**
+   * Adds the ratings of created recommendations to the statistics of their product.
+   *
+   * @param productId of the recommendations.
+   * @param ratings of the created recommendations, nothing is written if there is none.
+   * @return completes once the statistics are updated.
+   */
+  public Mono<Void> add(int productId, Collection<Integer> ratings) {
+
+    if (ratings.isEmpty()) return Mono.empty();
+
+    IntSummaryStatistics summary =
+        ratings.stream().mapToInt(Integer::intValue).summaryStatistics();
+
+    var update =
+        new Update()
+            .inc("count", summary.getCount())
+            .inc("sum", summary.getSum())
+            .min("min", summary.getMin())
+            .max("max", summary.getMax());
+
+    ratings.stream()
+        .collect(groupingBy(identity(), counting()))
+        .forEach((rating, count) -> update.inc("histogram." + rating, count));
+
+    return template
+        .upsert(byProductId(productId), update, RatingStatsEntity.class)
+        .doOnNext(
+            result ->
+                log.debug(
+                    "Added {} ratings to the stats of product: {}", ratings.size(), productId))
+        .then();
+  }
+
+  /**
+   * Recomputes the statistics of a product from its stored recommendations, and replaces them. An
+   * update of the same product in between may be lost, the events of a product are processed one
+   * at a time, in their key order, so only a concurrent create through the API can race it.
+   *
+   * @param productId of the recommendations.
+   * @return completes once the statistics are replaced, or deleted if there is no recommendation.
+   */
+  public Mono<Void> recompute(int productId) {
+    return storedStatsOf(productId)
+        .flatMap(template::save)
+        .hasElement()
+        .flatMap(saved -> saved ? Mono.<Void>empty() : remove(productId))
+        .doOnSuccess(
+            done -> log.info("Recomputed the rating stats of product: {}", productId));
+  }
+
+  /**
+   * Computes the missing statistics of a product from its stored recommendations, and inserts
+   * them. Unlike <code>recompute</code>, it never overwrites statistics: if a concurrent update
+   * created them in between, those are returned instead.
+   *
+   * @param productId of the recommendations.
+   * @return the statistics, empty if the product has no recommendation.
+   */
+  public Mono<RatingStatsEntity> backfill(int productId) {
+    return storedStatsOf(productId)
+        .flatMap(template::insert)
+        .doOnNext(stats -> log.info("Backfilled the rating stats of product: {}", productId))
+        .onErrorResume(
+            DuplicateKeyException.class,
+            ex -> template.findById(productId, RatingStatsEntity.class));
+  }
+
+  private Mono<RatingStatsEntity> storedStatsOf(int productId) {
+
+    var query = Query.query(where("productId").is(productId));
+    query.fields().include("rating");
+
+    return template
+        .find(query, RecommendationEntity.class)
+        .map(RecommendationEntity::getRating)
+        .collectList()
+        .filter(ratings -> !ratings.isEmpty())
+        .map(ratings -> statsOf(productId, ratings));
+  }
+
+  /**
+   * Deletes the statistics of a product, along with all its recommendations.
+   *
+   * @param productId of the deleted recommendations.
+   * @return completes once the statistics are deleted.
+   */
+  public Mono<Void> remove(int productId) {
+    return template.remove(byProductId(productId), RatingStatsEntity.class).then();
+  }
+
+  private RatingStatsEntity statsOf(int productId, Collection<Integer> ratings) {
+
+    IntSummaryStatistics summary =
+        ratings.stream().mapToInt(Integer::intValue).summaryStatistics();
+
+    var stats = new RatingStatsEntity();
+    stats.setProductId(productId);
+    stats.setCount(summary.getCount());
+    stats.setSum(summary.getSum());
+    stats.setMin(summary.getMin());
+    stats.setMax(summary.getMax());
+    ratings.stream()
+        .collect(groupingBy(String::valueOf, counting()))
+        .forEach(stats.getHistogram()::put);
+
+    return stats;
+  }
+
+  private Query byProductId(int productId) {
+    return Query.query(where("_id").is(productId));
+  }
+}
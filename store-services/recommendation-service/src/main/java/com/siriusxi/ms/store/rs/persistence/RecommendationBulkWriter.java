@@ -0,0 +1,45 @@
+package com.siriusxi.ms.store.rs.persistence;
+
+import com.siriusxi.ms.store.util.persistence.MongoBulkInserter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Class <code>RecommendationBulkWriter</code> writes many recommendations with one round trip to
+ * the database, instead of one per recommendation as the <code>RecommendationRepository</code>
+ * does.
+ *
+ * @see MongoBulkInserter
+ * @author mohamed.taman
+ * @version v5.9
+ * @since v5.9
+ */
+@Component
+public class RecommendationBulkWriter {
+
+  private final MongoBulkInserter<RecommendationEntity> inserter;
+
+  @Autowired
+  public RecommendationBulkWriter(ReactiveMongoTemplate template) {
+    // Starts the version as the repository does, as the bulk write bypasses it.
+    this.inserter =
+        new MongoBulkInserter<>(
+            template, RecommendationEntity.class, entity -> entity.setVersion(0));
+  }
+
+  /**
+   * Inserts the recommendations with one unordered bulk write.
+   *
+   * @param entities to be inserted.
+   * @return the positions, in <code>entities</code>, of the recommendations that were not inserted
+   *     because their <code>(productId, recommendationId)</code> key already exists. Any other
+   *     failure is an error.
+   */
+  public Mono<List<Integer>> insert(List<RecommendationEntity> entities) {
+    return inserter.insert(entities);
+  }
+}
@@ -1,14 +1,69 @@
 package com.siriusxi.ms.store.rs.persistence;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-//FIXME to be documented and to be pageable
+import java.util.Collection;
 
+/**
+ * Interface <code>RecommendationRepository</code> reads and writes the recommendations. The reads
+ * by product follow the <code>prod-rec-id</code> compound index, on product id then recommendation
+ * id.
+ *
+ * @author mohamed.taman
+ * @version v5.9
+ * @since v0.1
+ */
 @Repository
 public interface RecommendationRepository
     extends ReactiveCrudRepository<RecommendationEntity, String> {
 
   Flux<RecommendationEntity> findByProductId(int productId);
+
+  /**
+   * Finds one page of the recommendations of a product, the ones after a recommendation id. Sorted
+   * by recommendation id, the page is a range scan of the <code>prod-rec-id</code> compound index
+   * that starts at the cursor, so a late page costs as much as the first one, unlike a skip.
+   *
+   * @param productId that you are looking for its recommendations.
+   * @param recommendationId the cursor, the page starts after it.
+   * @param page the size and the recommendation id sort of the page, always its first page.
+   * @return the recommendations of the page.
+   */
+  Flux<RecommendationEntity> findByProductIdAndRecommendationIdGreaterThan(
+      int productId, int recommendationId, Pageable page);
+
+  /**
+   * Finds all the recommendations of the given products with one <code>$in</code> query. The
+   * sort follows the <code>prod-rec-id</code> compound index, so it is an index range scan and the
+   * recommendations of the same product come back next to each other.
+   *
+   * @param productIds that you are looking for their recommendations.
+   * @return the recommendations, grouped by product id.
+   */
+  Flux<RecommendationEntity> findByProductIdInOrderByProductIdAscRecommendationIdAsc(
+      Collection<Integer> productIds);
+
+  /**
+   * Finds the given recommendations of a product with one <code>$in</code> query on the
+   * <code>prod-rec-id</code> compound index.
+   *
+   * @param productId of the product.
+   * @param recommendationIds that you are looking for.
+   * @return the recommendations found, in no particular order.
+   */
+  Flux<RecommendationEntity> findByProductIdAndRecommendationIdIn(
+      int productId, Collection<Integer> recommendationIds);
+
+  /**
+   * Deletes all the recommendations of a product with one <code>deleteMany</code> by product id,
+   * without reading them first.
+   *
+   * @param productId of the product to delete its recommendations.
+   * @return the number of deleted recommendations.
+   */
+  Mono<Long> deleteByProductId(int productId);
 }
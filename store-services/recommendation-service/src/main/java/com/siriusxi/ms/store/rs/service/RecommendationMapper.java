@@ -1,12 +1,15 @@
 package com.siriusxi.ms.store.rs.service;
 
+import com.siriusxi.ms.store.api.core.recommendation.dto.RatingStats;
 import com.siriusxi.ms.store.api.core.recommendation.dto.Recommendation;
+import com.siriusxi.ms.store.rs.persistence.RatingStatsEntity;
 import com.siriusxi.ms.store.rs.persistence.RecommendationEntity;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.factory.Mappers;
 
 import java.util.List;
+import java.util.Map;
 
 @Mapper(componentModel = "spring")
 public interface RecommendationMapper {
@@ -25,4 +28,9 @@ public interface RecommendationMapper {
   List<Recommendation> entityListToApiList(List<RecommendationEntity> entity);
 
   List<RecommendationEntity> apiListToEntityList(List<Recommendation> api);
+
+  @Mapping(target = "serviceAddress", ignore = true)
+  RatingStats statsEntityToApi(RatingStatsEntity entity);
+
+  Map<Integer, Long> histogramToApi(Map<String, Long> histogram);
 }
@@ -1,15 +1,35 @@
 package com.siriusxi.ms.store.rs.service;
 
 import com.siriusxi.ms.store.api.core.recommendation.RecommendationService;
+import com.siriusxi.ms.store.api.core.recommendation.dto.RatingStats;
 import com.siriusxi.ms.store.api.core.recommendation.dto.Recommendation;
+import com.siriusxi.ms.store.api.core.recommendation.dto.RecommendationPage;
+import com.siriusxi.ms.store.rs.persistence.RatingStatsRepository;
+import com.siriusxi.ms.store.rs.persistence.RatingStatsWriter;
+import com.siriusxi.ms.store.rs.persistence.RecommendationBulkWriter;
+import com.siriusxi.ms.store.rs.persistence.RecommendationEntity;
 import com.siriusxi.ms.store.rs.persistence.RecommendationRepository;
 import com.siriusxi.ms.store.util.exceptions.InvalidInputException;
+import com.siriusxi.ms.store.util.http.Deadlines;
 import com.siriusxi.ms.store.util.http.ServiceUtil;
+import com.siriusxi.ms.store.util.persistence.MongoReadRouting;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static java.lang.String.format;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
 
 @Service("RecommendationServiceImpl")
 @Log4j2
@@ -17,41 +37,155 @@ public class RecommendationServiceImpl implements RecommendationService {
 
   private final RecommendationRepository repository;
 
+  private final RecommendationRepository readRepository;
+
+  private final RecommendationBulkWriter bulkWriter;
+
+  private final RatingStatsRepository statsRepository;
+
+  private final RatingStatsRepository readStatsRepository;
+
+  private final RatingStatsWriter statsWriter;
+
   private final RecommendationMapper mapper;
 
   private final ServiceUtil serviceUtil;
 
+  private final Deadlines deadlines;
+
+  private final MongoReadRouting reads;
+
+  private final int pageMaxLimit;
+
   @Autowired
   public RecommendationServiceImpl(
-      RecommendationRepository repository, RecommendationMapper mapper, ServiceUtil serviceUtil) {
+      RecommendationRepository repository,
+      RecommendationBulkWriter bulkWriter,
+      RatingStatsRepository statsRepository,
+      RatingStatsWriter statsWriter,
+      RecommendationMapper mapper,
+      ServiceUtil serviceUtil,
+      Deadlines deadlines,
+      MongoReadRouting reads,
+      @Value("${app.recommendation-page.maxLimit:100}") int pageMaxLimit) {
     this.repository = repository;
+    this.readRepository = reads.repository(RecommendationRepository.class);
+    this.bulkWriter = bulkWriter;
+    this.statsRepository = statsRepository;
+    this.readStatsRepository = reads.repository(RatingStatsRepository.class);
+    this.statsWriter = statsWriter;
     this.mapper = mapper;
     this.serviceUtil = serviceUtil;
+    this.deadlines = deadlines;
+    this.reads = reads;
+    this.pageMaxLimit = pageMaxLimit;
   }
 
   @Override
   public Recommendation createRecommendation(Recommendation body) {
+    return createRecommendationAsync(body).block();
+  }
+
+  @Override
+  public Mono<Recommendation> createRecommendationAsync(Recommendation body) {
 
     isValidProductId(body.getProductId());
 
     return repository
             .save(mapper.apiToEntity(body))
             .log()
-            .onErrorMap(
+            .flatMap(entity -> statsWriter
+                    .add(entity.getProductId(), List.of(entity.getRating()))
+                    .thenReturn(entity))
+            // A redelivered event may come after a failed stats update, so they are repaired.
+            .onErrorResume(
                     DuplicateKeyException.class,
-                    ex -> new InvalidInputException("Duplicate key, Product Id: "
-                            + body.getProductId() + ", Recommendation Id:"
-                            + body.getRecommendationId()))
-            .map(mapper::entityToApi).block();
+                    ex -> statsWriter
+                            .recompute(body.getProductId())
+                            .then(Mono.error(new InvalidInputException("Duplicate key, Product Id: "
+                                    + body.getProductId() + ", Recommendation Id:"
+                                    + body.getRecommendationId()))))
+            .map(mapper::entityToApi);
   }
 
   @Override
-  public Flux<Recommendation> getRecommendations(int productId) {
+  public int createRecommendations(int productId, List<Recommendation> body) {
+    Integer created = createRecommendationsAsync(productId, body).block();
+    return created == null ? 0 : created;
+  }
+
+  @Override
+  public Mono<Integer> createRecommendationsAsync(int productId, List<Recommendation> body) {
 
     isValidProductId(productId);
+    body.forEach(recommendation -> isOfProduct(productId, recommendation.getProductId()));
+
+    if (body.isEmpty()) return Mono.just(0);
+
+    List<RecommendationEntity> entities = body.stream().map(mapper::apiToEntity).collect(toList());
+
+    /*
+     * A redelivered event finds some of its recommendations already created, those are done; only
+     * a recommendation that differs from the one stored under its id is a conflict. The insert and
+     * the stats update are not atomic, the stats of a redelivered event may have been left out, so
+     * with duplicates they are recomputed from the stored recommendations instead of added to.
+     */
+    return bulkWriter
+            .insert(entities)
+            .flatMap(duplicates -> (duplicates.isEmpty()
+                            ? statsWriter.add(productId, ratingsOf(entities))
+                            : statsWriter.recompute(productId))
+                    .then(conflictsOf(productId, entities, duplicates)))
+            .flatMap(conflicts -> conflicts.isEmpty()
+                    ? Mono.just(entities.size())
+                    : Mono.<Integer>error(new InvalidInputException("Duplicate key, Product Id: "
+                            + productId + ", Recommendation Ids:"
+                            + conflicts.stream().map(String::valueOf).collect(joining(",")))))
+            .doOnNext(created -> log.debug(
+                    "createRecommendations: created {} recommendations of the product: {}",
+                    created, productId));
+  }
+
+  /** The recommendation ids of the duplicates that differ from the stored recommendations. */
+  private Mono<List<Integer>> conflictsOf(
+          int productId, List<RecommendationEntity> entities, List<Integer> duplicates) {
+
+    if (duplicates.isEmpty()) return Mono.just(List.of());
+
+    List<RecommendationEntity> candidates =
+            duplicates.stream().map(entities::get).collect(toList());
 
     return repository
-            .findByProductId(productId)
+            .findByProductIdAndRecommendationIdIn(
+                    productId,
+                    candidates.stream()
+                            .map(RecommendationEntity::getRecommendationId)
+                            .collect(toList()))
+            .collectMap(RecommendationEntity::getRecommendationId)
+            .map(stored -> candidates.stream()
+                    .filter(entity -> !isSame(entity, stored.get(entity.getRecommendationId())))
+                    .map(RecommendationEntity::getRecommendationId)
+                    .collect(toList()));
+  }
+
+  private boolean isSame(RecommendationEntity entity, RecommendationEntity stored) {
+    return stored != null
+            && entity.getRating() == stored.getRating()
+            && Objects.equals(entity.getAuthor(), stored.getAuthor())
+            && Objects.equals(entity.getContent(), stored.getContent());
+  }
+
+  @Override
+  public Flux<Recommendation> getRecommendations(int productId) {
+
+    isValidProductId(productId);
+
+    return deadlines
+            .within(
+                "recommendations.db",
+                reads.read(
+                    repository.findByProductId(productId),
+                    readRepository.findByProductId(productId)))
             .log()
             .map(mapper::entityToApi)
             .map(e -> {
@@ -63,8 +197,83 @@ public class RecommendationServiceImpl implements RecommendationService {
     //log.debug("getRecommendations: response size: {}", list.size());
   }
 
+  @Override
+  public Flux<Recommendation> getRecommendations(List<Integer> productIds) {
+
+    productIds.forEach(this::isValidProductId);
+
+    return deadlines
+            .within(
+                "recommendations.db",
+                reads.read(
+                    repository.findByProductIdInOrderByProductIdAscRecommendationIdAsc(productIds),
+                    readRepository.findByProductIdInOrderByProductIdAscRecommendationIdAsc(
+                        productIds)))
+            .log()
+            .map(mapper::entityToApi)
+            .map(e -> {
+              e.setServiceAddress(serviceUtil.getServiceAddress());
+              return e;
+            });
+  }
+
+  @Override
+  public Mono<RecommendationPage> getRecommendations(int productId, int after, int limit) {
+
+    isValidProductId(productId);
+    isValidPage(after, limit);
+
+    // One more than the limit is read, to know whether there is a next page.
+    var page = PageRequest.of(0, limit + 1, Sort.by("recommendationId"));
+
+    return deadlines
+            .within(
+                "recommendations.db",
+                reads.read(
+                    repository.findByProductIdAndRecommendationIdGreaterThan(
+                        productId, after, page),
+                    readRepository.findByProductIdAndRecommendationIdGreaterThan(
+                        productId, after, page)))
+            .map(mapper::entityToApi)
+            .map(e -> {
+              e.setServiceAddress(serviceUtil.getServiceAddress());
+              return e;
+            })
+            .collectList()
+            .map(found -> toPage(productId, limit, found));
+  }
+
+  @Override
+  public Mono<RatingStats> getRatingStats(int productId) {
+
+    isValidProductId(productId);
+
+    /*
+     * The products whose recommendations were created before the stats existed have no stats
+     * document, it is computed on the first read; only then an empty one means no recommendations.
+     */
+    return deadlines
+            .within(
+                "recommendations.db",
+                reads.read(
+                        statsRepository.findById(productId),
+                        readStatsRepository.findById(productId))
+                    .switchIfEmpty(Mono.defer(() -> statsWriter.backfill(productId))))
+            .map(mapper::statsEntityToApi)
+            .defaultIfEmpty(new RatingStats(productId, 0, 0, null, null, Map.of(), null))
+            .map(e -> {
+              e.setServiceAddress(serviceUtil.getServiceAddress());
+              return e;
+            });
+  }
+
   @Override
   public void deleteRecommendations(int productId) {
+    deleteRecommendationsAsync(productId).block();
+  }
+
+  @Override
+  public Mono<Void> deleteRecommendationsAsync(int productId) {
     isValidProductId(productId);
 
     log.debug(
@@ -74,12 +283,47 @@ public class RecommendationServiceImpl implements RecommendationService {
            """,
         productId);
 
-    repository
-            .deleteAll(repository.findByProductId(productId))
-            .block();
+    return repository
+            .deleteByProductId(productId)
+            .doOnNext(count -> log.debug(
+                    "deleteRecommendations: deleted {} recommendations of the product: {}",
+                    count, productId))
+            .then(statsWriter.remove(productId));
   }
 
   private void isValidProductId(int productId) {
     if (productId < 1) throw new InvalidInputException("Invalid productId: " + productId);
   }
+
+  private List<Integer> ratingsOf(List<RecommendationEntity> entities) {
+    return entities.stream().map(RecommendationEntity::getRating).collect(toList());
+  }
+
+  private void isValidPage(int after, int limit) {
+    if (after < 0) throw new InvalidInputException("Invalid after: " + after);
+
+    if (limit < 1 || limit > pageMaxLimit) {
+      throw new InvalidInputException(
+          "Invalid limit: " + limit + ", expected: 1 to " + pageMaxLimit);
+    }
+  }
+
+  private RecommendationPage toPage(int productId, int limit, List<Recommendation> found) {
+
+    if (found.size() <= limit) return new RecommendationPage(found, null);
+
+    var recommendations = found.subList(0, limit);
+    var after = recommendations.get(limit - 1).getRecommendationId();
+
+    return new RecommendationPage(
+        recommendations,
+        format("/recommendations?productId=%d&after=%d&limit=%d", productId, after, limit));
+  }
+
+  private void isOfProduct(int productId, int itemProductId) {
+    if (itemProductId != productId) {
+      throw new InvalidInputException(
+          "Invalid productId: " + itemProductId + ", expected: " + productId);
+    }
+  }
 }
@@ -2,6 +2,8 @@ package com.siriusxi.ms.store.rs;
 
 import com.siriusxi.ms.store.api.core.recommendation.dto.Recommendation;
 import com.siriusxi.ms.store.api.event.Event;
+import com.siriusxi.ms.store.rs.persistence.RatingStatsRepository;
+import com.siriusxi.ms.store.rs.persistence.RecommendationEntity;
 import com.siriusxi.ms.store.rs.persistence.RecommendationRepository;
 import com.siriusxi.ms.store.util.exceptions.InvalidInputException;
 import org.junit.jupiter.api.BeforeEach;
@@ -17,10 +19,14 @@ import org.springframework.test.web.reactive.server.WebTestClient;
 import org.springframework.test.web.reactive.server.WebTestClient.BodyContentSpec;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 import static com.siriusxi.ms.store.api.event.Event.Type.CREATE;
+import static com.siriusxi.ms.store.api.event.Event.Type.CREATE_ALL;
 import static com.siriusxi.ms.store.api.event.Event.Type.DELETE;
 import static org.assertj.core.api.Assertions.fail;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
 import static org.springframework.http.HttpStatus.*;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
@@ -43,6 +49,8 @@ class RecommendationServiceApplicationTests {
 
   @Autowired private RecommendationRepository repository;
 
+  @Autowired private RatingStatsRepository statsRepository;
+
   @Autowired
   private Sink channels;
 
@@ -52,6 +60,7 @@ class RecommendationServiceApplicationTests {
   public void setupDb() {
     input = (AbstractMessageChannel) channels.input();
     repository.deleteAll().block();
+    statsRepository.deleteAll().block();
   }
 
   @Test
@@ -71,6 +80,156 @@ class RecommendationServiceApplicationTests {
         .jsonPath("$[2].recommendationId").isEqualTo(3);
   }
 
+  @Test
+  public void getRecommendationsByProductIds() {
+
+    sendCreateRecommendationEvent(2, 1);
+    sendCreateRecommendationEvent(1, 2);
+    sendCreateRecommendationEvent(1, 1);
+
+    // Recommendations come back grouped, and sorted, by product id.
+    getAndVerifyRecommendationsByProductId("?productIds=2,1,113", OK)
+        .jsonPath("$.length()").isEqualTo(3)
+        .jsonPath("$[0].productId").isEqualTo(1)
+        .jsonPath("$[0].recommendationId").isEqualTo(1)
+        .jsonPath("$[1].productId").isEqualTo(1)
+        .jsonPath("$[1].recommendationId").isEqualTo(2)
+        .jsonPath("$[2].productId").isEqualTo(2);
+  }
+
+  @Test
+  public void getRecommendationsByPage() {
+
+    int productId = 1;
+
+    sendCreateRecommendationEvent(productId, 3);
+    sendCreateRecommendationEvent(productId, 1);
+    sendCreateRecommendationEvent(productId, 2);
+
+    getAndVerifyRecommendationsByProductId("?productId=1&limit=2", OK)
+        .jsonPath("$.recommendations.length()").isEqualTo(2)
+        .jsonPath("$.recommendations[0].recommendationId").isEqualTo(1)
+        .jsonPath("$.recommendations[1].recommendationId").isEqualTo(2)
+        .jsonPath("$.next").isEqualTo("/recommendations?productId=1&after=2&limit=2");
+
+    getAndVerifyRecommendationsByProductId("?productId=1&after=2&limit=2", OK)
+        .jsonPath("$.recommendations.length()").isEqualTo(1)
+        .jsonPath("$.recommendations[0].recommendationId").isEqualTo(3)
+        .jsonPath("$.next").doesNotExist();
+
+    getAndVerifyRecommendationsByProductId("?productId=1&limit=0", UNPROCESSABLE_ENTITY)
+        .jsonPath("$.message").isEqualTo("Invalid limit: 0, expected: 1 to 100");
+  }
+
+  @Test
+  public void maintainsTheRatingStats() {
+
+    int productId = 1;
+
+    // The rating of a recommendation is its id.
+    sendCreateRecommendationEvent(productId, 2);
+    input.send(new GenericMessage<>(new Event<>(CREATE_ALL, productId,
+            List.of(recommendation(productId, 4), recommendation(productId, 5)))));
+
+    getAndVerifyRecommendationsByProductId("/rating-stats?productId=1", OK)
+        .jsonPath("$.count").isEqualTo(3)
+        .jsonPath("$.sum").isEqualTo(11)
+        .jsonPath("$.min").isEqualTo(2)
+        .jsonPath("$.max").isEqualTo(5)
+        .jsonPath("$.histogram.4").isEqualTo(1);
+
+    sendDeleteRecommendationEvent(productId);
+
+    getAndVerifyRecommendationsByProductId("/rating-stats?productId=1", OK)
+        .jsonPath("$.count").isEqualTo(0)
+        .jsonPath("$.min").doesNotExist();
+  }
+
+  @Test
+  public void createAllRecommendations() {
+
+    int productId = 1;
+
+    input.send(new GenericMessage<>(new Event<>(CREATE_ALL, productId,
+            List.of(recommendation(productId, 1), recommendation(productId, 2)))));
+
+    assertEquals(2, repository.findByProductId(productId).count().block());
+
+    // A redelivered recommendation is already created, so the event is done.
+    input.send(new GenericMessage<>(new Event<>(CREATE_ALL, productId,
+            List.of(recommendation(productId, 2), recommendation(productId, 3)))));
+
+    assertEquals(3, repository.findByProductId(productId).count().block());
+    getAndVerifyRecommendationsByProductId("/rating-stats?productId=1", OK)
+        .jsonPath("$.count").isEqualTo(3)
+        .jsonPath("$.sum").isEqualTo(6);
+
+    var conflicting = recommendation(productId, 3);
+    conflicting.setContent("Other content");
+
+    try {
+      input.send(new GenericMessage<>(new Event<>(CREATE_ALL, productId,
+              List.of(conflicting, recommendation(productId, 4)))));
+      fail("Expected a MessagingException here!");
+    } catch (MessagingException me) {
+      if (me.getCause() instanceof InvalidInputException iie) {
+        assertEquals("Duplicate key, Product Id: 1, Recommendation Ids:3", iie.getMessage());
+      } else {
+        fail("Expected a InvalidInputException as the root cause!");
+      }
+    }
+
+    // The recommendations that are not conflicts are created.
+    assertEquals(4, repository.findByProductId(productId).count().block());
+  }
+
+  @Test
+  public void repairsTheRatingStatsOnRedelivery() {
+
+    int productId = 1;
+    var recommendations = List.of(recommendation(productId, 1), recommendation(productId, 2));
+
+    input.send(new GenericMessage<>(new Event<>(CREATE_ALL, productId, recommendations)));
+
+    // As if the stats update had failed after the insert.
+    statsRepository.deleteAll().block();
+
+    input.send(new GenericMessage<>(new Event<>(CREATE_ALL, productId, recommendations)));
+
+    getAndVerifyRecommendationsByProductId("/rating-stats?productId=1", OK)
+        .jsonPath("$.count").isEqualTo(2)
+        .jsonPath("$.sum").isEqualTo(3)
+        .jsonPath("$.min").isEqualTo(1)
+        .jsonPath("$.max").isEqualTo(2)
+        .jsonPath("$.histogram.2").isEqualTo(1);
+  }
+
+  @Test
+  public void backfillsTheRatingStatsOnFirstRead() {
+
+    int productId = 1;
+
+    // Created before the rating stats existed, so with no stats document.
+    repository
+        .saveAll(List.of(
+            new RecommendationEntity(productId, 1, "Author 1", 1, "Content 1"),
+            new RecommendationEntity(productId, 2, "Author 2", 4, "Content 2")))
+        .blockLast();
+
+    getAndVerifyRecommendationsByProductId("/rating-stats?productId=1", OK)
+        .jsonPath("$.count").isEqualTo(2)
+        .jsonPath("$.sum").isEqualTo(5)
+        .jsonPath("$.min").isEqualTo(1)
+        .jsonPath("$.max").isEqualTo(4)
+        .jsonPath("$.histogram.4").isEqualTo(1);
+
+    assertEquals(2, statsRepository.findById(productId).block().getCount());
+
+    getAndVerifyRecommendationsByProductId("/rating-stats?productId=2", OK)
+        .jsonPath("$.count").isEqualTo(0);
+    assertFalse(statsRepository.existsById(2).block());
+  }
+
   @Test
   public void duplicateError() {
 
@@ -163,11 +322,16 @@ class RecommendationServiceApplicationTests {
   }
 
   private void sendCreateRecommendationEvent(int productId, int recommendationId) {
-    Recommendation recommendation = new Recommendation(productId, recommendationId, "Author " + recommendationId, recommendationId, "Content " + recommendationId, "SA");
+    Recommendation recommendation = recommendation(productId, recommendationId);
     Event<Integer, Recommendation> event = new Event<>(CREATE, productId, recommendation);
     input.send(new GenericMessage<>(event));
   }
 
+  private Recommendation recommendation(int productId, int recommendationId) {
+    return new Recommendation(productId, recommendationId, "Author " + recommendationId,
+            recommendationId, "Content " + recommendationId, "SA");
+  }
+
   private void sendDeleteRecommendationEvent(int productId) {
     Event<Integer, Recommendation> event = new Event<>(DELETE, productId, null);
     input.send(new GenericMessage<>(event));
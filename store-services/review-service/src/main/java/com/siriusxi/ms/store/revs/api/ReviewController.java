@@ -10,6 +10,8 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.web.bind.annotation.RestController;
 import reactor.core.publisher.Flux;
 
+import java.util.List;
+
 /**
  * Class <code>ReviewController</code> is the implementation of the main Review Endpoint API
  * definition.
@@ -36,4 +38,10 @@ public class ReviewController implements ReviewEndpoint {
   public Flux<Review> getReviews(int productId) {
     return reviewService.getReviews(productId);
   }
+
+  /** {@inheritDoc} */
+  @Override
+  public Flux<Review> getReviews(List<Integer> productIds) {
+    return reviewService.getReviews(productIds);
+  }
 }
@@ -0,0 +1,107 @@
+package com.siriusxi.ms.store.revs.infra;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siriusxi.ms.store.api.core.review.dto.Review;
+import com.siriusxi.ms.store.api.event.Event;
+import com.siriusxi.ms.store.revs.persistence.ReviewBatchWriter;
+import com.siriusxi.ms.store.revs.persistence.ReviewEntity;
+import com.siriusxi.ms.store.revs.service.ReviewMapper;
+import com.siriusxi.ms.store.util.messaging.BatchEventProcessor;
+import com.siriusxi.ms.store.util.messaging.EventChannels;
+import com.siriusxi.ms.store.util.messaging.EventCodec;
+import com.siriusxi.ms.store.util.messaging.EventMetrics;
+import com.siriusxi.ms.store.util.messaging.EventPayloads;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.stream.annotation.EnableBinding;
+import org.springframework.cloud.stream.annotation.StreamListener;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Class <code>BatchMessageProcessor</code> is the batch mode of the {@link MessageProcessor}, it
+ * receives the review events as lists, and writes each run of consecutive CREATE or DELETE events
+ * in one transaction, instead of one transaction per event.
+ *
+ * @implNote Enabled with <code>app.review-events.batch.enabled</code>, which also needs the binder
+ *     batch mode, see the <code>streaming_batch</code> profile. The writes are blocking, they run
+ *     on the listener thread, as in the single event mode.
+ * @see BatchEventProcessor
+ * @see ReviewBatchWriter
+ * @author mohamed.taman
+ * @version v5.9
+ * @since v5.9
+ */
+@EnableBinding(EventChannels.class)
+@ConditionalOnProperty(name = "app.review-events.batch.enabled", havingValue = "true")
+@Log4j2
+public class BatchMessageProcessor extends BatchEventProcessor<Review> {
+
+  private final ReviewBatchWriter writer;
+  private final ReviewMapper mapper;
+
+  @Autowired
+  public BatchMessageProcessor(
+      ReviewBatchWriter writer,
+      ReviewMapper mapper,
+      EventChannels channels,
+      ObjectMapper objectMapper,
+      EventCodec codec,
+      EventMetrics metrics,
+      EventPayloads payloads) {
+    super("review", Review.class, channels.dlq(), objectMapper, codec, metrics, payloads);
+    this.writer = writer;
+    this.mapper = mapper;
+  }
+
+  @StreamListener(target = EventChannels.INPUT)
+  public void process(List<?> payloads) {
+    processBatch(payloads);
+  }
+
+  @Override
+  protected Mono<Void> create(List<Event<Integer, Review>> run) {
+    return Mono.fromRunnable(
+        () -> {
+          List<ReviewEntity> entities =
+              run.stream().map(event -> mapper.apiToEntity(event.getData())).collect(toList());
+
+          List<Integer> duplicates = writer.insert(entities);
+
+          log.info("Created {} reviews", run.size() - duplicates.size());
+
+          // The duplicates equal to the stored reviews are redeliveries, they are done.
+          for (int index : writer.conflictsOf(entities, duplicates)) {
+            Review review = run.get(index).getData();
+            reject(
+                run.get(index),
+                "Duplicate key, Product Id: "
+                    + review.getProductId()
+                    + ", Review Id:"
+                    + review.getReviewId());
+          }
+        });
+  }
+
+  @Override
+  protected Mono<Void> delete(List<Event<Integer, Review>> run) {
+    return Mono.fromRunnable(
+        () -> {
+          List<Integer> productIds =
+              run.stream().map(Event::getKey).distinct().collect(toList());
+
+          int count = writer.remove(productIds);
+
+          log.info("Deleted {} reviews of {} products", count, productIds.size());
+        });
+  }
+
+  @Override
+  protected int productIdOf(Review review) {
+    return review.getProductId();
+  }
+}
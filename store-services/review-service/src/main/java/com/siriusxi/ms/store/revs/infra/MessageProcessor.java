@@ -4,38 +4,71 @@ import com.siriusxi.ms.store.api.core.review.ReviewService;
 import com.siriusxi.ms.store.api.core.review.dto.Review;
 import com.siriusxi.ms.store.api.event.Event;
 import com.siriusxi.ms.store.util.exceptions.EventProcessingException;
+import com.siriusxi.ms.store.util.messaging.EventChannels;
+import com.siriusxi.ms.store.util.messaging.EventConsumer;
+import com.siriusxi.ms.store.util.messaging.EventPayloads;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cloud.stream.annotation.EnableBinding;
 import org.springframework.cloud.stream.annotation.StreamListener;
-import org.springframework.cloud.stream.messaging.Sink;
+import org.springframework.messaging.Message;
+
+import java.util.List;
 
 import static java.lang.String.valueOf;
 
-@EnableBinding(Sink.class)
+@EnableBinding(EventChannels.class)
+@ConditionalOnProperty(
+        name = "app.review-events.batch.enabled",
+        havingValue = "false",
+        matchIfMissing = true)
 @Log4j2
 public class MessageProcessor {
 
     private final ReviewService service;
+    private final EventChannels channels;
+    private final EventConsumer consumer;
+    private final EventPayloads payloads;
 
     @Autowired
-    public MessageProcessor(@Qualifier("ReviewServiceImpl") ReviewService service) {
+    public MessageProcessor(
+            @Qualifier("ReviewServiceImpl") ReviewService service,
+            EventChannels channels,
+            EventConsumer consumer,
+            EventPayloads payloads) {
         this.service = service;
+        this.channels = channels;
+        this.consumer = consumer;
+        this.payloads = payloads;
+    }
+
+    /*
+     Events of the same product are processed in order, events of different products
+     may be processed in parallel, see KeyOrderedDispatcher.
+    */
+    @StreamListener(target = EventChannels.INPUT)
+    public void process(Message<Event<Integer, Object>> message) {
+        consumer.consumeBlocking(message, channels.dlq(), this::process);
     }
 
-    @StreamListener(target = Sink.INPUT)
-    public void process(Event<Integer, Review> event) {
+    private void process(Event<Integer, Object> event) {
 
         log.info("Process message created at {}...", event.getEventCreatedAt());
 
         switch (event.getEventType()) {
             case CREATE -> {
-                Review review = event.getData();
+                Review review = payloads.one(event, Review.class);
                 log.info("Create review with ID: {}/{}", review.getProductId(),
                         review.getReviewId());
                 service.createReview(review);
             }
+            case CREATE_ALL -> {
+                List<Review> reviews = payloads.all(event, Review.class);
+                log.info("Create {} reviews with Product Id: {}", reviews.size(), event.getKey());
+                service.createReviews(event.getKey(), reviews);
+            }
             case DELETE -> {
                 int productId = event.getKey();
                 log.info("Delete review with Product Id: {}", productId);
@@ -45,7 +78,7 @@ public class MessageProcessor {
                 String errorMessage =
                         "Incorrect event type: "
                                 .concat(valueOf(event.getEventType()))
-                                .concat(", expected a CREATE or DELETE event");
+                                .concat(", expected a CREATE, CREATE_ALL or DELETE event");
                 log.warn(errorMessage);
                 throw new EventProcessingException(errorMessage);
             }
@@ -53,5 +86,4 @@ public class MessageProcessor {
 
         log.info("Message processing done!");
     }
-
 }
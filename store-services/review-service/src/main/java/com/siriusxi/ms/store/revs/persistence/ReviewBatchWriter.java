@@ -0,0 +1,157 @@
+package com.siriusxi.ms.store.revs.persistence;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.mapping;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+
+/**
+ * Class <code>ReviewBatchWriter</code> writes many reviews in one transaction, instead of one
+ * transaction per review as the <code>ReviewRepository.save</code> does.
+ *
+ * <p>The inserts are flushed by Hibernate as JDBC batches of <code>hibernate.jdbc.batch_size
+ * </code>, which the MySQL driver rewrites as multi-row inserts with <code>
+ * rewriteBatchedStatements</code>. A duplicate key fails the whole batch, so the duplicates are
+ * looked up first, and reported back by their position in the batch. A duplicate is only a
+ * conflict when it differs from the stored review, see {@link #conflictsOf(List, List)}.
+ *
+ * @author mohamed.taman
+ * @version v5.9
+ * @since v5.9
+ */
+@Component
+@Log4j2
+public class ReviewBatchWriter {
+
+  private final ReviewRepository repository;
+  private final TransactionTemplate transactions;
+
+  @Autowired
+  public ReviewBatchWriter(ReviewRepository repository, TransactionTemplate transactions) {
+    this.repository = repository;
+    this.transactions = transactions;
+  }
+
+  /**
+   * Inserts the reviews in one transaction.
+   *
+   * @param entities to be inserted.
+   * @return the positions, in <code>entities</code>, of the reviews that were not inserted because
+   *     their <code>(productId, reviewId)</code> key already exists, or is repeated in the batch.
+   */
+  public List<Integer> insert(List<ReviewEntity> entities) {
+
+    Set<Integer> productIds = entities.stream().map(ReviewEntity::getProductId).collect(toSet());
+
+    Set<Key> keys =
+        repository.findKeysByProductIdIn(productIds).stream()
+            .map(key -> new Key(key.getProductId(), key.getReviewId()))
+            .collect(toSet());
+
+    List<Integer> duplicates = new ArrayList<>();
+    List<Integer> fresh = new ArrayList<>();
+
+    for (int index = 0; index < entities.size(); index++) {
+      (keys.add(Key.of(entities.get(index))) ? fresh : duplicates).add(index);
+    }
+
+    if (fresh.isEmpty()) return duplicates;
+
+    try {
+      transactions.executeWithoutResult(
+          status -> repository.saveAll(fresh.stream().map(entities::get).collect(toList())));
+
+      log.debug("Inserted {} reviews in one batch", fresh.size());
+
+    } catch (DataIntegrityViolationException ex) {
+      // Another instance inserted one of them since the lookup, finds it one by one.
+      log.warn("A batch of {} reviews hit a duplicate key, inserts them one by one", fresh.size());
+
+      fresh.stream()
+          .filter(index -> !insertOne(entities.get(index)))
+          .forEach(duplicates::add);
+    }
+
+    return duplicates;
+  }
+
+  /**
+   * Finds the conflicts among the duplicates, the reviews that differ from the one stored under
+   * their key. A duplicate equal to the stored review is already created, by a redelivered event
+   * for example, so it is not a conflict.
+   *
+   * @param entities given to {@link #insert(List)}.
+   * @param duplicates the positions returned by {@link #insert(List)}.
+   * @return the positions, in <code>entities</code>, of the conflicting reviews.
+   */
+  public List<Integer> conflictsOf(List<ReviewEntity> entities, List<Integer> duplicates) {
+
+    if (duplicates.isEmpty()) return List.of();
+
+    Map<Key, ReviewEntity> stored = new HashMap<>();
+    duplicates.stream()
+        .map(entities::get)
+        .collect(
+            groupingBy(
+                ReviewEntity::getProductId, mapping(ReviewEntity::getReviewId, toList())))
+        .forEach(
+            (productId, reviewIds) ->
+                repository
+                    .findByProductIdAndReviewIdIn(productId, reviewIds)
+                    .forEach(review -> stored.put(Key.of(review), review)));
+
+    return duplicates.stream()
+        .filter(index -> !isSame(entities.get(index), stored.get(Key.of(entities.get(index)))))
+        .collect(toList());
+  }
+
+  /**
+   * Deletes all the reviews of the given products with one statement.
+   *
+   * @param productIds of the products to delete their reviews.
+   * @return the number of deleted reviews.
+   */
+  public int remove(Collection<Integer> productIds) {
+    return repository.deleteByProductIdIn(productIds);
+  }
+
+  private boolean insertOne(ReviewEntity entity) {
+    // The rolled back batch left an id on the entity, which is not in the database.
+    entity.setId(0);
+    entity.setVersion(0);
+    try {
+      repository.save(entity);
+      return true;
+    } catch (DataIntegrityViolationException ex) {
+      return false;
+    }
+  }
+
+  private boolean isSame(ReviewEntity entity, ReviewEntity stored) {
+    return stored != null
+        && Objects.equals(entity.getAuthor(), stored.getAuthor())
+        && Objects.equals(entity.getSubject(), stored.getSubject())
+        && Objects.equals(entity.getContent(), stored.getContent());
+  }
+
+  private record Key(int productId, int reviewId) {
+
+    static Key of(ReviewEntity entity) {
+      return new Key(entity.getProductId(), entity.getReviewId());
+    }
+  }
+}
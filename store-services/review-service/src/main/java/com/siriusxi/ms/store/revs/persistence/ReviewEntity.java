@@ -9,7 +9,7 @@ import javax.persistence.*;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Size;
 
-import static javax.persistence.GenerationType.IDENTITY;
+import static javax.persistence.GenerationType.SEQUENCE;
 
 @Entity
 @Table(
@@ -22,8 +22,19 @@ import static javax.persistence.GenerationType.IDENTITY;
 @RequiredArgsConstructor
 public class ReviewEntity {
 
+  /*
+   Ids are allocated from a sequence in blocks of ALLOCATION_SIZE, and not by the database on
+   insert as IDENTITY does, so Hibernate can batch the inserts. MySQL has no sequences, so
+   Hibernate keeps it in the review_id_seq table.
+  */
+  public static final int ALLOCATION_SIZE = 50;
+
   @Id
-  @GeneratedValue(strategy = IDENTITY)
+  @GeneratedValue(strategy = SEQUENCE, generator = "review_id_seq")
+  @SequenceGenerator(
+      name = "review_id_seq",
+      sequenceName = "review_id_seq",
+      allocationSize = ALLOCATION_SIZE)
   private int id;
 
   @Version private int version;
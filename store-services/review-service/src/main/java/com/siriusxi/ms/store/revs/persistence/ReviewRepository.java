@@ -1,9 +1,13 @@
 package com.siriusxi.ms.store.revs.persistence;
 
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -11,4 +15,69 @@ public interface ReviewRepository extends CrudRepository<ReviewEntity, Integer>
 
   @Transactional(readOnly = true)
   List<ReviewEntity> findByProductId(int productId);
+
+  /**
+   * Finds all the reviews of the given products with one <code>IN (...)</code> query. The sort
+   * follows the <code>review_unique_idx</code> index, so the reviews of the same product come back
+   * next to each other.
+   *
+   * @param productIds that you are looking for their reviews.
+   * @return the reviews, grouped by product id.
+   */
+  @Transactional(readOnly = true)
+  List<ReviewEntity> findByProductIdInOrderByProductIdAscReviewIdAsc(
+      Collection<Integer> productIds);
+
+  /**
+   * Finds only the keys of the reviews of the given products, to check for duplicates without
+   * loading the reviews.
+   *
+   * @param productIds that you are looking for their review keys.
+   * @return the <code>(productId, reviewId)</code> keys of the reviews.
+   */
+  @Transactional(readOnly = true)
+  List<ReviewKey> findKeysByProductIdIn(Collection<Integer> productIds);
+
+  /**
+   * Finds the given reviews of a product with one <code>IN (...)</code> query on the
+   * <code>review_unique_idx</code> index.
+   *
+   * @param productId of the product.
+   * @param reviewIds that you are looking for.
+   * @return the reviews found, in no particular order.
+   */
+  @Transactional(readOnly = true)
+  List<ReviewEntity> findByProductIdAndReviewIdIn(int productId, Collection<Integer> reviewIds);
+
+  /**
+   * Deletes all the reviews of a product with one <code>DELETE ... WHERE productId = ?</code>
+   * statement, without loading them. It skips the optimistic locking of the reviews, as deleting
+   * all of them is not a conflicting update.
+   *
+   * @param productId of the product to delete its reviews.
+   * @return the number of deleted reviews.
+   */
+  @Transactional
+  @Modifying
+  @Query("DELETE FROM ReviewEntity r WHERE r.productId = :productId")
+  int deleteByProductId(@Param("productId") int productId);
+
+  /**
+   * Deletes all the reviews of the given products with one <code>DELETE ... WHERE productId IN
+   * (...)</code> statement, without loading them.
+   *
+   * @param productIds of the products to delete their reviews.
+   * @return the number of deleted reviews.
+   */
+  @Transactional
+  @Modifying
+  @Query("DELETE FROM ReviewEntity r WHERE r.productId IN :productIds")
+  int deleteByProductIdIn(@Param("productIds") Collection<Integer> productIds);
+
+  interface ReviewKey {
+
+    int getProductId();
+
+    int getReviewId();
+  }
 }
@@ -2,9 +2,11 @@ package com.siriusxi.ms.store.revs.service;
 
 import com.siriusxi.ms.store.api.core.review.ReviewService;
 import com.siriusxi.ms.store.api.core.review.dto.Review;
+import com.siriusxi.ms.store.revs.persistence.ReviewBatchWriter;
 import com.siriusxi.ms.store.revs.persistence.ReviewEntity;
 import com.siriusxi.ms.store.revs.persistence.ReviewRepository;
 import com.siriusxi.ms.store.util.exceptions.InvalidInputException;
+import com.siriusxi.ms.store.util.http.Deadlines;
 import com.siriusxi.ms.store.util.http.ServiceUtil;
 import lombok.extern.log4j.Log4j2;
 import org.reactivestreams.Publisher;
@@ -18,24 +20,32 @@ import java.util.List;
 import java.util.function.Supplier;
 
 import static java.util.logging.Level.FINE;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
 
 @Service("ReviewServiceImpl")
 @Log4j2
 public class ReviewServiceImpl implements ReviewService {
 
+  private static final int PRODUCT_IDS_SLICE_SIZE = 20;
+
   private final ReviewRepository repository;
+  private final ReviewBatchWriter batchWriter;
   private final ReviewMapper mapper;
   private final ServiceUtil serviceUtil;
   private final Scheduler scheduler;
+  private final Deadlines deadlines;
 
   @Autowired
   public ReviewServiceImpl(
-          Scheduler scheduler, ReviewRepository repository, ReviewMapper mapper,
-          ServiceUtil serviceUtil) {
+          Scheduler scheduler, ReviewRepository repository, ReviewBatchWriter batchWriter,
+          ReviewMapper mapper, ServiceUtil serviceUtil, Deadlines deadlines) {
     this.repository = repository;
+    this.batchWriter = batchWriter;
     this.mapper = mapper;
     this.serviceUtil = serviceUtil;
     this.scheduler = scheduler;
+    this.deadlines = deadlines;
   }
 
   @Override
@@ -60,14 +70,70 @@ public class ReviewServiceImpl implements ReviewService {
     }
   }
 
+  @Override
+  public int createReviews(int productId, List<Review> body) {
+
+    isValidProductId(productId);
+    body.forEach(review -> isOfProduct(productId, review.getProductId()));
+
+    if (body.isEmpty()) return 0;
+
+    List<ReviewEntity> entities = body.stream().map(mapper::apiToEntity).collect(toList());
+    List<Integer> duplicates = batchWriter.insert(entities);
+
+    /*
+     A redelivered event finds some of its reviews already created, those are done; only a review
+     that differs from the one stored under its id is a conflict.
+    */
+    List<Integer> conflicts = batchWriter.conflictsOf(entities, duplicates);
+
+    if (!conflicts.isEmpty()) {
+      throw new InvalidInputException(
+          "Duplicate key, Product Id: "
+              + productId
+              + ", Review Ids:"
+              + conflicts.stream()
+                  .map(index -> String.valueOf(body.get(index).getReviewId()))
+                  .collect(joining(",")));
+    }
+
+    log.debug("createReviews: created {} reviews of the product: {}", entities.size(), productId);
+    return entities.size();
+  }
+
   @Override
   public Flux<Review> getReviews(int productId) {
 
     isValidProductId(productId);
 
-    return asyncFlux(() -> Flux.fromIterable(getByProductId(productId))).log(null, FINE);
+    return deadlines
+        .within("reviews.db", asyncFlux(() -> Flux.fromIterable(getByProductId(productId))))
+        .log(null, FINE);
 }
 
+  @Override
+  public Flux<Review> getReviews(List<Integer> productIds) {
+
+    productIds.forEach(this::isValidProductId);
+
+    /*
+     Query the products in slices, one after the other, so the reviews are streamed
+     to the caller slice by slice, instead of loading all of them in memory first.
+     Once the request deadline is over, the remaining slices are not queried.
+    */
+    List<Integer> sortedIds = productIds.stream().distinct().sorted().collect(toList());
+
+    return Flux.range(0, (sortedIds.size() + PRODUCT_IDS_SLICE_SIZE - 1) / PRODUCT_IDS_SLICE_SIZE)
+        .map(slice -> sortedIds.subList(
+                slice * PRODUCT_IDS_SLICE_SIZE,
+                Math.min((slice + 1) * PRODUCT_IDS_SLICE_SIZE, sortedIds.size())))
+        .concatMap(
+            ids ->
+                deadlines.within(
+                    "reviews.db", asyncFlux(() -> Flux.fromIterable(getByProductIds(ids)))))
+        .log(null, FINE);
+  }
+
   protected List<Review> getByProductId(int productId) {
 
     List<Review> list = mapper.entityListToApiList(repository.findByProductId(productId));
@@ -79,18 +145,39 @@ public class ReviewServiceImpl implements ReviewService {
     return list;
   }
 
+  protected List<Review> getByProductIds(List<Integer> productIds) {
+
+    List<Review> list =
+        mapper.entityListToApiList(
+            repository.findByProductIdInOrderByProductIdAscReviewIdAsc(productIds));
+    list.forEach(e ->
+            e.setServiceAddress(serviceUtil.getServiceAddress()));
+
+    log.debug("getReviews: response size: {}", list.size());
+
+    return list;
+  }
+
   @Override
   public void deleteReviews(int productId) {
     isValidProductId(productId);
     log.debug(
         "deleteReviews: tries to delete reviews for the product with productId: {}", productId);
-    repository.deleteAll(repository.findByProductId(productId));
+    int count = repository.deleteByProductId(productId);
+    log.debug("deleteReviews: deleted {} reviews of the product: {}", count, productId);
   }
 
   private void isValidProductId(int productId) {
     if (productId < 1) throw new InvalidInputException("Invalid productId: " + productId);
   }
 
+  private void isOfProduct(int productId, int itemProductId) {
+    if (itemProductId != productId) {
+      throw new InvalidInputException(
+          "Invalid productId: " + itemProductId + ", expected: " + productId);
+    }
+  }
+
   private <T> Flux<T> asyncFlux(Supplier<Publisher<T>> publisherSupplier) {
     return Flux.defer(publisherSupplier).subscribeOn(scheduler);
   }
@@ -0,0 +1,13 @@
+-- Review ids are allocated by Hibernate from this table, in blocks of 50,
+-- so the review inserts can be sent as JDBC batches.
+-- Hibernate hands out the block ending at next_val, so it starts one block
+-- above the ids already assigned by AUTO_INCREMENT.
+
+USE `review-db`;
+
+CREATE TABLE `review-db`.`review_id_seq` (
+    `next_val` BIGINT NOT NULL
+)  ENGINE=INNODB DEFAULT CHARSET=UTF8MB4 COLLATE = UTF8MB4_0900_AI_CI;
+
+INSERT INTO `review-db`.`review_id_seq` (`next_val`)
+    SELECT COALESCE(MAX(`id`), 0) + 51 FROM `review-db`.`review`;
@@ -1,10 +1,12 @@
 package com.siriusxi.ms.store.revs;
 
+import com.siriusxi.ms.store.revs.persistence.ReviewBatchWriter;
 import com.siriusxi.ms.store.revs.persistence.ReviewEntity;
 import com.siriusxi.ms.store.revs.persistence.ReviewRepository;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.test.context.ActiveProfiles;
@@ -24,10 +26,13 @@ import static org.springframework.transaction.annotation.Propagation.NOT_SUPPORT
 @Transactional(propagation = NOT_SUPPORTED)
 @ActiveProfiles("test")
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@Import(ReviewBatchWriter.class)
 class PersistenceTests {
 
   @Autowired private ReviewRepository repository;
 
+  @Autowired private ReviewBatchWriter batchWriter;
+
   private ReviewEntity savedEntity;
 
   @BeforeEach
@@ -72,6 +77,16 @@ class PersistenceTests {
     assertFalse(repository.existsById(savedEntity.getId()));
   }
 
+  @Test
+  public void deleteByProductId() {
+    repository.save(new ReviewEntity(1, 3, "amazon 1", "s", "c"));
+    repository.save(new ReviewEntity(2, 1, "amazon 2", "s", "c"));
+
+    assertEquals(2, repository.deleteByProductId(1));
+
+    assertEquals(1, repository.count());
+  }
+
   @Test
   public void getByProductId() {
     List<ReviewEntity> entityList = repository.findByProductId(savedEntity.getProductId());
@@ -90,6 +105,25 @@ class PersistenceTests {
                     "s", "c")));
   }
 
+  @Test
+  public void batchInsertAndRemove() {
+
+    // The second review already exists and the last one repeats the first one.
+    List<Integer> duplicates =
+        batchWriter.insert(
+            List.of(
+                new ReviewEntity(1, 3, "amazon 1", "s", "c"),
+                new ReviewEntity(1, 2, "amazon 1", "s", "c"),
+                new ReviewEntity(2, 1, "amazon 1", "s", "c"),
+                new ReviewEntity(1, 3, "amazon 2", "s", "c")));
+
+    assertEquals(List.of(1, 3), duplicates);
+    assertEquals(3, repository.count());
+
+    assertEquals(3, batchWriter.remove(List.of(1, 2, 13)));
+    assertEquals(0, repository.count());
+  }
+
   @Test
   public void optimisticLockError() {
 
@@ -16,7 +16,10 @@ import org.springframework.messaging.support.GenericMessage;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
+import java.util.List;
+
 import static com.siriusxi.ms.store.api.event.Event.Type.CREATE;
+import static com.siriusxi.ms.store.api.event.Event.Type.CREATE_ALL;
 import static com.siriusxi.ms.store.api.event.Event.Type.DELETE;
 import static org.assertj.core.api.Assertions.fail;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -67,6 +70,58 @@ class ReviewServiceApplicationTests {
         .jsonPath("$[2].reviewId").isEqualTo(3);
   }
 
+  @Test
+  public void getReviewsByProductIds() {
+
+    sendCreateReviewEvent(2, 1);
+    sendCreateReviewEvent(1, 2);
+    sendCreateReviewEvent(1, 1);
+
+    // Reviews come back grouped, and sorted, by product id.
+    getAndVerifyReviewsByProductId("?productIds=2,1,213", OK)
+        .jsonPath("$.length()").isEqualTo(3)
+        .jsonPath("$[0].productId").isEqualTo(1)
+        .jsonPath("$[0].reviewId").isEqualTo(1)
+        .jsonPath("$[1].productId").isEqualTo(1)
+        .jsonPath("$[1].reviewId").isEqualTo(2)
+        .jsonPath("$[2].productId").isEqualTo(2);
+  }
+
+  @Test
+  public void createAllReviews() {
+
+    int productId = 1;
+
+    List<Review> reviews = List.of(review(productId, 1), review(productId, 2));
+    input.send(new GenericMessage<>(new Event<>(CREATE_ALL, productId, reviews)));
+
+    assertEquals(2, repository.findByProductId(productId).size());
+
+    // A redelivered review is already created, so the event is done.
+    input.send(new GenericMessage<>(new Event<>(CREATE_ALL, productId,
+            List.of(review(productId, 2), review(productId, 3)))));
+
+    assertEquals(3, repository.findByProductId(productId).size());
+
+    var conflicting = review(productId, 3);
+    conflicting.setContent("Other content");
+
+    try {
+      input.send(new GenericMessage<>(new Event<>(CREATE_ALL, productId,
+              List.of(conflicting, review(productId, 4)))));
+      fail("Expected a MessagingException here!");
+    } catch (MessagingException me) {
+      if (me.getCause() instanceof InvalidInputException iie) {
+        assertEquals("Duplicate key, Product Id: 1, Review Ids:3", iie.getMessage());
+      } else {
+        fail("Expected a InvalidInputException as the root cause!");
+      }
+    }
+
+    // The reviews that are not conflicts are created.
+    assertEquals(4, repository.findByProductId(productId).size());
+  }
+
   @Test
   public void duplicateError() {
 
@@ -161,12 +216,15 @@ class ReviewServiceApplicationTests {
   }
 
   private void sendCreateReviewEvent(int productId, int reviewId) {
-    Review review = new Review(productId, reviewId, "Author " + reviewId,
-            "Subject " + reviewId, "Content " + reviewId, "SA");
-    Event<Integer, Review> event = new Event<>(CREATE, productId, review);
+    Event<Integer, Review> event = new Event<>(CREATE, productId, review(productId, reviewId));
     input.send(new GenericMessage<>(event));
   }
 
+  private Review review(int productId, int reviewId) {
+    return new Review(productId, reviewId, "Author " + reviewId,
+            "Subject " + reviewId, "Content " + reviewId, "SA");
+  }
+
   private void sendDeleteReviewEvent(int productId) {
     Event<Integer, Review> event = new Event<>(DELETE, productId, null);
     input.send(new GenericMessage<>(event));
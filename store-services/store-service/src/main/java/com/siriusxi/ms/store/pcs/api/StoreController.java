@@ -3,12 +3,17 @@ package com.siriusxi.ms.store.pcs.api;
 import com.siriusxi.ms.store.api.composite.StoreEndpoint;
 import com.siriusxi.ms.store.api.composite.StoreService;
 import com.siriusxi.ms.store.api.composite.dto.ProductAggregate;
+import com.siriusxi.ms.store.api.composite.dto.ProductAggregatePart;
+import com.siriusxi.ms.store.api.composite.dto.ProductAggregateResult;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 @RestController
 @Log4j2
 public class StoreController implements StoreEndpoint {
@@ -31,6 +36,26 @@ public class StoreController implements StoreEndpoint {
     return storeService.getProduct(id, delay, faultPercent);
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * @return the product parts stream.
+   */
+  @Override
+  public Flux<ProductAggregatePart> getProductStream(int id) {
+    return storeService.getProductStream(id);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @return one result per product id.
+   */
+  @Override
+  public Flux<ProductAggregateResult> getProducts(List<Integer> ids) {
+    return storeService.getProducts(ids);
+  }
+
   /**
    * {@inheritDoc}
    *
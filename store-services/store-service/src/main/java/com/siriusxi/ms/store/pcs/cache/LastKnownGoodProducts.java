@@ -0,0 +1,107 @@
+package com.siriusxi.ms.store.pcs.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.siriusxi.ms.store.api.core.product.dto.Product;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Class <code>LastKnownGoodProducts</code> keeps the last product successfully read from the
+ * product service, per product id, to be served as a stale copy while the product service is
+ * unavailable.
+ *
+ * <p>Only the name and weight are kept, the service address is not, so an entry costs a few
+ * dozen bytes on top of the name. The store is bounded by size and age, and exports the
+ * <code>cache.*</code> meters tagged with <code>cache=productLastKnownGood</code>.
+ *
+ * <p>The ids served stale are remembered, so they can be refreshed once the product service is
+ * reachable again.
+ *
+ * @author mohamed.taman
+ * @version v5.9
+ * @since v5.9
+ */
+@Component
+@Log4j2
+public class LastKnownGoodProducts {
+
+  private static final String CACHE_NAME = "productLastKnownGood";
+
+  private final Cache<Integer, Snapshot> cache;
+  private final Set<Integer> servedStale = ConcurrentHashMap.newKeySet();
+
+  @Autowired
+  public LastKnownGoodProducts(
+      MeterRegistry registry,
+      @Value("${app.product-last-known-good.maxSize:100000}") long maxSize,
+      @Value("${app.product-last-known-good.ttlHours:24}") int ttlHours) {
+
+    log.info(
+        "Creates a last known good product store, maxSize: {}, ttlHours: {}", maxSize, ttlHours);
+
+    this.cache =
+        Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofHours(ttlHours))
+            .recordStats()
+            .build();
+
+    CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+  }
+
+  public void put(Product product) {
+    cache.put(product.getProductId(), new Snapshot(product.getName(), product.getWeight()));
+    servedStale.remove(product.getProductId());
+  }
+
+  /**
+   * Gets the stale copy of a product, and remembers that it is served stale.
+   *
+   * @param productId of the product.
+   * @param serviceAddress to be set on the stale copy.
+   * @return the stale copy, if any.
+   */
+  public Optional<Product> getStale(int productId, String serviceAddress) {
+    return Optional.ofNullable(cache.getIfPresent(productId))
+        .map(
+            snapshot -> {
+              servedStale.add(productId);
+              return new Product(productId, snapshot.name(), snapshot.weight(), serviceAddress);
+            });
+  }
+
+  /**
+   * Takes up to <code>max</code> of the product ids that were served stale, to refresh them.
+   *
+   * @param max number of ids to take.
+   * @return the taken ids.
+   */
+  public List<Integer> takeServedStale(int max) {
+    List<Integer> ids = new ArrayList<>();
+    for (Integer id : servedStale) {
+      if (ids.size() == max) break;
+      if (servedStale.remove(id)) ids.add(id);
+    }
+    return ids;
+  }
+
+  public void evict(int productId) {
+    log.debug("Evicts the last known good product for productId: {}", productId);
+    cache.invalidate(productId);
+    servedStale.remove(productId);
+  }
+
+  private record Snapshot(String name, int weight) {}
+}
@@ -0,0 +1,102 @@
+package com.siriusxi.ms.store.pcs.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.siriusxi.ms.store.api.composite.dto.ProductAggregate;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Class <code>ProductAggregateCache</code> is an in-process, size and TTL bounded cache of the
+ * assembled composite products, so a repeated read does not fan out to the three core services.
+ *
+ * <p>Entries are evicted by the product, recommendation and review events published by the store
+ * service. Hits, misses, evictions and size are exported as <code>cache.*</code> meters tagged
+ * with <code>cache=productAggregate</code>.
+ *
+ * <p>A read that started before an eviction does not put its, maybe stale, aggregate in the cache:
+ * readers take a <code>stamp</code> before the read, and the aggregate is only kept if no eviction
+ * happened since.
+ *
+ * @see com.siriusxi.ms.store.pcs.infra.CacheInvalidationProcessor
+ * @author mohamed.taman
+ * @version v5.9
+ * @since v5.9
+ */
+@Component
+@Log4j2
+public class ProductAggregateCache {
+
+  private static final String CACHE_NAME = "productAggregate";
+
+  private final boolean enabled;
+  private final Cache<Integer, ProductAggregate> cache;
+  private final AtomicLong evictions = new AtomicLong();
+
+  @Autowired
+  public ProductAggregateCache(
+      MeterRegistry registry,
+      @Value("${app.product-aggregate-cache.enabled:true}") boolean enabled,
+      @Value("${app.product-aggregate-cache.maxSize:10000}") long maxSize,
+      @Value("${app.product-aggregate-cache.ttlSec:60}") int ttlSec) {
+
+    log.info(
+        "Creates a product aggregate cache, enabled: {}, maxSize: {}, ttlSec: {}",
+        enabled,
+        maxSize,
+        ttlSec);
+
+    this.enabled = enabled;
+    this.cache =
+        Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofSeconds(ttlSec))
+            .recordStats()
+            .build();
+
+    CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+  }
+
+  public Optional<ProductAggregate> get(int productId) {
+    return enabled ? Optional.ofNullable(cache.getIfPresent(productId)) : Optional.empty();
+  }
+
+  /** @return stamp to be passed to <code>put</code>, taken before reading the aggregate. */
+  public long stamp() {
+    return evictions.get();
+  }
+
+  /**
+   * Caches the aggregate, unless an eviction happened since the stamp was taken.
+   *
+   * @param aggregate assembled from the core services.
+   * @param stamp taken before the read.
+   */
+  public void put(ProductAggregate aggregate, long stamp) {
+    if (!enabled || evictions.get() != stamp) return;
+
+    cache.put(aggregate.productId(), aggregate);
+
+    // An eviction between the check and the put may have missed the aggregate.
+    if (evictions.get() != stamp) cache.invalidate(aggregate.productId());
+  }
+
+  public void evict(int productId) {
+    log.debug("Evicts the cached product aggregate for productId: {}", productId);
+    evictions.incrementAndGet();
+    cache.invalidate(productId);
+  }
+
+  public void clear() {
+    evictions.incrementAndGet();
+    cache.invalidateAll();
+  }
+}
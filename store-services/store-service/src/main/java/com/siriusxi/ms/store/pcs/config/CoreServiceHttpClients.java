@@ -0,0 +1,83 @@
+package com.siriusxi.ms.store.pcs.config;
+
+import io.netty.channel.ChannelOption;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * Class <code>CoreServiceHttpClients</code> creates the Reactor Netty clients the store service
+ * calls the core services with, each one with its own connection pool.
+ *
+ * <p>A pool is configured by the <code>app.core-service-client.*</code> properties, which a
+ * target can override with <code>app.core-service-client.&lt;target&gt;.*</code>, for example
+ * <code>app.core-service-client.review.maxConnections</code>. Pool metrics are exported as <code>
+ * reactor.netty.connection.provider.*</code> meters, tagged with the pool name, <code>
+ * store-&lt;target&gt;</code>.
+ *
+ * <p>With <code>app.h2c.enabled</code>, the clients upgrade to cleartext HTTP/2, so the fan-out
+ * calls to a core service instance are multiplexed over a single connection. A core service that
+ * does not accept h2c keeps being called over HTTP/1.1.
+ *
+ * @author mohamed.taman
+ * @version v5.9
+ * @since v5.9
+ */
+@Component
+@Log4j2
+public class CoreServiceHttpClients {
+
+  private static final String PREFIX = "app.core-service-client.";
+
+  private final Environment env;
+  private final boolean h2c;
+
+  @Autowired
+  public CoreServiceHttpClients(Environment env) {
+    this.env = env;
+    this.h2c = env.getProperty("app.h2c.enabled", Boolean.class, false);
+  }
+
+  public HttpClient create(String target) {
+
+    var maxConnections = property(target, "maxConnections", 50);
+    var pendingAcquireMaxCount = property(target, "pendingAcquireMaxCount", 500);
+    var pendingAcquireTimeoutMs = property(target, "pendingAcquireTimeoutMs", 2000);
+    var maxIdleTimeMs = property(target, "maxIdleTimeMs", 20000);
+    var maxLifeTimeMs = property(target, "maxLifeTimeMs", 300000);
+
+    log.info(
+        "Creates the {} client, h2c: {}, maxConnections: {}, pendingAcquireMaxCount: {}",
+        target,
+        h2c,
+        maxConnections,
+        pendingAcquireMaxCount);
+
+    var pool =
+        ConnectionProvider.builder("store-" + target)
+            .maxConnections(maxConnections)
+            .pendingAcquireMaxCount(pendingAcquireMaxCount)
+            .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+            .maxIdleTime(Duration.ofMillis(maxIdleTimeMs))
+            .maxLifeTime(Duration.ofMillis(maxLifeTimeMs))
+            .metrics(true)
+            .build();
+
+    var client = HttpClient.create(pool).keepAlive(true).option(ChannelOption.SO_KEEPALIVE, true);
+
+    return h2c ? client.protocol(HttpProtocol.H2C, HttpProtocol.HTTP11) : client;
+  }
+
+  private int property(String target, String name, int defaultValue) {
+    return env.getProperty(
+        PREFIX + target + "." + name,
+        Integer.class,
+        env.getProperty(PREFIX + name, Integer.class, defaultValue));
+  }
+}
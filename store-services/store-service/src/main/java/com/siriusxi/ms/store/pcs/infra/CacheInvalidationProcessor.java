@@ -0,0 +1,94 @@
+package com.siriusxi.ms.store.pcs.infra;
+
+import com.siriusxi.ms.store.api.event.Event;
+import com.siriusxi.ms.store.pcs.cache.LastKnownGoodProducts;
+import com.siriusxi.ms.store.pcs.cache.ProductAggregateCache;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.stream.annotation.EnableBinding;
+import org.springframework.cloud.stream.annotation.Input;
+import org.springframework.cloud.stream.annotation.StreamListener;
+import org.springframework.messaging.SubscribableChannel;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+import static com.siriusxi.ms.store.pcs.infra.CacheInvalidationProcessor.MessageSinks;
+
+/**
+ * Class <code>CacheInvalidationProcessor</code> listens to the same product, recommendation and
+ * review destinations the store service publishes to, and evicts the affected product aggregate
+ * from the local cache. Product events also evict the last known good copy of the product.
+ *
+ * <p>The event reaches this anonymous subscription as it reaches the consumer group of the core
+ * service that writes it, so the eviction usually comes before the write commits, and a read in
+ * between caches the old aggregate again. The aggregate is therefore evicted once more, <code>
+ * app.product-aggregate-cache.invalidationDelayMs</code> later, once the write is expected to be
+ * done; a write later than that is still bounded by the TTL.
+ *
+ * @implNote The bindings have no consumer group on purpose, so that every store instance gets its
+ *     own anonymous subscription and receives all events.
+ * @see ProductAggregateCache
+ * @author mohamed.taman
+ * @version v5.9
+ * @since v5.9
+ */
+@EnableBinding(MessageSinks.class)
+@Log4j2
+public class CacheInvalidationProcessor {
+
+  private final ProductAggregateCache cache;
+  private final LastKnownGoodProducts lastKnownGood;
+  private final Duration invalidationDelay;
+
+  @Autowired
+  public CacheInvalidationProcessor(
+      ProductAggregateCache cache,
+      LastKnownGoodProducts lastKnownGood,
+      @Value("${app.product-aggregate-cache.invalidationDelayMs:2000}") long invalidationDelayMs) {
+    this.cache = cache;
+    this.lastKnownGood = lastKnownGood;
+    this.invalidationDelay = Duration.ofMillis(invalidationDelayMs);
+  }
+
+  @StreamListener(target = MessageSinks.INPUT_PRODUCTS)
+  public void onProductEvent(Event<Integer, Object> event) {
+    evict(event);
+    lastKnownGood.evict(event.getKey());
+  }
+
+  @StreamListener(target = MessageSinks.INPUT_RECOMMENDATIONS)
+  public void onRecommendationEvent(Event<Integer, Object> event) {
+    evict(event);
+  }
+
+  @StreamListener(target = MessageSinks.INPUT_REVIEWS)
+  public void onReviewEvent(Event<Integer, Object> event) {
+    evict(event);
+  }
+
+  private void evict(Event<Integer, Object> event) {
+    log.debug("Got a {} event for productId: {}", event.getEventType(), event.getKey());
+
+    int productId = event.getKey();
+    cache.evict(productId);
+    Mono.delay(invalidationDelay).subscribe(tick -> cache.evict(productId));
+  }
+
+  public interface MessageSinks {
+
+    String INPUT_PRODUCTS = "input-products";
+    String INPUT_RECOMMENDATIONS = "input-recommendations";
+    String INPUT_REVIEWS = "input-reviews";
+
+    @Input(INPUT_PRODUCTS)
+    SubscribableChannel inputProducts();
+
+    @Input(INPUT_RECOMMENDATIONS)
+    SubscribableChannel inputRecommendations();
+
+    @Input(INPUT_REVIEWS)
+    SubscribableChannel inputReviews();
+  }
+}
@@ -0,0 +1,168 @@
+package com.siriusxi.ms.store.pcs.integration;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import static com.siriusxi.ms.store.api.event.Event.Type.DELETE;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Class <code>EventCoalescer</code> holds the outgoing events for a short window, and publishes
+ * them as one batch, after dropping the ones a later event of the window makes useless.
+ *
+ * <p>Events are coalesced per output binding and product id: a DELETE drops every event of the
+ * same product and binding that is still waiting in the window, so a product created and deleted
+ * within the window is only deleted. A DELETE followed by a CREATE, a re-creation, keeps both.
+ * A window is published when its time is up, or as soon as it holds <code>maxEvents</code>
+ * events, which bounds the memory and the size of the batches under a burst.
+ *
+ * <p>A caller completes once the window its events were added to is published, dropped events
+ * included, and fails with the error of the publisher otherwise. The dropped events are counted
+ * by <code>store.event-coalescer.eliminated</code>, per <code>binding</code> tag, and the
+ * published batch sizes by <code>store.event-coalescer.batch.size</code>.
+ *
+ * @author mohamed.taman
+ * @version v5.9
+ * @since v5.9
+ */
+@Component
+@Log4j2
+public class EventCoalescer {
+
+  private final boolean enabled;
+  private final long windowMs;
+  private final int maxEvents;
+  private final MeterRegistry registry;
+  private final DistributionSummary batchSize;
+
+  private Window current;
+
+  @Autowired
+  public EventCoalescer(
+      MeterRegistry registry,
+      @Value("${app.event-coalescer.enabled:false}") boolean enabled,
+      @Value("${app.event-coalescer.windowMs:200}") long windowMs,
+      @Value("${app.event-coalescer.maxEvents:500}") int maxEvents) {
+
+    log.info(
+        "Creates an event coalescer, enabled: {}, windowMs: {}, maxEvents: {}",
+        enabled,
+        windowMs,
+        maxEvents);
+
+    this.registry = registry;
+    this.enabled = enabled;
+    this.windowMs = windowMs;
+    this.maxEvents = maxEvents;
+    this.batchSize = registry.summary("store.event-coalescer.batch.size");
+  }
+
+  /**
+   * Adds the events to the current window, or publishes them at once if coalescing is disabled.
+   *
+   * @param events to be published.
+   * @param publisher publishes the events of a window; the one of the caller that opens a window
+   *     publishes it, so all the callers must pass the same publisher.
+   * @return completes once the window of the events is published.
+   */
+  Mono<Void> publish(
+      List<OutgoingEvent> events, Function<List<OutgoingEvent>, Mono<Void>> publisher) {
+
+    if (!enabled) return publisher.apply(events);
+
+    return Mono.defer(
+        () -> {
+          var done = new CompletableFuture<Void>();
+          var full = add(events, publisher, done);
+          if (full != null) flush(full);
+          return Mono.fromFuture(done);
+        });
+  }
+
+  /** @return the window, if the events filled it up. */
+  private synchronized Window add(
+      List<OutgoingEvent> events,
+      Function<List<OutgoingEvent>, Mono<Void>> publisher,
+      CompletableFuture<Void> done) {
+
+    if (current == null) {
+      var window = new Window(publisher);
+      current = window;
+      Schedulers.parallel().schedule(() -> flush(window), windowMs, MILLISECONDS);
+    }
+
+    for (OutgoingEvent outgoing : events) {
+      var key = new Key(outgoing.binding(), outgoing.event().getKey());
+      var pending = current.pending.computeIfAbsent(key, k -> new ArrayList<>());
+
+      if (outgoing.event().getEventType() == DELETE && !pending.isEmpty()) {
+        log.debug("Drops {} pending events of: {}", pending.size(), key);
+        registry
+            .counter("store.event-coalescer.eliminated", "binding", outgoing.binding())
+            .increment(pending.size());
+        current.size -= pending.size();
+        pending.clear();
+      }
+      pending.add(outgoing);
+      current.size++;
+    }
+
+    current.callers.add(done);
+
+    if (current.size < maxEvents) return null;
+
+    log.debug("Publishes a full window of {} events early", current.size);
+    return current;
+  }
+
+  private void flush(Window window) {
+
+    synchronized (this) {
+      // A full window is published early, its scheduled flush then has nothing to do.
+      if (window.flushed) return;
+      window.flushed = true;
+      if (current == window) current = null;
+    }
+
+    List<OutgoingEvent> events = new ArrayList<>();
+    window.pending.values().forEach(events::addAll);
+
+    log.debug("Publishes a batch of {} coalesced events", events.size());
+    batchSize.record(events.size());
+
+    // A publisher that throws, instead of returning an error, still fails the callers.
+    Mono.defer(() -> window.publisher.apply(events))
+        .subscribe(
+            null,
+            error -> window.callers.forEach(caller -> caller.completeExceptionally(error)),
+            () -> window.callers.forEach(caller -> caller.complete(null)));
+  }
+
+  private record Key(String binding, Integer productId) {}
+
+  private static final class Window {
+
+    private final Map<Key, List<OutgoingEvent>> pending = new LinkedHashMap<>();
+    private final List<CompletableFuture<Void>> callers = new ArrayList<>();
+    private final Function<List<OutgoingEvent>, Mono<Void>> publisher;
+    private int size;
+    private boolean flushed;
+
+    private Window(Function<List<OutgoingEvent>, Mono<Void>> publisher) {
+      this.publisher = publisher;
+    }
+  }
+}
@@ -0,0 +1,478 @@
+package com.siriusxi.ms.store.pcs.integration;
+
+import com.siriusxi.ms.store.api.event.Event;
+import com.siriusxi.ms.store.util.exceptions.EventProcessingException;
+import com.siriusxi.ms.store.util.messaging.EventCodec;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import static com.siriusxi.ms.store.pcs.integration.StoreIntegration.MessageSources;
+import static com.siriusxi.ms.store.pcs.integration.StoreIntegration.MessageSources.OUTPUT_PRODUCTS;
+import static com.siriusxi.ms.store.pcs.integration.StoreIntegration.MessageSources.OUTPUT_RECOMMENDATIONS;
+import static com.siriusxi.ms.store.pcs.integration.StoreIntegration.MessageSources.OUTPUT_REVIEWS;
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Class <code>EventOutbox</code> is a local, append-only outbox of the outgoing events, so a
+ * request is not held by a slow or unavailable broker. Events are appended to memory-mapped
+ * segment files, and a relay thread sends them, in the order they were appended, to their output
+ * binding.
+ *
+ * <p>A record of a segment is:
+ *
+ * <pre>
+ *   int     length of the record body, written last, so a torn record reads as the end
+ *   int     CRC32 of the record body
+ *   long    append time, in epoch milliseconds
+ *   byte    length of the output binding name, followed by the name
+ *   bytes   the event, in the {@link EventCodec} format
+ * </pre>
+ *
+ * <p>A segment full of records ends with a length of -1, and the next one is created. The relay
+ * sends a batch of up to <code>app.event-outbox.batchSize</code> events through the {@link
+ * EventPublisher}, waits for the broker to confirm them, and commits the segment and position it
+ * has been confirmed up to; so an event the broker did not confirm is sent again at the next
+ * poll. The segments it is done with are deleted. On restart, it resumes from the last committed
+ * position, so the events sent but not yet committed are sent again: the relay delivers at least
+ * once, and a consumer may get an event twice, e.g. a duplicate create it dead-letters as a
+ * duplicate key.
+ *
+ * <p>The number of events not yet relayed is the <code>store.event-outbox.depth</code> gauge, and
+ * the time from append to relay the <code>store.event-outbox.relay.lag</code> timer.
+ *
+ * @author mohamed.taman
+ * @version v5.9
+ * @since v5.9
+ */
+@Component
+@Log4j2
+public class EventOutbox implements SmartLifecycle, DisposableBean {
+
+  private static final int HEADER_BYTES = Integer.BYTES * 2;
+  private static final int END_OF_SEGMENT = -1;
+  private static final String SEGMENT_SUFFIX = ".segment";
+
+  private final boolean enabled;
+  private final Path directory;
+  private final int segmentBytes;
+  private final int batchSize;
+  private final long pollMs;
+  private final boolean forceOnAppend;
+  private final MessageSources messageSources;
+  private final EventCodec codec;
+  private final EventPublisher publisher;
+  private final Timer relayLag;
+  private final AtomicLong depth = new AtomicLong();
+  private final ConcurrentNavigableMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+
+  // Guarded by this.
+  private Segment writer;
+
+  // Used by the relay thread only, once started.
+  private MappedByteBuffer committed;
+  private long readSegment;
+  private int readPosition;
+  private ScheduledExecutorService relay;
+
+  @Autowired
+  public EventOutbox(
+      MessageSources messageSources,
+      EventCodec codec,
+      EventPublisher publisher,
+      MeterRegistry registry,
+      @Value("${app.event-outbox.enabled:false}") boolean enabled,
+      @Value("${app.event-outbox.path:${java.io.tmpdir}/store-outbox}") String directory,
+      @Value("${app.event-outbox.segmentBytes:16777216}") int segmentBytes,
+      @Value("${app.event-outbox.batchSize:100}") int batchSize,
+      @Value("${app.event-outbox.pollMs:50}") long pollMs,
+      @Value("${app.event-outbox.forceOnAppend:false}") boolean forceOnAppend) {
+
+    log.info("Creates an event outbox, enabled: {}, path: {}", enabled, directory);
+
+    this.messageSources = messageSources;
+    this.codec = codec;
+    this.publisher = publisher;
+    this.enabled = enabled;
+    this.directory = Paths.get(directory);
+    this.segmentBytes = segmentBytes;
+    this.batchSize = batchSize;
+    this.pollMs = pollMs;
+    this.forceOnAppend = forceOnAppend;
+    this.relayLag = registry.timer("store.event-outbox.relay.lag");
+
+    registry.gauge("store.event-outbox.depth", Tags.empty(), depth);
+
+    if (enabled) recover();
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Appends the event to the outbox, it is sent to the output binding later on.
+   *
+   * @param binding the event is sent to, one of the {@link MessageSources} outputs.
+   * @param event to be sent.
+   */
+  public void append(String binding, Event<Integer, ?> event) {
+
+    byte[] name = binding.getBytes(UTF_8);
+    byte[] data = codec.encode(event);
+    byte[] body =
+        ByteBuffer.allocate(Long.BYTES + 1 + name.length + data.length)
+            .putLong(System.currentTimeMillis())
+            .put((byte) name.length)
+            .put(name)
+            .put(data)
+            .array();
+
+    var crc = new CRC32();
+    crc.update(body);
+
+    // Keeps room for the end of segment mark.
+    int recordBytes = HEADER_BYTES + body.length + Integer.BYTES;
+    if (recordBytes > segmentBytes) {
+      throw new EventProcessingException("Event too large for the outbox: " + event);
+    }
+
+    synchronized (this) {
+      if (writer.capacity() - writer.written < recordBytes) roll();
+
+      int position = writer.written;
+      writer.buffer.putInt(position + Integer.BYTES, (int) crc.getValue());
+      writer.buffer.duplicate().position(position + HEADER_BYTES).put(body);
+      writer.buffer.putInt(position, body.length);
+      if (forceOnAppend) writer.buffer.force();
+
+      writer.written = position + HEADER_BYTES + body.length;
+      depth.incrementAndGet();
+    }
+  }
+
+  @Override
+  public void start() {
+    if (!enabled) return;
+
+    relay =
+        Executors.newSingleThreadScheduledExecutor(
+            task -> new Thread(task, "event-outbox-relay"));
+    relay.scheduleWithFixedDelay(this::relay, 0, pollMs, MILLISECONDS);
+  }
+
+  @Override
+  public void stop() {
+    if (relay == null) return;
+
+    relay.shutdown();
+    try {
+      relay.awaitTermination(pollMs + Duration.ofSeconds(5).toMillis(), MILLISECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+    relay = null;
+  }
+
+  @Override
+  public boolean isRunning() {
+    return relay != null;
+  }
+
+  @Override
+  public synchronized void destroy() {
+    stop();
+    segments.values().forEach(Segment::close);
+    segments.clear();
+  }
+
+  private void relay() {
+    try {
+      while (relayBatch() > 0) {
+        log.debug("Relayed a batch of events, {} events left", depth.get());
+      }
+    } catch (RuntimeException ex) {
+      // The events that were not sent are sent again at the next poll.
+      log.warn("Can not relay the outbox events, will retry: {}", ex.toString());
+    }
+  }
+
+  private int relayBatch() {
+
+    var segment = segments.get(readSegment);
+    int position = readPosition;
+    int relayed = 0;
+    List<Sent> sent = new ArrayList<>();
+
+    try {
+      while (relayed < batchSize) {
+        // Sealed is read first, once it is set, written does not change anymore.
+        boolean sealed = segment.sealed;
+        if (position >= segment.written) {
+          // A segment is deleted once done with, so its events are confirmed before moving on.
+          if (!sealed || !sent.isEmpty()) break;
+          segment = next(segment);
+          position = 0;
+          relayed++;
+          continue;
+        }
+
+        int length = segment.buffer.getInt(position);
+        byte[] body = new byte[length];
+        segment.buffer.duplicate().position(position + HEADER_BYTES).get(body);
+
+        position += HEADER_BYTES + length;
+        sent.add(send(ByteBuffer.wrap(body), position));
+        relayed++;
+      }
+    } finally {
+      confirm(segment.number, sent);
+    }
+
+    return relayed;
+  }
+
+  private Sent send(ByteBuffer body, int end) {
+
+    long appendedAt = body.getLong();
+    byte[] name = new byte[body.get()];
+    body.get(name);
+    byte[] data = new byte[body.remaining()];
+    body.get(data);
+
+    String binding = new String(name, UTF_8);
+    Event<Integer, Object> event = codec.decode(data);
+
+    return new Sent(
+        publisher.send(new OutgoingEvent(binding, channel(binding), event)), end, appendedAt);
+  }
+
+  /** Waits for the confirms of the sent events, and commits the position of the last in a row. */
+  private void confirm(long segment, List<Sent> sent) {
+
+    int position = readPosition;
+    try {
+      for (Sent event : sent) {
+        publisher.confirmed(event.correlation()).block();
+        position = event.end();
+        depth.decrementAndGet();
+        relayLag.record(Duration.ofMillis(System.currentTimeMillis() - event.appendedAt()));
+      }
+    } finally {
+      commit(segment, position);
+    }
+  }
+
+  private MessageChannel channel(String binding) {
+    return switch (binding) {
+      case OUTPUT_PRODUCTS -> messageSources.outputProducts();
+      case OUTPUT_RECOMMENDATIONS -> messageSources.outputRecommendations();
+      case OUTPUT_REVIEWS -> messageSources.outputReviews();
+      default -> throw new EventProcessingException("Unknown output binding: " + binding);
+    };
+  }
+
+  private Segment next(Segment done) {
+    // Commits the next segment before deleting the one done with.
+    var next = segments.get(done.number + 1);
+    commit(next.number, 0);
+    segments.remove(done.number);
+    done.delete();
+    return next;
+  }
+
+  private void commit(long segment, int position) {
+    if (segment == readSegment && position == readPosition) return;
+
+    committed.putLong(Long.BYTES, position);
+    committed.putLong(0, segment);
+    committed.force();
+
+    readSegment = segment;
+    readPosition = position;
+  }
+
+  private synchronized void roll() {
+    writer.buffer.putInt(writer.written, END_OF_SEGMENT);
+    writer.buffer.force();
+
+    var next = open(writer.number + 1);
+    segments.put(next.number, next);
+    writer.sealed = true;
+    writer = next;
+  }
+
+  private void recover() {
+    try {
+      Files.createDirectories(directory);
+      committed = map(directory.resolve("relay.offset"), Long.BYTES * 2);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+
+    for (long number : segmentNumbers()) {
+      var segment = open(number);
+      segment.scan();
+      segments.put(number, segment);
+    }
+
+    long committedSegment = committed.getLong(0);
+    int committedPosition = (int) committed.getLong(Long.BYTES);
+
+    if (segments.isEmpty()) {
+      segments.put(committedSegment, open(committedSegment));
+    }
+
+    var last = segments.lastEntry().getValue();
+    segments.headMap(last.number).values().forEach(segment -> segment.sealed = true);
+    writer = last;
+    if (last.sealed) roll();
+
+    // The committed segment is gone if the relay stopped right after it was done with it.
+    if (segments.containsKey(committedSegment)) {
+      readSegment = committedSegment;
+      readPosition = committedPosition;
+    } else {
+      readSegment = segments.firstKey();
+      readPosition = 0;
+    }
+
+    segments.values().stream()
+        .filter(segment -> segment.number >= readSegment)
+        .forEach(
+            segment ->
+                depth.addAndGet(
+                    segment.count(segment.number == readSegment ? readPosition : 0)));
+
+    log.info(
+        "Recovered the event outbox, {} segments, {} events to relay", segments.size(), depth);
+  }
+
+  private List<Long> segmentNumbers() {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files
+          .map(file -> file.getFileName().toString())
+          .filter(name -> name.endsWith(SEGMENT_SUFFIX))
+          .map(name -> Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())))
+          .sorted()
+          .collect(Collectors.toList());
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  private Segment open(long number) {
+    var file = directory.resolve(String.format("%019d%s", number, SEGMENT_SUFFIX));
+    try {
+      return new Segment(number, file, map(file, segmentBytes));
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  private MappedByteBuffer map(Path file, int bytes) throws IOException {
+    try (var channel = FileChannel.open(file, CREATE, READ, WRITE)) {
+      // An existing file keeps its size, the segment size may have been changed since.
+      return channel.map(READ_WRITE, 0, Math.max(channel.size(), bytes));
+    }
+  }
+
+  private record Sent(CorrelationData correlation, int end, long appendedAt) {}
+
+  private static final class Segment {
+
+    private final long number;
+    private final Path file;
+    private final MappedByteBuffer buffer;
+    private volatile int written;
+    private volatile boolean sealed;
+
+    private Segment(long number, Path file, MappedByteBuffer buffer) {
+      this.number = number;
+      this.file = file;
+      this.buffer = buffer;
+    }
+
+    private int capacity() {
+      return buffer.capacity();
+    }
+
+    /*
+     Finds the end of the records, a record that was not completely written, or does not match
+     its CRC, is the end.
+    */
+    private void scan() {
+      int position = 0;
+      while (position + HEADER_BYTES <= capacity()) {
+        int length = buffer.getInt(position);
+        if (length == END_OF_SEGMENT) {
+          sealed = true;
+          break;
+        }
+        if (length <= 0 || position + HEADER_BYTES + length > capacity()) break;
+
+        byte[] body = new byte[length];
+        buffer.duplicate().position(position + HEADER_BYTES).get(body);
+        var crc = new CRC32();
+        crc.update(body);
+        if ((int) crc.getValue() != buffer.getInt(position + Integer.BYTES)) break;
+
+        position += HEADER_BYTES + length;
+      }
+      written = position;
+    }
+
+    private long count(int from) {
+      long records = 0;
+      for (int position = from; position < written; records++) {
+        position += HEADER_BYTES + buffer.getInt(position);
+      }
+      return records;
+    }
+
+    private void close() {
+      buffer.force();
+    }
+
+    private void delete() {
+      try {
+        Files.deleteIfExists(file);
+      } catch (IOException ex) {
+        log.warn("Can not delete the outbox segment: {}, {}", file, ex.toString());
+      }
+    }
+  }
+}
@@ -0,0 +1,100 @@
+package com.siriusxi.ms.store.pcs.integration;
+
+import com.siriusxi.ms.store.util.exceptions.EventProcessingException;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+
+import static org.springframework.amqp.support.AmqpHeaders.PUBLISH_CONFIRM_CORRELATION;
+import static org.springframework.integration.support.MessageBuilder.withPayload;
+
+/**
+ * Class <code>EventPublisher</code> sends the outgoing events to their output binding, and, with
+ * <code>app.event-publisher.rabbitConfirms</code>, waits for the broker to confirm each of them, up
+ * to <code>app.event-publisher.confirmTimeoutMs</code>. An event is published only once it is
+ * confirmed, a negative or missing confirm fails it.
+ *
+ * <p>The send and the confirm are apart, so a caller sending many events in order, as the {@link
+ * EventOutbox} relay does, sends them all before waiting for their confirms.
+ *
+ * @author mohamed.taman
+ * @version v5.9
+ * @since v5.9
+ */
+@Component
+@Log4j2
+public class EventPublisher {
+
+  private final int confirmTimeoutMs;
+  private final boolean rabbitConfirms;
+
+  @Autowired
+  public EventPublisher(
+      @Value("${app.event-publisher.confirmTimeoutMs:5000}") int confirmTimeoutMs,
+      @Value("${app.event-publisher.rabbitConfirms:false}") boolean rabbitConfirms) {
+
+    log.info(
+        "Creates an event publisher, rabbitConfirms: {}, confirmTimeoutMs: {}",
+        rabbitConfirms,
+        confirmTimeoutMs);
+
+    this.confirmTimeoutMs = confirmTimeoutMs;
+    this.rabbitConfirms = rabbitConfirms;
+  }
+
+  /**
+   * Publishes the event without blocking the caller, the send itself may block, with the Kafka
+   * sync producer for example, so it runs on the bounded elastic scheduler.
+   *
+   * @param outgoing event to be published.
+   * @return completes once the event is sent, and confirmed by the broker.
+   */
+  Mono<Void> publish(OutgoingEvent outgoing) {
+    return Mono.fromCallable(() -> send(outgoing))
+        .subscribeOn(Schedulers.boundedElastic())
+        .flatMap(this::confirmed);
+  }
+
+  /**
+   * Sends the event, on the caller thread. With Rabbit publisher confirms, the send returns at
+   * once and the confirm completes the correlation data later on.
+   *
+   * @param outgoing event to be sent.
+   * @return the correlation of the confirm of the event.
+   */
+  CorrelationData send(OutgoingEvent outgoing) {
+
+    var correlation = new CorrelationData();
+    var message = withPayload(outgoing.event());
+    if (rabbitConfirms) message.setHeader(PUBLISH_CONFIRM_CORRELATION, correlation);
+
+    if (!outgoing.channel().send(message.build())) {
+      throw new EventProcessingException("Event not sent: " + outgoing.event());
+    }
+    return correlation;
+  }
+
+  /**
+   * @param correlation of a sent event.
+   * @return completes once the broker confirms the event, at once without publisher confirms.
+   */
+  Mono<Void> confirmed(CorrelationData correlation) {
+    if (!rabbitConfirms) return Mono.empty();
+
+    return Mono.fromFuture(correlation.getFuture().completable())
+        .timeout(Duration.ofMillis(confirmTimeoutMs))
+        .flatMap(
+            confirm ->
+                confirm.isAck()
+                    ? Mono.<Void>empty()
+                    : Mono.error(
+                        new EventProcessingException(
+                            "Event not acknowledged by the broker: " + confirm.getReason())));
+  }
+}
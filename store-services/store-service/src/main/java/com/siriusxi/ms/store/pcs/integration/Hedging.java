@@ -0,0 +1,182 @@
+package com.siriusxi.ms.store.pcs.integration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Class <code>Hedging</code> sends a second, hedge, request when the first one has not answered
+ * within the configured latency percentile of the call, and takes whichever answers first.
+ *
+ * <p>The load balanced WebClient picks the next instance round robin, so the hedge normally lands
+ * on another instance than the first request. The extra load is capped by a token bucket, every
+ * request adds <code>budgetPercent / 100</code> token up to <code>maxBurst</code>, and every
+ * hedge costs one token.
+ *
+ * <p>The first request that answers wins. A failed request waits for the other one, unless it
+ * failed with a client error, which is the answer. The latency percentile is taken over the first
+ * requests, including the ones cancelled because the hedge won, so slow first requests keep
+ * counting.
+ *
+ * <p>Hedges sent, won and denied by the budget are exported as <code>store.hedge.*</code> meters
+ * per <code>call</code> tag.
+ *
+ * @author mohamed.taman
+ * @version v5.9
+ * @since v5.9
+ */
+@Component
+@Log4j2
+public class Hedging {
+
+  private final boolean enabled;
+  private final double percentile;
+  private final Duration minDelay;
+  private final long minSamples;
+  private final double tokensPerRequest;
+  private final double maxBurst;
+  private final MeterRegistry registry;
+  private final Map<String, Timer> latencies = new ConcurrentHashMap<>();
+  private double tokens;
+
+  @Autowired
+  public Hedging(
+      MeterRegistry registry,
+      @Value("${app.hedging.enabled:false}") boolean enabled,
+      @Value("${app.hedging.percentile:0.95}") double percentile,
+      @Value("${app.hedging.minDelayMs:50}") long minDelayMs,
+      @Value("${app.hedging.minSamples:20}") long minSamples,
+      @Value("${app.hedging.budgetPercent:10}") double budgetPercent,
+      @Value("${app.hedging.maxBurst:10}") double maxBurst) {
+
+    log.info(
+        "Hedging enabled: {}, percentile: {}, minDelayMs: {}, budgetPercent: {}",
+        enabled,
+        percentile,
+        minDelayMs,
+        budgetPercent);
+
+    this.registry = registry;
+    this.enabled = enabled;
+    this.percentile = percentile;
+    this.minDelay = Duration.ofMillis(minDelayMs);
+    this.minSamples = minSamples;
+    this.tokensPerRequest = budgetPercent / 100;
+    this.maxBurst = maxBurst;
+    this.tokens = maxBurst;
+  }
+
+  public <T> Flux<T> flux(String call, Supplier<Flux<T>> upstreamCall) {
+    if (!enabled) return Flux.defer(upstreamCall);
+
+    return Mono.defer(
+            () -> {
+              deposit();
+              var delay = hedgeDelay(call);
+              var start = System.nanoTime();
+
+              var primaryError = new AtomicReference<Throwable>();
+
+              // Cancelled by a winning hedge, it was at least that slow.
+              Mono<List<T>> primary =
+                  Flux.defer(upstreamCall)
+                      .collectList()
+                      .doFinally(
+                          signal -> {
+                            if (signal != SignalType.ON_ERROR) {
+                              record(call, System.nanoTime() - start);
+                            }
+                          })
+                      .onErrorResume(
+                          error -> !isAnswer(error),
+                          error -> {
+                            primaryError.set(error);
+                            return Mono.empty();
+                          });
+
+              // A failed or denied hedge completes empty, leaving the answer to the first request.
+              Mono<List<T>> hedge =
+                  Mono.delay(delay)
+                      .filter(tick -> withdraw(call))
+                      .flatMap(tick -> Flux.defer(upstreamCall).collectList())
+                      .doOnNext(items -> counter("store.hedge.won", call))
+                      .onErrorResume(
+                          error -> {
+                            log.debug("The hedge request of {} failed: {}", call, error.toString());
+                            return Mono.empty();
+                          });
+
+              return Flux.merge(primary, hedge)
+                  .next()
+                  .switchIfEmpty(Mono.defer(() -> Mono.error(primaryError.get())));
+            })
+        .flatMapIterable(items -> items);
+  }
+
+  private boolean isAnswer(Throwable error) {
+    return error instanceof WebClientResponseException wcre
+        && wcre.getStatusCode().is4xxClientError();
+  }
+
+  private Duration hedgeDelay(String call) {
+    var timer = latencies.get(call);
+    if (timer == null || timer.count() < minSamples) return minDelay;
+
+    ValueAtPercentile[] values = timer.takeSnapshot().percentileValues();
+    if (values.length == 0) return minDelay;
+
+    var delay = Duration.ofMillis((long) values[0].value(MILLISECONDS));
+    return delay.compareTo(minDelay) > 0 ? delay : minDelay;
+  }
+
+  private void record(String call, long elapsedNanos) {
+    latencies
+        .computeIfAbsent(
+            call,
+            name ->
+                Timer.builder("store.hedge.latency")
+                    .tag("call", name)
+                    .publishPercentiles(percentile)
+                    .register(registry))
+        .record(elapsedNanos, NANOSECONDS);
+  }
+
+  private synchronized void deposit() {
+    tokens = Math.min(maxBurst, tokens + tokensPerRequest);
+  }
+
+  private boolean withdraw(String call) {
+    synchronized (this) {
+      if (tokens < 1) {
+        counter("store.hedge.denied", call);
+        return false;
+      }
+      tokens -= 1;
+    }
+    log.debug("Sends a hedge request for: {}", call);
+    counter("store.hedge.sent", call);
+    return true;
+  }
+
+  private void counter(String name, String call) {
+    registry.counter(name, "call", call).increment();
+  }
+}
@@ -0,0 +1,14 @@
+package com.siriusxi.ms.store.pcs.integration;
+
+import com.siriusxi.ms.store.api.event.Event;
+import org.springframework.messaging.MessageChannel;
+
+/**
+ * Record <code>OutgoingEvent</code> that hold an event to be published, with the output binding
+ * and channel it is published to.
+ *
+ * @author mohamed.taman
+ * @version v5.9
+ * @since v5.9
+ */
+record OutgoingEvent(String binding, MessageChannel channel, Event<Integer, ?> event) {}
@@ -0,0 +1,103 @@
+package com.siriusxi.ms.store.pcs.integration;
+
+import com.siriusxi.ms.store.util.http.Deadlines;
+import com.siriusxi.ms.store.util.http.ReadYourWrites;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Class <code>SingleFlight</code> de-duplicates concurrent identical calls to the core services.
+ * The first caller of a key starts the upstream call, and every caller that comes while it is
+ * still in flight joins it, and gets all its items replayed.
+ *
+ * <p>Only the upstream call is shared, so whatever a caller adds on top of the returned publisher
+ * (timeout, retry, circuit breaker) still applies to this caller only. The upstream call is
+ * cancelled once all its callers have cancelled.
+ *
+ * <p>The upstream call runs with the reactor context of its first caller, so it is detached from
+ * the request deadline, which each caller applies on top of the returned publisher instead, and
+ * the callers that read their writes only share it with each other.
+ *
+ * <p>The fan-in ratio is <code>store.single-flight.requests</code> divided by <code>
+ * store.single-flight.upstream-calls</code>, per <code>call</code> tag.
+ *
+ * @author mohamed.taman
+ * @version v5.9
+ * @since v5.9
+ */
+@Component
+@Log4j2
+public class SingleFlight {
+
+  private final boolean enabled;
+  private final MeterRegistry registry;
+  private final Deadlines deadlines;
+  private final ReadYourWrites readYourWrites;
+  private final Map<String, Flux<?>> inFlight = new ConcurrentHashMap<>();
+
+  @Autowired
+  public SingleFlight(
+      MeterRegistry registry,
+      Deadlines deadlines,
+      ReadYourWrites readYourWrites,
+      @Value("${app.single-flight.enabled:true}") boolean enabled) {
+    this.registry = registry;
+    this.deadlines = deadlines;
+    this.readYourWrites = readYourWrites;
+    this.enabled = enabled;
+    registry.gaugeMapSize("store.single-flight.in-flight", Tags.empty(), inFlight);
+  }
+
+  public <T> Mono<T> mono(String call, Object key, Supplier<Mono<T>> upstreamCall) {
+    return flux(call, key, () -> upstreamCall.get().flux()).singleOrEmpty();
+  }
+
+  @SuppressWarnings("unchecked")
+  public <T> Flux<T> flux(String call, Object key, Supplier<Flux<T>> upstreamCall) {
+    if (!enabled) return Flux.defer(upstreamCall);
+
+    return readYourWrites
+        .requested()
+        .flatMapMany(
+            latest -> {
+              var flightKey = call + ":" + key + (latest ? ":latest" : "");
+              counter("store.single-flight.requests", call).increment();
+              return (Flux<T>)
+                  inFlight.computeIfAbsent(flightKey, k -> newFlight(call, k, upstreamCall));
+            });
+  }
+
+  private <T> Flux<T> newFlight(String call, String flightKey, Supplier<Flux<T>> upstreamCall) {
+
+    log.debug("Starts a new upstream call for: {}", flightKey);
+    counter("store.single-flight.upstream-calls", call).increment();
+
+    var flight = new AtomicReference<Flux<T>>();
+    flight.set(
+        deadlines
+            .detached(upstreamCall.get())
+            // Leave the map before the terminal signal is replayed, so a retry starts afresh.
+            .doOnTerminate(() -> inFlight.remove(flightKey, flight.get()))
+            .doOnCancel(() -> inFlight.remove(flightKey, flight.get()))
+            .replay()
+            .refCount());
+
+    return flight.get();
+  }
+
+  private Counter counter(String name, String call) {
+    return registry.counter(name, "call", call);
+  }
+}
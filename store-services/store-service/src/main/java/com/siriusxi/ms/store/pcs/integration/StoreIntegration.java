@@ -4,13 +4,19 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.siriusxi.ms.store.api.core.product.ProductService;
 import com.siriusxi.ms.store.api.core.product.dto.Product;
 import com.siriusxi.ms.store.api.core.recommendation.RecommendationService;
+import com.siriusxi.ms.store.api.core.recommendation.dto.RatingStats;
 import com.siriusxi.ms.store.api.core.recommendation.dto.Recommendation;
+import com.siriusxi.ms.store.api.core.recommendation.dto.RecommendationPage;
 import com.siriusxi.ms.store.api.core.review.ReviewService;
 import com.siriusxi.ms.store.api.core.review.dto.Review;
 import com.siriusxi.ms.store.api.event.Event;
+import com.siriusxi.ms.store.pcs.config.CoreServiceHttpClients;
+import com.siriusxi.ms.store.util.exceptions.DeadlineExceededException;
 import com.siriusxi.ms.store.util.exceptions.InvalidInputException;
 import com.siriusxi.ms.store.util.exceptions.NotFoundException;
+import com.siriusxi.ms.store.util.http.Deadlines;
 import com.siriusxi.ms.store.util.http.HttpErrorInfo;
+import com.siriusxi.ms.store.util.http.ReadYourWrites;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
 import lombok.extern.log4j.Log4j2;
@@ -18,6 +24,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.stream.annotation.EnableBinding;
 import org.springframework.cloud.stream.annotation.Output;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
@@ -28,13 +35,22 @@ import reactor.core.publisher.Mono;
 
 import java.io.IOException;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static com.siriusxi.ms.store.api.event.Event.Type.CREATE;
+import static com.siriusxi.ms.store.api.event.Event.Type.CREATE_ALL;
 import static com.siriusxi.ms.store.api.event.Event.Type.DELETE;
 import static com.siriusxi.ms.store.pcs.integration.StoreIntegration.MessageSources;
+import static com.siriusxi.ms.store.pcs.integration.StoreIntegration.MessageSources.OUTPUT_PRODUCTS;
+import static com.siriusxi.ms.store.pcs.integration.StoreIntegration.MessageSources.OUTPUT_RECOMMENDATIONS;
+import static com.siriusxi.ms.store.pcs.integration.StoreIntegration.MessageSources.OUTPUT_REVIEWS;
 import static java.lang.String.valueOf;
+import static java.util.stream.Collectors.joining;
+import static org.springframework.http.MediaType.APPLICATION_STREAM_JSON;
 import static org.springframework.integration.support.MessageBuilder.withPayload;
-import static reactor.core.publisher.Flux.empty;
 
 @EnableBinding(MessageSources.class)
 @Component
@@ -42,29 +58,60 @@ import static reactor.core.publisher.Flux.empty;
 public class StoreIntegration implements ProductService, RecommendationService, ReviewService {
 
   private final String PRODUCT_ID_QUERY_PARAM = "?productId=";
+  private final String PRODUCT_IDS_QUERY_PARAM = "?productIds=";
+  private static final String PRODUCT = "product";
+  private static final String RECOMMENDATION = "recommendation";
+  private static final String REVIEW = "review";
   private final WebClient.Builder webClientBuilder;
   private final ObjectMapper mapper;
   private final MessageSources messageSources;
+  private final SingleFlight singleFlight;
+  private final Hedging hedging;
+  private final EventCoalescer coalescer;
+  private final EventOutbox outbox;
+  private final EventPublisher publisher;
+  private final Deadlines deadlines;
+  private final ReadYourWrites readYourWrites;
   private final String productServiceUrl;
   private final String recommendationServiceUrl;
   private final String reviewServiceUrl;
   private final int productServiceTimeoutSec;
-  private WebClient webClient;
+  private final int publisherMaxInFlight;
+  private final CoreServiceHttpClients httpClients;
+  private final Map<String, WebClient> webClients = new ConcurrentHashMap<>();
 
   @Autowired
   public StoreIntegration(
           WebClient.Builder webClientBuilder,
           ObjectMapper mapper,
           MessageSources messageSources,
+          SingleFlight singleFlight,
+          Hedging hedging,
+          EventCoalescer coalescer,
+          EventOutbox outbox,
+          EventPublisher publisher,
+          Deadlines deadlines,
+          ReadYourWrites readYourWrites,
+          CoreServiceHttpClients httpClients,
           @Value("${app.product-service.host}") String productServiceHost,
           @Value("${app.recommendation-service.host}") String recommendationServiceHost,
           @Value("${app.review-service.host}") String reviewServiceHost,
-          @Value("${app.product-service.timeoutSec}") int productServiceTimeoutSec) {
+          @Value("${app.product-service.timeoutSec}") int productServiceTimeoutSec,
+          @Value("${app.event-publisher.maxInFlight:16}") int publisherMaxInFlight) {
 
     this.webClientBuilder = webClientBuilder;
     this.mapper = mapper;
     this.messageSources = messageSources;
+    this.singleFlight = singleFlight;
+    this.hedging = hedging;
+    this.coalescer = coalescer;
+    this.outbox = outbox;
+    this.publisher = publisher;
+    this.deadlines = deadlines;
+    this.readYourWrites = readYourWrites;
+    this.httpClients = httpClients;
     this.productServiceTimeoutSec = productServiceTimeoutSec;
+    this.publisherMaxInFlight = publisherMaxInFlight;
 
     var http = "http://";
 
@@ -76,9 +123,8 @@ public class StoreIntegration implements ProductService, RecommendationService,
   @Override
   public Product createProduct(Product body) {
     log.debug("Publishing a create event for a new product {}",body.toString());
-    messageSources
-            .outputProducts()
-            .send(withPayload(new Event<>(CREATE, body.getProductId(), body)).build());
+    publish(new OutgoingEvent(OUTPUT_PRODUCTS, messageSources.outputProducts(),
+            new Event<>(CREATE, body.getProductId(), body)));
     return body;
   }
 
@@ -95,28 +141,48 @@ public class StoreIntegration implements ProductService, RecommendationService,
 
     log.debug("Will call the getProduct API on URL: {}", url);
 
-    return getWebClient()
-            .get().uri(url)
-            .retrieve().bodyToMono(Product.class)
+    // Concurrent callers share the call, but the timeout and deadline apply to each one of them.
+    return singleFlight
+            .mono("product", url, () -> getWebClient(PRODUCT)
+                    .get().uri(url)
+                    .retrieve().bodyToMono(Product.class)
+                    .onErrorMap(WebClientResponseException.class, this::handleException))
+            .timeout(Duration.ofSeconds(productServiceTimeoutSec))
+            .transform(call -> deadlines.within("product", call));
+  }
+
+  @Retry(name = "product")
+  @CircuitBreaker(name = "product")
+  @Override
+  public Flux<Product> getProducts(List<Integer> productIds) {
+
+    var url = productServiceUrl
+            .concat("/products?ids=")
+            .concat(joinIds(productIds));
+
+    log.debug("Will call the getProducts API on URL: {}", url);
+
+    return getWebClient(PRODUCT)
+            .get().uri(url).accept(APPLICATION_STREAM_JSON)
+            .retrieve().bodyToFlux(Product.class)
             .onErrorMap(WebClientResponseException.class, this::handleException)
-            .timeout(Duration.ofSeconds(productServiceTimeoutSec));
+            .timeout(Duration.ofSeconds(productServiceTimeoutSec))
+            .transform(call -> deadlines.within("product", call));
   }
 
   @Override
   public void deleteProduct(int productId) {
     log.debug("Publishing a delete event for product id {}", productId);
-    messageSources
-            .outputProducts()
-            .send(withPayload(new Event<>(DELETE, productId, null)).build());
+    publish(new OutgoingEvent(OUTPUT_PRODUCTS, messageSources.outputProducts(),
+            new Event<>(DELETE, productId, null)));
   }
 
   @Override
   public Recommendation createRecommendation(Recommendation body) {
     log.debug("Publishing a create event for a new recommendation {}",body.toString());
 
-    messageSources
-            .outputRecommendations()
-            .send(withPayload(new Event<>(CREATE, body.getProductId(), body)).build());
+    publish(new OutgoingEvent(OUTPUT_RECOMMENDATIONS, messageSources.outputRecommendations(),
+            new Event<>(CREATE, body.getProductId(), body)));
 
     return body;
   }
@@ -131,30 +197,120 @@ public class StoreIntegration implements ProductService, RecommendationService,
 
     log.debug("Will call the getRecommendations API on URL: {}", url);
 
-    /* Return an empty result if something goes wrong to make it possible
-       for the composite service to return partial responses
+    /* Errors are propagated to the caller, it is up to the composite service
+       to turn them into a partial response.
     */
-    return getWebClient()
+    return singleFlight.flux("recommendations", productId, () ->
+            hedging.flux("recommendations", () -> getWebClient(RECOMMENDATION)
+                    .get()
+                    .uri(url)
+                    .retrieve()
+                    .bodyToFlux(Recommendation.class)
+                    .log()))
+            .transform(call -> deadlines.within("recommendations", call));
+  }
+
+  @Override
+  public Flux<Recommendation> getRecommendations(List<Integer> productIds) {
+
+    var url = recommendationServiceUrl
+            .concat("/recommendations")
+            .concat(PRODUCT_IDS_QUERY_PARAM)
+            .concat(joinIds(productIds));
+
+    log.debug("Will call the getRecommendations API on URL: {}", url);
+
+    return getWebClient(RECOMMENDATION)
             .get()
             .uri(url)
+            .accept(APPLICATION_STREAM_JSON)
             .retrieve()
             .bodyToFlux(Recommendation.class)
             .log()
-            .onErrorResume(error -> empty());
+            .transform(call -> deadlines.within("recommendations", call));
+  }
+
+  @Override
+  public Mono<RecommendationPage> getRecommendations(int productId, int after, int limit) {
+
+    var url = recommendationServiceUrl
+            .concat("/recommendations")
+            .concat(PRODUCT_ID_QUERY_PARAM)
+            .concat(valueOf(productId))
+            .concat("&after=")
+            .concat(valueOf(after))
+            .concat("&limit=")
+            .concat(valueOf(limit));
+
+    log.debug("Will call the getRecommendations API on URL: {}", url);
+
+    return singleFlight
+            .mono("recommendations", url, () -> getWebClient(RECOMMENDATION)
+                    .get()
+                    .uri(url)
+                    .retrieve()
+                    .bodyToMono(RecommendationPage.class)
+                    .log())
+            .transform(call -> deadlines.within("recommendations", call));
+  }
+
+  @Override
+  public Mono<RatingStats> getRatingStats(int productId) {
+
+    var url = recommendationServiceUrl
+            .concat("/recommendations/rating-stats")
+            .concat(PRODUCT_ID_QUERY_PARAM)
+            .concat(valueOf(productId));
+
+    log.debug("Will call the getRatingStats API on URL: {}", url);
+
+    return singleFlight
+            .mono("recommendations", url, () -> getWebClient(RECOMMENDATION)
+                    .get()
+                    .uri(url)
+                    .retrieve()
+                    .bodyToMono(RatingStats.class)
+                    .log())
+            .transform(call -> deadlines.within("recommendations", call));
+  }
+
+  /**
+   * Streams the product recommendations one by one, as they are decoded. Unlike <code>
+   * getRecommendations</code>, the call is neither coalesced nor hedged, since both keep the whole
+   * response in memory.
+   *
+   * @param productId of the recommendations.
+   * @return recommendations of the product.
+   * @since v5.9
+   */
+  public Flux<Recommendation> streamRecommendations(int productId) {
+
+    var url = recommendationServiceUrl
+            .concat("/recommendations")
+            .concat(PRODUCT_ID_QUERY_PARAM)
+            .concat(valueOf(productId));
+
+    log.debug("Will stream the getRecommendations API on URL: {}", url);
+
+    return getWebClient(RECOMMENDATION)
+            .get()
+            .uri(url)
+            .accept(APPLICATION_STREAM_JSON)
+            .retrieve()
+            .bodyToFlux(Recommendation.class)
+            .transform(call -> deadlines.within("recommendations", call));
   }
 
   @Override
   public void deleteRecommendations(int productId) {
-    messageSources
-            .outputRecommendations()
-            .send(withPayload(new Event<>(DELETE, productId, null)).build());
+    publish(new OutgoingEvent(OUTPUT_RECOMMENDATIONS, messageSources.outputRecommendations(),
+            new Event<>(DELETE, productId, null)));
   }
 
   @Override
   public Review createReview(Review body) {
-    messageSources
-            .outputReviews()
-            .send(withPayload(new Event<>(CREATE, body.getProductId(), body)).build());
+    publish(new OutgoingEvent(OUTPUT_REVIEWS, messageSources.outputReviews(),
+            new Event<>(CREATE, body.getProductId(), body)));
     return body;
   }
 
@@ -168,30 +324,178 @@ public class StoreIntegration implements ProductService, RecommendationService,
 
     log.debug("Will call the getReviews API on URL: {}", url);
 
-    /* Return an empty result if something goes wrong to make it possible
-       for the composite service to return partial responses
+    /* Errors are propagated to the caller, it is up to the composite service
+       to turn them into a partial response.
     */
-    return getWebClient()
+    return singleFlight.flux("reviews", productId, () ->
+            hedging.flux("reviews", () -> getWebClient(REVIEW)
+                    .get()
+                    .uri(url)
+                    .retrieve()
+                    .bodyToFlux(Review.class).log()))
+            .transform(call -> deadlines.within("reviews", call));
+
+  }
+
+  @Override
+  public Flux<Review> getReviews(List<Integer> productIds) {
+
+    var url = reviewServiceUrl
+            .concat("/reviews")
+            .concat(PRODUCT_IDS_QUERY_PARAM)
+            .concat(joinIds(productIds));
+
+    log.debug("Will call the getReviews API on URL: {}", url);
+
+    return getWebClient(REVIEW)
             .get()
             .uri(url)
+            .accept(APPLICATION_STREAM_JSON)
             .retrieve()
             .bodyToFlux(Review.class).log()
-            .onErrorResume(error -> empty());
+            .transform(call -> deadlines.within("reviews", call));
+  }
 
+  /**
+   * Streams the product reviews one by one, as they are decoded. Unlike <code>getReviews</code>,
+   * the call is neither coalesced nor hedged, since both keep the whole response in memory.
+   *
+   * @param productId of the reviews.
+   * @return reviews of the product.
+   * @since v5.9
+   */
+  public Flux<Review> streamReviews(int productId) {
+
+    var url = reviewServiceUrl
+            .concat("/reviews")
+            .concat(PRODUCT_ID_QUERY_PARAM)
+            .concat(valueOf(productId));
+
+    log.debug("Will stream the getReviews API on URL: {}", url);
+
+    return getWebClient(REVIEW)
+            .get()
+            .uri(url)
+            .accept(APPLICATION_STREAM_JSON)
+            .retrieve()
+            .bodyToFlux(Review.class)
+            .transform(call -> deadlines.within("reviews", call));
   }
 
   @Override
   public void deleteReviews(int productId) {
-    messageSources
-            .outputReviews()
-            .send(withPayload(new Event<>(DELETE, productId, null)).build());
+    publish(new OutgoingEvent(OUTPUT_REVIEWS, messageSources.outputReviews(),
+            new Event<>(DELETE, productId, null)));
   }
 
-  private WebClient getWebClient() {
-    if (webClient == null) {
-      webClient = webClientBuilder.build();
+  /**
+   * Publishes the create events of a composite product, without blocking the caller. At most
+   * <code>app.event-publisher.maxInFlight</code> events are being sent at a time. The
+   * recommendations, and the reviews, are sent as one CREATE_ALL event each, so the core services
+   * write them at once.
+   *
+   * @param product to be created.
+   * @param recommendations of the product.
+   * @param reviews of the product.
+   * @return completes once the broker has acknowledged all the events.
+   * @since v5.9
+   */
+  public Mono<Void> publishCreateEvents(
+          Product product, List<Recommendation> recommendations, List<Review> reviews) {
+
+    log.debug("Publishing the create events for the composite product: {}, with {} "
+                    + "recommendations and {} reviews",
+            product.getProductId(), recommendations.size(), reviews.size());
+
+    List<OutgoingEvent> events = new ArrayList<>();
+    events.add(new OutgoingEvent(OUTPUT_PRODUCTS, messageSources.outputProducts(),
+            new Event<>(CREATE, product.getProductId(), product)));
+    if (!recommendations.isEmpty()) {
+      events.add(new OutgoingEvent(OUTPUT_RECOMMENDATIONS, messageSources.outputRecommendations(),
+              new Event<>(CREATE_ALL, product.getProductId(), recommendations)));
+    }
+    if (!reviews.isEmpty()) {
+      events.add(new OutgoingEvent(OUTPUT_REVIEWS, messageSources.outputReviews(),
+              new Event<>(CREATE_ALL, product.getProductId(), reviews)));
     }
-    return webClient;
+
+    return coalescer.publish(events, this::publish);
+  }
+
+  /**
+   * Publishes the delete events of a composite product, without blocking the caller.
+   *
+   * @param productId to be deleted.
+   * @return completes once the broker has acknowledged all the events.
+   * @since v5.9
+   */
+  public Mono<Void> publishDeleteEvents(int productId) {
+
+    log.debug("Publishing the delete events for the composite product: {}", productId);
+
+    return coalescer.publish(List.of(
+            new OutgoingEvent(OUTPUT_PRODUCTS, messageSources.outputProducts(),
+                    new Event<>(DELETE, productId, null)),
+            new OutgoingEvent(OUTPUT_RECOMMENDATIONS, messageSources.outputRecommendations(),
+                    new Event<>(DELETE, productId, null)),
+            new OutgoingEvent(OUTPUT_REVIEWS, messageSources.outputReviews(),
+                    new Event<>(DELETE, productId, null))),
+            this::publish);
+  }
+
+  /*
+   A batch of coalesced events may delete and then re-create a product, so the delete events
+   are sent before the create events.
+  */
+  private Mono<Void> publish(List<OutgoingEvent> events) {
+    if (outbox.isEnabled()) {
+      return Mono.fromRunnable(() -> {
+        events.stream().filter(outgoing -> outgoing.event().getEventType() == DELETE)
+                .forEach(this::publish);
+        events.stream().filter(outgoing -> outgoing.event().getEventType() != DELETE)
+                .forEach(this::publish);
+      });
+    }
+
+    return Flux.fromIterable(events)
+            .filter(outgoing -> outgoing.event().getEventType() == DELETE)
+            .flatMap(publisher::publish, publisherMaxInFlight)
+            .thenMany(Flux.fromIterable(events)
+                    .filter(outgoing -> outgoing.event().getEventType() != DELETE)
+                    .flatMap(publisher::publish, publisherMaxInFlight))
+            .then();
+  }
+
+  /*
+   With the outbox, the event is appended to it, and relayed to the broker later on, so the
+   caller does not wait for the broker.
+  */
+  private void publish(OutgoingEvent outgoing) {
+    if (outbox.isEnabled()) {
+      outbox.append(outgoing.binding(), outgoing.event());
+    } else {
+      outgoing.channel().send(withPayload(outgoing.event()).build());
+    }
+  }
+
+  private String joinIds(List<Integer> productIds) {
+    return productIds.stream().map(String::valueOf).collect(joining(","));
+  }
+
+  private WebClient getWebClient(String target) {
+    /*
+     Each core service gets its own connection pool, and each call carries
+     the remaining request budget to the core service.
+    */
+    return webClients.computeIfAbsent(
+        target,
+        t ->
+            webClientBuilder
+                .clone()
+                .clientConnector(new ReactorClientHttpConnector(httpClients.create(t)))
+                .filter(deadlines.propagate())
+                .filter(readYourWrites.propagate())
+                .build());
   }
 
   private Throwable handleException(Throwable ex) {
@@ -203,6 +507,7 @@ public class StoreIntegration implements ProductService, RecommendationService,
     return switch (wcre.getStatusCode()) {
       case NOT_FOUND -> new NotFoundException(getErrorMessage(wcre));
       case UNPROCESSABLE_ENTITY -> new InvalidInputException(getErrorMessage(wcre));
+      case GATEWAY_TIMEOUT -> new DeadlineExceededException(getErrorMessage(wcre));
       default -> {
         log.warn("Got a unexpected HTTP error: {}, will rethrow it", wcre.getStatusCode());
         log.warn("Error body: {}", wcre.getResponseBodyAsString());
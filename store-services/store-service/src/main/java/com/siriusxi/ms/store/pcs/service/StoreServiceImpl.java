@@ -2,32 +2,57 @@ package com.siriusxi.ms.store.pcs.service;
 
 import com.siriusxi.ms.store.api.composite.StoreService;
 import com.siriusxi.ms.store.api.composite.dto.ProductAggregate;
+import com.siriusxi.ms.store.api.composite.dto.ProductAggregatePart;
+import com.siriusxi.ms.store.api.composite.dto.ProductAggregateResult;
+import com.siriusxi.ms.store.api.composite.dto.RatingSummary;
 import com.siriusxi.ms.store.api.composite.dto.RecommendationSummary;
 import com.siriusxi.ms.store.api.composite.dto.ReviewSummary;
 import com.siriusxi.ms.store.api.composite.dto.ServiceAddresses;
 import com.siriusxi.ms.store.api.core.product.dto.Product;
+import com.siriusxi.ms.store.api.core.recommendation.dto.RatingStats;
 import com.siriusxi.ms.store.api.core.recommendation.dto.Recommendation;
+import com.siriusxi.ms.store.api.core.recommendation.dto.RecommendationPage;
 import com.siriusxi.ms.store.api.core.review.dto.Review;
+import com.siriusxi.ms.store.pcs.cache.LastKnownGoodProducts;
+import com.siriusxi.ms.store.pcs.cache.ProductAggregateCache;
 import com.siriusxi.ms.store.pcs.integration.StoreIntegration;
-import com.siriusxi.ms.store.util.exceptions.NotFoundException;
+import com.siriusxi.ms.store.util.exceptions.DeadlineExceededException;
+import com.siriusxi.ms.store.util.exceptions.InvalidInputException;
+import com.siriusxi.ms.store.util.exceptions.ServiceUnavailableException;
+import com.siriusxi.ms.store.util.http.ReadYourWrites;
 import com.siriusxi.ms.store.util.http.ServiceUtil;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerOpenException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import io.github.resilience4j.reactor.retry.RetryExceptionWrapper;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextImpl;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.stereotype.Service;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 
+import static io.github.resilience4j.circuitbreaker.CircuitBreaker.State.CLOSED;
+import static io.github.resilience4j.circuitbreaker.CircuitBreaker.State.HALF_OPEN;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+import static org.springframework.http.HttpStatus.UNPROCESSABLE_ENTITY;
 import static org.springframework.security.core.context.ReactiveSecurityContextHolder.getContext;
 
 @Service("StoreServiceImpl")
@@ -36,66 +61,132 @@ public class StoreServiceImpl implements StoreService {
 
   private final ServiceUtil serviceUtil;
   private final StoreIntegration integration;
+  private final ProductAggregateCache cache;
+  private final LastKnownGoodProducts lastKnownGood;
+  private final ReadYourWrites readYourWrites;
+  private final CircuitBreakerRegistry circuitBreakerRegistry;
+  private final int batchMaxSize;
+  private final int recommendationsLimit;
+  private final boolean ratingSummaryEnabled;
+  private final int refreshMax;
   private final SecurityContext nullSC = new SecurityContextImpl();
 
   @Autowired
-  public StoreServiceImpl(ServiceUtil serviceUtil, StoreIntegration integration) {
+  public StoreServiceImpl(
+      ServiceUtil serviceUtil,
+      StoreIntegration integration,
+      ProductAggregateCache cache,
+      LastKnownGoodProducts lastKnownGood,
+      ReadYourWrites readYourWrites,
+      CircuitBreakerRegistry circuitBreakerRegistry,
+      @Value("${app.product-composite.batchMaxSize:50}") int batchMaxSize,
+      @Value("${app.product-composite.recommendationsLimit:0}") int recommendationsLimit,
+      @Value("${app.product-composite.ratingSummary:false}") boolean ratingSummaryEnabled,
+      @Value("${app.product-last-known-good.refreshMax:3}") int refreshMax) {
     this.serviceUtil = serviceUtil;
     this.integration = integration;
+    this.cache = cache;
+    this.lastKnownGood = lastKnownGood;
+    this.readYourWrites = readYourWrites;
+    this.circuitBreakerRegistry = circuitBreakerRegistry;
+    this.batchMaxSize = batchMaxSize;
+    this.recommendationsLimit = recommendationsLimit;
+    this.ratingSummaryEnabled = ratingSummaryEnabled;
+    this.refreshMax = refreshMax;
+
+    circuitBreakerRegistry
+        .circuitBreaker("product")
+        .getEventPublisher()
+        .onStateTransition(
+            event -> {
+              if (event.getStateTransition().getToState() == HALF_OPEN) refreshServedStale();
+            });
   }
 
   @Override
   public Mono<Void> createProduct(ProductAggregate body) {
-    return getContext().doOnSuccess(sc -> createProductImpl(sc, body)).then();
+    return getContext().defaultIfEmpty(nullSC).flatMap(sc -> createProductImpl(sc, body));
   }
 
-  private void createProductImpl(SecurityContext sc, ProductAggregate body) {
-    try {
+  private Mono<Void> createProductImpl(SecurityContext sc, ProductAggregate body) {
 
-      log.debug(
-          "createProduct: creates a new composite entity for productId: {}", body.productId());
+    log.debug("createProduct: creates a new composite entity for productId: {}", body.productId());
 
-      logAuthorizationInfo(sc);
+    logAuthorizationInfo(sc);
 
-      integration.createProduct(new Product(body.productId(), body.name(), body.weight(), null));
+    cache.evict(body.productId());
 
-      if (body.recommendations() != null && !body.recommendations().isEmpty()) {
-        body.recommendations()
-            .forEach(
-                r ->
-                    integration.createRecommendation(
+    List<Recommendation> recommendations =
+        body.recommendations() == null
+            ? List.of()
+            : body.recommendations().stream()
+                .map(
+                    r ->
                         new Recommendation(
                             body.productId(),
                             r.recommendationId(),
                             r.author(),
                             r.rate(),
                             r.content(),
-                            null)));
-      }
+                            null))
+                .collect(Collectors.toList());
 
-      if (body.reviews() != null && !body.reviews().isEmpty()) {
-        body.reviews()
-            .forEach(
-                r ->
-                    integration.createReview(
+    List<Review> reviews =
+        body.reviews() == null
+            ? List.of()
+            : body.reviews().stream()
+                .map(
+                    r ->
                         new Review(
                             body.productId(),
                             r.reviewId(),
                             r.author(),
                             r.subject(),
                             r.content(),
-                            null)));
-      }
-      log.debug("createProduct: composite entities created for productId: {}", body.productId());
+                            null))
+                .collect(Collectors.toList());
 
-    } catch (RuntimeException re) {
-      log.warn("createProduct failed: {}", re.toString());
-      throw re;
-    }
+    // Completes once the broker has acknowledged all the events of the composite.
+    return integration
+        .publishCreateEvents(
+            new Product(body.productId(), body.name(), body.weight(), null),
+            recommendations,
+            reviews)
+        .doOnSuccess(
+            v ->
+                log.debug(
+                    "createProduct: composite entities created for productId: {}",
+                    body.productId()))
+        .doOnError(ex -> log.warn("createProduct failed: {}", ex.toString()));
   }
 
   @Override
   public Mono<ProductAggregate> getProduct(int productId, int delay, int faultPercent) {
+
+    /*
+     Fault injection calls must reach the core services, and while the product circuit
+     breaker is not closed, calls must reach it too, so it can decide when to close again.
+    */
+    if (delay > 0 || faultPercent > 0 || !isProductCircuitClosed()) {
+      return getProductAggregate(productId, delay, faultPercent);
+    }
+
+    // A request that reads its writes skips the cache, as it may hold an older aggregate.
+    return readYourWrites
+        .requested()
+        .flatMap(
+            latest ->
+                latest ? Mono.<ProductAggregate>empty() : Mono.justOrEmpty(cache.get(productId)))
+        .switchIfEmpty(Mono.defer(() -> getProductAggregate(productId, delay, faultPercent)));
+  }
+
+  private Mono<ProductAggregate> getProductAggregate(int productId, int delay, int faultPercent) {
+
+    // A partial or stale response is served, but never cached.
+    var degraded = new AtomicBoolean(false);
+    var stale = new AtomicBoolean(false);
+    long stamp = cache.stamp();
+
     return Mono.zip(
             values ->
                 createProductAggregate(
@@ -103,54 +194,364 @@ public class StoreServiceImpl implements StoreService {
                     (Product) values[1],
                     (List<Recommendation>) values[2],
                     (List<Review>) values[3],
-                    serviceUtil.getServiceAddress()),
+                    ((Optional<RatingSummary>) values[4]).orElse(null),
+                    serviceUtil.getServiceAddress(),
+                    stale.get()),
             getContext().defaultIfEmpty(nullSC),
+            getProductOrStale(productId, delay, faultPercent, degraded, stale),
+            /* Return an empty result if something goes wrong to make it possible
+               for the composite service to return partial responses
+            */
+            recommendationsOf(productId)
+                    .onErrorResume(error -> markDegraded(degraded, error))
+                    .collectList(),
             integration
-                .getProduct(productId, delay, faultPercent)
-                    .onErrorMap(RetryExceptionWrapper.class, Throwable::getCause)
-                    .onErrorReturn(CircuitBreakerOpenException.class,
-                            getProductFallbackValue(productId)),
-            integration.getRecommendations(productId).collectList(),
-            integration.getReviews(productId).collectList())
+                .getReviews(productId)
+                    .onErrorResume(error -> markDegraded(degraded, error))
+                    .collectList(),
+            ratingSummaryOf(productId, degraded))
+        .doOnNext(aggregate -> {
+          if (!degraded.get() && !stale.get()) cache.put(aggregate, stamp);
+        })
         .doOnError(ex -> log.warn("getProduct failed: {}", ex.toString()))
         .log();
   }
 
-  @Override
-  public Mono<Void> deleteProduct(int productId) {
-    return getContext().doOnSuccess(sc -> deleteProductImpl(sc, productId)).then();
+  // With a limit set, the composite only holds the first page of the product recommendations.
+  private Flux<Recommendation> recommendationsOf(int productId) {
+    return recommendationsLimit > 0
+        ? integration
+            .getRecommendations(productId, 0, recommendationsLimit)
+            .flatMapIterable(RecommendationPage::recommendations)
+        : integration.getRecommendations(productId);
   }
 
-  private void deleteProductImpl(SecurityContext sc, int productId) {
-    try {
+  // The rating summary is optional, it is left out when disabled or when it cannot be fetched.
+  private Mono<Optional<RatingSummary>> ratingSummaryOf(int productId, AtomicBoolean degraded) {
 
-      log.debug("deleteProduct: Deletes a product aggregate for productId: {}", productId);
-      logAuthorizationInfo(sc);
+    if (!ratingSummaryEnabled) return Mono.just(Optional.empty());
+
+    return integration
+        .getRatingStats(productId)
+        .map(stats -> Optional.of(toRatingSummary(stats)))
+        .onErrorResume(error -> this.<Optional<RatingSummary>>markDegraded(degraded, error).next())
+        .defaultIfEmpty(Optional.empty());
+  }
 
-      integration.deleteProduct(productId);
-      integration.deleteRecommendations(productId);
-      integration.deleteReviews(productId);
+  // There is no batch read of the rating stats, so they are read per product, concurrently.
+  private Mono<Map<Integer, RatingSummary>> ratingSummariesOf(
+      List<Integer> productIds, AtomicBoolean degraded) {
 
-      log.debug("deleteProduct: aggregate entities deleted for productId: {}", productId);
+    if (!ratingSummaryEnabled) return Mono.just(Map.of());
 
-    } catch (RuntimeException re) {
-      log.warn("deleteProduct failed: {}", re.toString());
-      throw re;
+    return Flux.fromIterable(productIds)
+        .flatMap(
+            productId ->
+                ratingSummaryOf(productId, degraded)
+                    .filter(Optional::isPresent)
+                    .map(summary -> Map.entry(productId, summary.get())))
+        .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+  }
+
+  private RatingSummary toRatingSummary(RatingStats stats) {
+    return new RatingSummary(
+        stats.getCount(),
+        stats.getCount() == 0 ? 0 : (double) stats.getSum() / stats.getCount(),
+        stats.getMin(),
+        stats.getMax(),
+        stats.getHistogram());
+  }
+
+  /*
+   While the product circuit breaker is open, or the product service times out,
+   the last known good copy of the product is served, marked as stale.
+  */
+  private Mono<Product> getProductOrStale(
+      int productId, int delay, int faultPercent, AtomicBoolean degraded, AtomicBoolean stale) {
+
+    return integration
+        .getProduct(productId, delay, faultPercent)
+        .doOnNext(lastKnownGood::put)
+        .onErrorMap(RetryExceptionWrapper.class, Throwable::getCause)
+        .onErrorResume(
+            this::isProductUnavailable,
+            ex -> {
+              degraded.set(true);
+              stale.set(true);
+              return Mono.just(getStaleProduct(productId, ex));
+            });
+  }
+
+  // The batch counterpart of getProductOrStale, the products without a copy are left out.
+  private Mono<List<Product>> getProductsOrStale(
+      List<Integer> productIds, AtomicBoolean degraded, AtomicBoolean stale) {
+
+    return integration
+        .getProducts(productIds)
+        .doOnNext(lastKnownGood::put)
+        .onErrorMap(RetryExceptionWrapper.class, Throwable::getCause)
+        .collectList()
+        .onErrorResume(
+            this::isProductUnavailable,
+            ex -> {
+              log.warn("Serves the last known good products for productIds: {}, got: {}",
+                  productIds, ex.toString());
+              degraded.set(true);
+              stale.set(true);
+              return Mono.just(
+                  productIds.stream()
+                      .map(id -> lastKnownGood.getStale(id, serviceUtil.getServiceAddress()))
+                      .flatMap(Optional::stream)
+                      .collect(Collectors.toList()));
+            });
+  }
+
+  private boolean isProductUnavailable(Throwable ex) {
+    return ex instanceof CircuitBreakerOpenException
+        || ex instanceof TimeoutException
+        || ex instanceof DeadlineExceededException;
+  }
+
+  @Override
+  public Flux<ProductAggregatePart> getProductStream(int productId) {
+
+    // Streamed parts are never cached, so the degraded flag is only there for markDegraded.
+    var degraded = new AtomicBoolean(false);
+    var stale = new AtomicBoolean(false);
+
+    return getContext()
+        .defaultIfEmpty(nullSC)
+        .doOnNext(this::logAuthorizationInfo)
+        .then(getProductOrStale(productId, 0, 0, degraded, stale))
+        .flatMapMany(
+            product ->
+                Flux.concat(
+                    Mono.just(
+                        ProductAggregatePart.of(
+                            createProductAggregate(
+                                product,
+                                null,
+                                null,
+                                null,
+                                serviceUtil.getServiceAddress(),
+                                stale.get()))),
+                    Flux.merge(
+                        integration
+                            .streamRecommendations(productId)
+                            .map(
+                                r ->
+                                    ProductAggregatePart.of(
+                                        new RecommendationSummary(
+                                            r.getRecommendationId(),
+                                            r.getAuthor(),
+                                            r.getRate(),
+                                            r.getContent())))
+                            .onErrorResume(error -> markDegraded(degraded, error)),
+                        integration
+                            .streamReviews(productId)
+                            .map(
+                                r ->
+                                    ProductAggregatePart.of(
+                                        new ReviewSummary(
+                                            r.getReviewId(),
+                                            r.getAuthor(),
+                                            r.getSubject(),
+                                            r.getContent())))
+                            .onErrorResume(error -> markDegraded(degraded, error)))))
+        .doOnError(ex -> log.warn("getProductStream failed: {}", ex.toString()));
+  }
+
+  @Override
+  public Flux<ProductAggregateResult> getProducts(List<Integer> productIds) {
+
+    if (productIds.size() > batchMaxSize) {
+      throw new InvalidInputException(
+          "Too many product ids: " + productIds.size() + ", the maximum is: " + batchMaxSize);
     }
+
+    List<Integer> ids = productIds.stream().distinct().collect(Collectors.toList());
+
+    // A request that reads its writes skips the cache, as it may hold older aggregates.
+    return readYourWrites
+        .requested()
+        .flatMapMany(latest -> getProductResults(ids, !latest && isProductCircuitClosed()))
+        .doOnError(ex -> log.warn("getProducts failed: {}", ex.toString()));
+  }
+
+  private Flux<ProductAggregateResult> getProductResults(List<Integer> ids, boolean useCache) {
+
+    // Serve what we can from the cache, and fetch the rest with one call per core service.
+    var stale = new AtomicBoolean(false);
+    Map<Integer, ProductAggregate> cached = new HashMap<>();
+    List<Integer> idsToFetch = new ArrayList<>();
+    ids.stream()
+        .filter(id -> id > 0)
+        .forEach(
+            id ->
+                cache
+                    .get(id)
+                    .filter(aggregate -> useCache)
+                    .ifPresentOrElse(
+                        aggregate -> cached.put(id, aggregate), () -> idsToFetch.add(id)));
+
+    return getContext()
+        .defaultIfEmpty(nullSC)
+        .doOnNext(this::logAuthorizationInfo)
+        .then(idsToFetch.isEmpty() ? Mono.just(cached) : getProductAggregates(idsToFetch, stale))
+        .flatMapMany(
+            found ->
+                Flux.fromIterable(ids)
+                    .map(
+                        id ->
+                            createProductAggregateResult(
+                                id, cached.getOrDefault(id, found.get(id)), stale.get())));
   }
 
-  private Product getProductFallbackValue(int productId) {
+  private Mono<Map<Integer, ProductAggregate>> getProductAggregates(
+      List<Integer> productIds, AtomicBoolean stale) {
 
-    log.warn("Creating a fallback product for productId = {}", productId);
+    // A partial or stale batch is served, but never cached.
+    var degraded = new AtomicBoolean(false);
+    long stamp = cache.stamp();
 
-    if (productId == 14) {
-      String errMsg = "Product Id: " + productId + " not found in fallback cache!";
-      log.warn(errMsg);
-      throw new NotFoundException(errMsg);
+    return Mono.zip(
+            getProductsOrStale(productIds, degraded, stale),
+            integration
+                .getRecommendations(productIds)
+                .onErrorResume(error -> markDegraded(degraded, error))
+                .collectMultimap(Recommendation::getProductId),
+            integration
+                .getReviews(productIds)
+                .onErrorResume(error -> markDegraded(degraded, error))
+                .collectMultimap(Review::getProductId),
+            ratingSummariesOf(productIds, degraded))
+        .map(
+            tuple -> {
+              Map<Integer, ProductAggregate> aggregates = new HashMap<>();
+              tuple.getT1()
+                  .forEach(
+                      product -> {
+                        var aggregate =
+                            createProductAggregate(
+                                product,
+                                firstPageOf(tuple.getT2().get(product.getProductId())),
+                                toListOrEmpty(tuple.getT3().get(product.getProductId())),
+                                tuple.getT4().get(product.getProductId()),
+                                serviceUtil.getServiceAddress(),
+                                stale.get());
+
+                        if (!degraded.get()) cache.put(aggregate, stamp);
+                        aggregates.put(aggregate.productId(), aggregate);
+                      });
+              return aggregates;
+            });
+  }
+
+  private ProductAggregateResult createProductAggregateResult(
+      int productId, ProductAggregate aggregate, boolean stale) {
+
+    if (productId < 1) {
+      return ProductAggregateResult.failed(
+          productId, UNPROCESSABLE_ENTITY.value(), "Invalid productId: " + productId);
     }
 
-    return new Product(
-        productId, "Fallback product" + productId, productId, serviceUtil.getServiceAddress());
+    if (aggregate != null) return ProductAggregateResult.found(aggregate);
+
+    // Once the batch is served stale, a missing product is one without a last known good copy.
+    return stale
+        ? ProductAggregateResult.failed(
+            productId,
+            SERVICE_UNAVAILABLE.value(),
+            "Product Id: " + productId + " is unavailable, and has no last known good copy")
+        : ProductAggregateResult.failed(
+            productId, NOT_FOUND.value(), "No product found for productId: " + productId);
+  }
+
+  /*
+   With a limit set, the batch keeps the first page of the recommendations of each product, as
+   getProduct does, so both cache the same aggregate. The batch read has no limit, so all the
+   recommendations are still fetched; they come sorted by recommendation id, as a page does.
+  */
+  private List<Recommendation> firstPageOf(Collection<Recommendation> recommendations) {
+    List<Recommendation> all = toListOrEmpty(recommendations);
+    return recommendationsLimit > 0 && all.size() > recommendationsLimit
+        ? new ArrayList<>(all.subList(0, recommendationsLimit))
+        : all;
+  }
+
+  private <T> List<T> toListOrEmpty(Collection<T> items) {
+    return items == null ? new ArrayList<>() : new ArrayList<>(items);
+  }
+
+  private <T> Flux<T> markDegraded(AtomicBoolean degraded, Throwable error) {
+    log.warn("Returns a partial response, got: {}", error.toString());
+    degraded.set(true);
+    return Flux.empty();
+  }
+
+  private boolean isProductCircuitClosed() {
+    return circuitBreakerRegistry.circuitBreaker("product").getState() == CLOSED;
+  }
+
+  @Override
+  public Mono<Void> deleteProduct(int productId) {
+    return getContext().defaultIfEmpty(nullSC).flatMap(sc -> deleteProductImpl(sc, productId));
+  }
+
+  private Mono<Void> deleteProductImpl(SecurityContext sc, int productId) {
+
+    log.debug("deleteProduct: Deletes a product aggregate for productId: {}", productId);
+    logAuthorizationInfo(sc);
+
+    cache.evict(productId);
+    lastKnownGood.evict(productId);
+
+    return integration
+        .publishDeleteEvents(productId)
+        .doOnSuccess(
+            v ->
+                log.debug(
+                    "deleteProduct: aggregate entities deleted for productId: {}", productId))
+        .doOnError(ex -> log.warn("deleteProduct failed: {}", ex.toString()));
+  }
+
+  private Product getStaleProduct(int productId, Throwable error) {
+
+    log.warn("Serves the last known good product for productId: {}, got: {}", productId,
+        error.toString());
+
+    return lastKnownGood
+        .getStale(productId, serviceUtil.getServiceAddress())
+        .orElseThrow(
+            () ->
+                new ServiceUnavailableException(
+                    "Product Id: "
+                        + productId
+                        + " is unavailable, and has no last known good copy"));
+  }
+
+  /*
+   Once the product circuit breaker lets calls through again, the products served stale
+   are refreshed in the background, the refresh calls being some of the trial calls.
+  */
+  private void refreshServedStale() {
+    var ids = lastKnownGood.takeServedStale(refreshMax);
+    if (ids.isEmpty()) return;
+
+    log.info("Refreshes the products served stale: {}", ids);
+
+    Flux.fromIterable(ids)
+        .concatMap(
+            id ->
+                integration
+                    .getProduct(id, 0, 0)
+                    .doOnNext(lastKnownGood::put)
+                    .onErrorResume(
+                        error -> {
+                          log.debug("Refresh of productId: {} failed: {}", id, error.toString());
+                          return Mono.empty();
+                        }))
+        .subscribe();
   }
 
   private ProductAggregate createProductAggregate(
@@ -158,10 +559,24 @@ public class StoreServiceImpl implements StoreService {
       Product product,
       List<Recommendation> recommendations,
       List<Review> reviews,
-      String serviceAddress) {
+      RatingSummary ratingSummary,
+      String serviceAddress,
+      boolean stale) {
 
     logAuthorizationInfo(sc);
 
+    return createProductAggregate(
+        product, recommendations, reviews, ratingSummary, serviceAddress, stale);
+  }
+
+  private ProductAggregate createProductAggregate(
+      Product product,
+      List<Recommendation> recommendations,
+      List<Review> reviews,
+      RatingSummary ratingSummary,
+      String serviceAddress,
+      boolean stale) {
+
     // 1. Setup product info
     int productId = product.getProductId();
     String name = product.getName();
@@ -201,7 +616,14 @@ public class StoreServiceImpl implements StoreService {
         new ServiceAddresses(serviceAddress, productAddress, reviewAddress, recommendationAddress);
 
     return new ProductAggregate(
-        productId, name, weight, recommendationSummaries, reviewSummaries, serviceAddresses);
+        productId,
+        name,
+        weight,
+        recommendationSummaries,
+        reviewSummaries,
+        ratingSummary,
+        serviceAddresses,
+        stale);
   }
 
   /*
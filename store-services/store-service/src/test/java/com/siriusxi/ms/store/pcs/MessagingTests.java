@@ -18,9 +18,11 @@ import org.springframework.messaging.MessageChannel;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
 
 import static com.siriusxi.ms.store.api.event.Event.Type.CREATE;
+import static com.siriusxi.ms.store.api.event.Event.Type.CREATE_ALL;
 import static com.siriusxi.ms.store.api.event.Event.Type.DELETE;
 import static com.siriusxi.ms.store.pcs.IsSameEvent.sameEventExceptCreatedAt;
 import static java.lang.String.valueOf;
@@ -67,7 +69,7 @@ class MessagingTests {
   @Test
   public void createCompositeProduct1() {
 
-    ProductAggregate composite = new ProductAggregate(1, "name", 1, null, null, null);
+    ProductAggregate composite = new ProductAggregate(1, "name", 1, null, null, null, null, false);
     postAndVerifyProduct(composite);
 
     // Assert one expected new product events queued up
@@ -95,7 +97,9 @@ class MessagingTests {
             1,
             singletonList(new RecommendationSummary(1, "a", 1, "c")),
             singletonList(new ReviewSummary(1, "a", "s", "c")),
-            null);
+            null,
+            null,
+            false);
 
     postAndVerifyProduct(composite);
 
@@ -109,40 +113,42 @@ class MessagingTests {
             new Product(composite.productId(), composite.name(), composite.weight(), null));
     assertThat(queueProducts, receivesPayloadThat(sameEventExceptCreatedAt(expectedProductEvent)));
 
-    // Assert one create recommendation event queued up
+    // Assert one create all recommendations event queued up
     assertEquals(1, queueRecommendations.size());
 
     RecommendationSummary rec = composite.recommendations().get(0);
-    Event<Integer, Recommendation> expectedRecommendationEvent =
+    Event<Integer, List<Recommendation>> expectedRecommendationEvent =
         new Event<>(
-            CREATE,
+            CREATE_ALL,
             composite.productId(),
-            new Recommendation(
-                composite.productId(),
-                rec.recommendationId(),
-                rec.author(),
-                rec.rate(),
-                rec.content(),
-                null));
+            singletonList(
+                new Recommendation(
+                    composite.productId(),
+                    rec.recommendationId(),
+                    rec.author(),
+                    rec.rate(),
+                    rec.content(),
+                    null)));
     assertThat(
         queueRecommendations,
         receivesPayloadThat(sameEventExceptCreatedAt(expectedRecommendationEvent)));
 
-    // Assert one create review event queued up
+    // Assert one create all reviews event queued up
     assertEquals(1, queueReviews.size());
 
     ReviewSummary rev = composite.reviews().get(0);
-    Event<Integer, Review> expectedReviewEvent =
+    Event<Integer, List<Review>> expectedReviewEvent =
         new Event<>(
-            CREATE,
+            CREATE_ALL,
             composite.productId(),
-            new Review(
-                composite.productId(),
-                rev.reviewId(),
-                rev.author(),
-                rev.subject(),
-                rev.content(),
-                null));
+            singletonList(
+                new Review(
+                    composite.productId(),
+                    rev.reviewId(),
+                    rev.author(),
+                    rev.subject(),
+                    rev.content(),
+                    null)));
 
     assertThat(queueReviews, receivesPayloadThat(sameEventExceptCreatedAt(expectedReviewEvent)));
   }
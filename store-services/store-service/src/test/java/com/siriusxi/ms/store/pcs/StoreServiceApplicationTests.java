@@ -3,27 +3,43 @@ package com.siriusxi.ms.store.pcs;
 import com.siriusxi.ms.store.api.core.product.dto.Product;
 import com.siriusxi.ms.store.api.core.recommendation.dto.Recommendation;
 import com.siriusxi.ms.store.api.core.review.dto.Review;
+import com.siriusxi.ms.store.api.event.Event;
+import com.siriusxi.ms.store.pcs.cache.ProductAggregateCache;
+import com.siriusxi.ms.store.pcs.infra.CacheInvalidationProcessor.MessageSinks;
 import com.siriusxi.ms.store.pcs.integration.StoreIntegration;
 import com.siriusxi.ms.store.util.exceptions.InvalidInputException;
 import com.siriusxi.ms.store.util.exceptions.NotFoundException;
+import com.siriusxi.ms.store.util.http.ReadYourWrites;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.HttpStatus;
+import org.springframework.messaging.support.GenericMessage;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import org.springframework.test.web.reactive.server.WebTestClient.BodyContentSpec;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static com.siriusxi.ms.store.api.event.Event.Type.DELETE;
 import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
 import static org.springframework.http.HttpStatus.*;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.http.MediaType.TEXT_EVENT_STREAM;
 
 @SpringBootTest(
     webEnvironment = RANDOM_PORT,
@@ -37,11 +53,13 @@ import static org.springframework.http.MediaType.APPLICATION_JSON;
       "spring.main.allow-bean-definition-overriding: true",
       "eureka.client.enabled: false",
       "spring.cloud.config.enabled: false",
-      "server.error.include-message: always"
+      "server.error.include-message: always",
+      "app.product-aggregate-cache.invalidationDelayMs: 200"
     })
 class StoreServiceApplicationTests {
 
   public static final String BASE_URL = "/store/api/v1/products/";
+  public static final String BATCH_URL = "/store/api/v1/products?ids=";
   private static final int PRODUCT_ID_OK = 1;
   private static final int PRODUCT_ID_NOT_FOUND = 2;
   private static final int PRODUCT_ID_INVALID = 3;
@@ -50,9 +68,15 @@ class StoreServiceApplicationTests {
 
   @MockBean private StoreIntegration storeIntegration;
 
+  @Autowired private ProductAggregateCache cache;
+
+  @Autowired private MessageSinks cacheChannels;
+
   @BeforeEach
   void setUp() {
 
+    cache.clear();
+
     when(storeIntegration.getProduct(eq(PRODUCT_ID_OK), anyInt(), anyInt()))
         .thenReturn(Mono.just(new Product(PRODUCT_ID_OK, "name", 1, "mock-address")));
 
@@ -68,6 +92,29 @@ class StoreServiceApplicationTests {
                 singletonList(
                     new Review(PRODUCT_ID_OK, 1, "author", "subject", "content", "mock address"))));
 
+    when(storeIntegration.streamRecommendations(PRODUCT_ID_OK))
+        .thenReturn(
+            Flux.just(
+                new Recommendation(PRODUCT_ID_OK, 1, "author", 1, "content", "mock address")));
+
+    when(storeIntegration.streamReviews(PRODUCT_ID_OK))
+        .thenReturn(
+            Flux.just(
+                new Review(PRODUCT_ID_OK, 1, "author", "subject", "content", "mock address")));
+
+    when(storeIntegration.getProducts(anyList()))
+        .thenReturn(Flux.just(new Product(PRODUCT_ID_OK, "name", 1, "mock-address")));
+
+    when(storeIntegration.getRecommendations(anyList()))
+        .thenReturn(
+            Flux.just(
+                new Recommendation(PRODUCT_ID_OK, 1, "author", 1, "content", "mock address")));
+
+    when(storeIntegration.getReviews(anyList()))
+        .thenReturn(
+            Flux.just(
+                new Review(PRODUCT_ID_OK, 1, "author", "subject", "content", "mock address")));
+
     when(storeIntegration.getProduct(eq(PRODUCT_ID_NOT_FOUND), anyInt(), anyInt()))
         .thenThrow(new NotFoundException("NOT FOUND: " + PRODUCT_ID_NOT_FOUND));
 
@@ -87,6 +134,68 @@ class StoreServiceApplicationTests {
         .isEqualTo(1);
   }
 
+  @Test
+  public void getProductFromCache() {
+
+    getAndVerifyProduct(PRODUCT_ID_OK, OK).jsonPath("$.productId").isEqualTo(PRODUCT_ID_OK);
+    getAndVerifyProduct(PRODUCT_ID_OK, OK).jsonPath("$.productId").isEqualTo(PRODUCT_ID_OK);
+
+    // The second call, at least, must be served from the product aggregate cache.
+    verify(storeIntegration, atMost(1)).getProduct(eq(PRODUCT_ID_OK), anyInt(), anyInt());
+  }
+
+  @Test
+  public void evictsTheProductAgainOnceTheEventIsWritten() throws InterruptedException {
+
+    getAndVerifyProduct(PRODUCT_ID_OK, OK);
+    var aggregate = cache.get(PRODUCT_ID_OK).orElseThrow();
+
+    cacheChannels
+        .inputProducts()
+        .send(new GenericMessage<>(new Event<>(DELETE, PRODUCT_ID_OK, null)));
+    assertTrue(cache.get(PRODUCT_ID_OK).isEmpty());
+
+    // A read that started before the eviction does not cache what it read.
+    long stamp = cache.stamp();
+    cacheChannels
+        .inputProducts()
+        .send(new GenericMessage<>(new Event<>(DELETE, PRODUCT_ID_OK, null)));
+    cache.put(aggregate, stamp);
+    assertTrue(cache.get(PRODUCT_ID_OK).isEmpty());
+
+    // A read between the eviction and the write of the event caches the old aggregate again.
+    cache.put(aggregate, cache.stamp());
+    assertTrue(cache.get(PRODUCT_ID_OK).isPresent());
+
+    for (int polls = 0; polls < 50 && cache.get(PRODUCT_ID_OK).isPresent(); polls++) {
+      TimeUnit.MILLISECONDS.sleep(100);
+    }
+    assertTrue(cache.get(PRODUCT_ID_OK).isEmpty());
+  }
+
+  @Test
+  public void getStaleProductOnTimeout() {
+
+    getAndVerifyProduct(PRODUCT_ID_OK, OK).jsonPath("$.stale").isEqualTo(false);
+
+    when(storeIntegration.getProduct(eq(PRODUCT_ID_OK), eq(3), anyInt()))
+        .thenReturn(Mono.error(new TimeoutException("Timeout")));
+
+    // The product service times out, so its last known good copy is served.
+    client
+        .get()
+        .uri(BASE_URL + PRODUCT_ID_OK + "?delay=3")
+        .accept(APPLICATION_JSON)
+        .exchange()
+        .expectStatus()
+        .isEqualTo(OK)
+        .expectBody()
+        .jsonPath("$.name")
+        .isEqualTo("name")
+        .jsonPath("$.stale")
+        .isEqualTo(true);
+  }
+
   @Test
   public void getProductNotFound() {
 
@@ -107,6 +216,83 @@ class StoreServiceApplicationTests {
         .isEqualTo("INVALID: " + PRODUCT_ID_INVALID);
   }
 
+  @Test
+  public void getProductsByIds() {
+
+    client
+        .get()
+        .uri(BATCH_URL + PRODUCT_ID_OK + "," + PRODUCT_ID_NOT_FOUND + ",-1")
+        .accept(APPLICATION_JSON)
+        .exchange()
+        .expectStatus()
+        .isEqualTo(OK)
+        .expectHeader()
+        .contentType(APPLICATION_JSON)
+        .expectBody()
+        .jsonPath("$.length()")
+        .isEqualTo(3)
+        .jsonPath("$[0].productId")
+        .isEqualTo(PRODUCT_ID_OK)
+        .jsonPath("$[0].status")
+        .isEqualTo(OK.value())
+        .jsonPath("$[0].product.recommendations.length()")
+        .isEqualTo(1)
+        .jsonPath("$[1].productId")
+        .isEqualTo(PRODUCT_ID_NOT_FOUND)
+        .jsonPath("$[1].status")
+        .isEqualTo(NOT_FOUND.value())
+        .jsonPath("$[2].status")
+        .isEqualTo(UNPROCESSABLE_ENTITY.value());
+  }
+
+  @Test
+  public void getProductsReadingTheirWritesSkipTheCache() {
+
+    getAndVerifyProducts(false).jsonPath("$[0].product.name").isEqualTo("name");
+
+    when(storeIntegration.getProducts(anyList()))
+        .thenReturn(Flux.just(new Product(PRODUCT_ID_OK, "new name", 1, "mock-address")));
+
+    getAndVerifyProducts(false).jsonPath("$[0].product.name").isEqualTo("name");
+    getAndVerifyProducts(true).jsonPath("$[0].product.name").isEqualTo("new name");
+  }
+
+  @Test
+  public void getProductStream() {
+
+    var parts =
+        client
+            .get()
+            .uri(BASE_URL + PRODUCT_ID_OK + "/stream")
+            .accept(TEXT_EVENT_STREAM)
+            .exchange()
+            .expectStatus()
+            .isEqualTo(OK)
+            .returnResult(String.class)
+            .getResponseBody()
+            .collectList()
+            .block();
+
+    // The product header comes first, then one part per recommendation and review.
+    assertNotNull(parts);
+    assertEquals(3, parts.size());
+    assertTrue(parts.get(0).contains("\"type\":\"PRODUCT\""));
+    assertTrue(parts.stream().anyMatch(part -> part.contains("\"type\":\"RECOMMENDATION\"")));
+    assertTrue(parts.stream().anyMatch(part -> part.contains("\"type\":\"REVIEW\"")));
+  }
+
+  private BodyContentSpec getAndVerifyProducts(boolean readYourWrites) {
+    return client
+        .get()
+        .uri(BATCH_URL + PRODUCT_ID_OK)
+        .header(ReadYourWrites.HEADER, String.valueOf(readYourWrites))
+        .accept(APPLICATION_JSON)
+        .exchange()
+        .expectStatus()
+        .isEqualTo(OK)
+        .expectBody();
+  }
+
   private BodyContentSpec getAndVerifyProduct(int productId, HttpStatus expectedStatus) {
     return client
         .get()
@@ -0,0 +1,94 @@
+package com.siriusxi.ms.store.pcs.integration;
+
+import com.siriusxi.ms.store.api.core.product.dto.Product;
+import com.siriusxi.ms.store.api.event.Event;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static com.siriusxi.ms.store.api.event.Event.Type.CREATE;
+import static com.siriusxi.ms.store.api.event.Event.Type.DELETE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
+
+class EventCoalescerTests {
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final EventCoalescer coalescer = new EventCoalescer(registry, true, 50, 3);
+  private final List<List<OutgoingEvent>> batches = new ArrayList<>();
+
+  @Test
+  public void createThenDeleteIsOnlyDeleted() {
+
+    Mono.when(
+            coalescer.publish(List.of(event(CREATE, 1), event(CREATE, 2)), this::record),
+            coalescer.publish(List.of(event(DELETE, 1)), this::record))
+        .block();
+
+    assertThat(batches).hasSize(1);
+    assertThat(batches.get(0))
+        .extracting(
+            outgoing -> outgoing.event().getEventType(), outgoing -> outgoing.event().getKey())
+        .containsExactly(tuple(DELETE, 1), tuple(CREATE, 2));
+
+    assertThat(registry.counter("store.event-coalescer.eliminated", "binding", "products").count())
+        .isEqualTo(1);
+  }
+
+  @Test
+  public void deleteThenCreateKeepsBoth() {
+
+    Mono.when(
+            coalescer.publish(List.of(event(DELETE, 1)), this::record),
+            coalescer.publish(List.of(event(CREATE, 1)), this::record))
+        .block();
+
+    assertThat(batches).hasSize(1);
+    assertThat(batches.get(0))
+        .extracting(outgoing -> outgoing.event().getEventType())
+        .containsExactly(DELETE, CREATE);
+  }
+
+  @Test
+  public void fullWindowIsPublishedEarly() {
+
+    var slow = new EventCoalescer(registry, true, 60_000, 3);
+
+    Mono.when(
+            slow.publish(List.of(event(CREATE, 1), event(CREATE, 2)), this::record),
+            slow.publish(List.of(event(CREATE, 3)), this::record))
+        .block(Duration.ofSeconds(5));
+
+    assertThat(batches).hasSize(1);
+    assertThat(batches.get(0)).hasSize(3);
+  }
+
+  @Test
+  public void publisherThrowingFailsTheCallers() {
+
+    Function<List<OutgoingEvent>, Mono<Void>> throwing =
+        events -> {
+          throw new IllegalStateException("Broker is down");
+        };
+
+    StepVerifier.create(coalescer.publish(List.of(event(CREATE, 1)), throwing))
+        .expectErrorMessage("Broker is down")
+        .verify(Duration.ofSeconds(5));
+  }
+
+  private Mono<Void> record(List<OutgoingEvent> events) {
+    batches.add(events);
+    return Mono.empty();
+  }
+
+  private OutgoingEvent event(Event.Type type, int productId) {
+    var product = type == CREATE ? new Product(productId, "n", 1, null) : null;
+    return new OutgoingEvent("products", null, new Event<>(type, productId, product));
+  }
+}
@@ -0,0 +1,148 @@
+package com.siriusxi.ms.store.pcs.integration;
+
+import com.siriusxi.ms.store.api.core.product.dto.Product;
+import com.siriusxi.ms.store.api.event.Event;
+import com.siriusxi.ms.store.util.messaging.EventCodec;
+import com.siriusxi.ms.store.util.messaging.PayloadCodec;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.siriusxi.ms.store.api.event.Event.Type.CREATE;
+import static com.siriusxi.ms.store.api.event.Event.Type.DELETE;
+import static com.siriusxi.ms.store.pcs.integration.StoreIntegration.MessageSources;
+import static com.siriusxi.ms.store.pcs.integration.StoreIntegration.MessageSources.OUTPUT_PRODUCTS;
+import static com.siriusxi.ms.store.util.messaging.StorePayloadCodecs.PRODUCT;
+import static com.siriusxi.ms.store.util.messaging.StorePayloadCodecs.RECOMMENDATION;
+import static com.siriusxi.ms.store.util.messaging.StorePayloadCodecs.REVIEW;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
+import static org.springframework.amqp.support.AmqpHeaders.PUBLISH_CONFIRM_CORRELATION;
+
+class EventOutboxTests {
+
+  private final QueueChannel products = new QueueChannel();
+  private final EventCodec codec =
+      new EventCodec(List.<PayloadCodec<?>>of(PRODUCT, RECOMMENDATION, REVIEW));
+  private final List<EventOutbox> outboxes = new ArrayList<>();
+  private final AtomicInteger sends = new AtomicInteger();
+  private final AtomicInteger nackAt = new AtomicInteger();
+
+  @TempDir Path directory;
+
+  @AfterEach
+  public void tearDown() {
+    outboxes.forEach(EventOutbox::destroy);
+  }
+
+  @Test
+  public void relaysTheEventsInOrderAcrossSegments() {
+
+    var outbox = outbox();
+    for (int productId = 1; productId <= 10; productId++) {
+      outbox.append(OUTPUT_PRODUCTS, new Event<>(CREATE, productId, product(productId)));
+    }
+    outbox.append(OUTPUT_PRODUCTS, new Event<>(DELETE, 1, null));
+
+    outbox.start();
+
+    assertThat(received(11))
+        .extracting(Event::getEventType, Event::getKey)
+        .startsWith(tuple(CREATE, 1), tuple(CREATE, 2))
+        .endsWith(tuple(CREATE, 10), tuple(DELETE, 1));
+    assertThat(directory.toFile().list((dir, name) -> name.endsWith(".segment"))).hasSize(1);
+  }
+
+  @Test
+  public void relaysTheEventsLeftAfterARestart() {
+
+    var before = outbox();
+    before.append(OUTPUT_PRODUCTS, new Event<>(CREATE, 1, product(1)));
+    before.append(OUTPUT_PRODUCTS, new Event<>(CREATE, 2, product(2)));
+    before.destroy();
+
+    var after = outbox();
+    after.append(OUTPUT_PRODUCTS, new Event<>(CREATE, 3, product(3)));
+    after.start();
+
+    assertThat(received(3)).extracting(Event::getKey).containsExactly(1, 2, 3);
+  }
+
+  @Test
+  public void sendsAgainOnlyTheEventsNotConfirmed() {
+
+    var outbox = outbox(true);
+    for (int productId = 1; productId <= 3; productId++) {
+      outbox.append(OUTPUT_PRODUCTS, new Event<>(CREATE, productId, product(productId)));
+    }
+    nackAt.set(3);
+
+    outbox.start();
+
+    assertThat(received(4)).extracting(Event::getKey).containsExactly(1, 2, 3, 3);
+    assertThat(products.receive(200)).isNull();
+  }
+
+  private EventOutbox outbox() {
+    return outbox(false);
+  }
+
+  private EventOutbox outbox(boolean confirms) {
+    // Segments of 256 bytes hold a few events each.
+    var outbox =
+        new EventOutbox(
+            new Sources(), codec, new EventPublisher(5000, confirms), new SimpleMeterRegistry(),
+            true, directory.toString(), 256, 4, 10, false);
+    outboxes.add(outbox);
+    return outbox;
+  }
+
+  private List<Event<?, ?>> received(int count) {
+    List<Event<?, ?>> events = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      Message<?> message = products.receive(5000);
+      assertThat(message).isNotNull();
+      events.add((Event<?, ?>) message.getPayload());
+    }
+    return events;
+  }
+
+  private Product product(int productId) {
+    return new Product(productId, "name-" + productId, productId, "sa");
+  }
+
+  private class Sources implements MessageSources {
+
+    /** Confirms the sent events, but the nackAt-th one, as a broker would. */
+    @Override
+    public MessageChannel outputProducts() {
+      return (message, timeout) -> {
+        boolean ack = sends.incrementAndGet() != nackAt.get();
+        if (message.getHeaders().get(PUBLISH_CONFIRM_CORRELATION) instanceof CorrelationData c) {
+          c.getFuture().set(new CorrelationData.Confirm(ack, ack ? null : "Nacked"));
+        }
+        return products.send(message);
+      };
+    }
+
+    @Override
+    public MessageChannel outputRecommendations() {
+      return new QueueChannel();
+    }
+
+    @Override
+    public MessageChannel outputReviews() {
+      return new QueueChannel();
+    }
+  }
+}
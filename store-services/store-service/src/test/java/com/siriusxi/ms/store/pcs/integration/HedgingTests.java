@@ -0,0 +1,141 @@
+package com.siriusxi.ms.store.pcs.integration;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HedgingTests {
+
+  private static final String CALL = "recommendations";
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final AtomicInteger upstreamCalls = new AtomicInteger();
+  private final AtomicInteger hedgeSentAfterMs = new AtomicInteger(-1);
+
+  @Test
+  public void fastFirstRequestIsNotHedged() {
+
+    var hedging = hedging(10);
+
+    StepVerifier.create(hedging.flux(CALL, upstream(answer("first", 10), answer("hedge", 0))))
+        .expectNext("first")
+        .verifyComplete();
+
+    assertThat(upstreamCalls).hasValue(1);
+    assertThat(count("store.hedge.sent")).isZero();
+  }
+
+  @Test
+  public void slowFirstRequestIsHedgedAfterTheDelayAndTheHedgeWins() {
+
+    var hedging = hedging(10);
+
+    StepVerifier.create(hedging.flux(CALL, upstream(answer("first", 1000), answer("hedge", 0))))
+        .expectNext("hedge")
+        .verifyComplete();
+
+    assertThat(upstreamCalls).hasValue(2);
+    assertThat(hedgeSentAfterMs.get()).isBetween(50, 900);
+    assertThat(count("store.hedge.sent")).isEqualTo(1);
+    assertThat(count("store.hedge.won")).isEqualTo(1);
+  }
+
+  @Test
+  public void firstRequestWinsWhenItAnswersBeforeTheHedge() {
+
+    var hedging = hedging(10);
+
+    StepVerifier.create(hedging.flux(CALL, upstream(answer("first", 150), answer("hedge", 1000))))
+        .expectNext("first")
+        .verifyComplete();
+
+    assertThat(count("store.hedge.sent")).isEqualTo(1);
+    assertThat(count("store.hedge.won")).isZero();
+  }
+
+  @Test
+  public void hedgeIsDeniedOnceTheBudgetIsWithdrawn() {
+
+    // One token, and each request only adds a tenth of one.
+    var hedging = hedging(1);
+
+    for (int request = 0; request < 2; request++) {
+      upstreamCalls.set(0);
+      StepVerifier.create(hedging.flux(CALL, upstream(answer("first", 150), answer("hedge", 500))))
+          .expectNext("first")
+          .verifyComplete();
+    }
+
+    assertThat(count("store.hedge.sent")).isEqualTo(1);
+    assertThat(count("store.hedge.denied")).isEqualTo(1);
+    assertThat(upstreamCalls).hasValue(1);
+  }
+
+  @Test
+  public void clientErrorOfTheFirstRequestIsTheAnswer() {
+
+    var hedging = hedging(10);
+
+    StepVerifier.create(
+            hedging.flux(CALL, upstream(Mono.error(error(404)), answer("hedge", 0))))
+        .expectErrorMatches(
+            error ->
+                error instanceof WebClientResponseException wcre
+                    && wcre.getRawStatusCode() == 404)
+        .verify(Duration.ofSeconds(5));
+
+    assertThat(upstreamCalls).hasValue(1);
+    assertThat(count("store.hedge.sent")).isZero();
+  }
+
+  @Test
+  public void serverErrorOfTheFirstRequestWaitsForTheHedge() {
+
+    var hedging = hedging(10);
+
+    StepVerifier.create(
+            hedging.flux(CALL, upstream(Mono.error(error(500)), answer("hedge", 0))))
+        .expectNext("hedge")
+        .verifyComplete();
+
+    assertThat(upstreamCalls).hasValue(2);
+  }
+
+  private Hedging hedging(double maxBurst) {
+    return new Hedging(registry, true, 0.95, 50, 20, 10, maxBurst);
+  }
+
+  /** The first call gets the first answer, the hedge the second one. */
+  private Supplier<Flux<String>> upstream(Mono<String> first, Mono<String> hedge) {
+    long start = System.nanoTime();
+    return () -> {
+      if (upstreamCalls.incrementAndGet() == 1) return first.flux();
+      hedgeSentAfterMs.set((int) Duration.ofNanos(System.nanoTime() - start).toMillis());
+      return hedge.flux();
+    };
+  }
+
+  private Mono<String> answer(String answer, long delayMs) {
+    return Mono.delay(Duration.ofMillis(delayMs)).thenReturn(answer);
+  }
+
+  private WebClientResponseException error(int status) {
+    return WebClientResponseException.create(
+        status, "Status " + status, HttpHeaders.EMPTY, new byte[0], null);
+  }
+
+  private double count(String name) {
+    var counter = registry.find(name).tag("call", CALL).counter();
+    return counter == null ? 0 : counter.count();
+  }
+}
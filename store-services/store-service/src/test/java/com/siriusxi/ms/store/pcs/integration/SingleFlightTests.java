@@ -0,0 +1,84 @@
+package com.siriusxi.ms.store.pcs.integration;
+
+import com.siriusxi.ms.store.util.http.Deadlines;
+import com.siriusxi.ms.store.util.http.ReadYourWrites;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SingleFlightTests {
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final ReadYourWrites readYourWrites = new ReadYourWrites();
+  private final SingleFlight singleFlight =
+      new SingleFlight(registry, new Deadlines(registry), readYourWrites, true);
+
+  private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+  @Test
+  public void concurrentCallersShareTheUpstreamCall() {
+
+    Mono.when(call(), call(), call()).block();
+
+    assertThat(upstreamCalls).hasValue(1);
+  }
+
+  @Test
+  public void oneCallerCancellingDoesNotCancelTheSharedCall() {
+
+    var upstreamCancelled = new AtomicBoolean();
+    Supplier<Flux<Integer>> upstream =
+        () ->
+            Mono.delay(Duration.ofMillis(200))
+                .map(tick -> upstreamCalls.incrementAndGet())
+                .doOnCancel(() -> upstreamCancelled.set(true))
+                .flux();
+
+    var cancelling = singleFlight.flux("recommendations", 1, upstream).subscribe();
+
+    StepVerifier.create(singleFlight.flux("recommendations", 1, upstream))
+        .then(cancelling::dispose)
+        .expectNext(1)
+        .verifyComplete();
+
+    assertThat(upstreamCancelled).isFalse();
+    assertThat(upstreamCalls).hasValue(1);
+  }
+
+  @Test
+  public void callersReadingTheirWritesOnlyShareWithEachOther() {
+
+    Mono.when(call(), call(), readingTheirWrites(call()), readingTheirWrites(call())).block();
+
+    assertThat(upstreamCalls).hasValue(2);
+  }
+
+  private Mono<Void> call() {
+    Supplier<Flux<Integer>> upstream =
+        () ->
+            Mono.delay(Duration.ofMillis(200))
+                .map(tick -> upstreamCalls.incrementAndGet())
+                .flux();
+
+    return singleFlight.flux("recommendations", 1, upstream).then();
+  }
+
+  private Mono<Void> readingTheirWrites(Mono<Void> call) {
+    var exchange =
+        MockServerWebExchange.from(
+            MockServerHttpRequest.get("/").header(ReadYourWrites.HEADER, "true"));
+
+    return readYourWrites.filter(exchange, filtered -> call);
+  }
+}
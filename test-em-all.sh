@@ -190,25 +190,27 @@ function testCircuitBreaker() {
 
     # Open the circuit breaker by running three slow calls in a row,
     # i.e. that cause a timeout exception
-    # Also, verify that we get 500 back and a timeout related error message
+    # Also, verify that we get 200 back with the last known good, stale, copy of the product
     for ((n=0; n<3; n++))
     do
-        assertCurl 500 "curl -k https://${HOST}:${PORT}${BASE_URL}/$PROD_ID_REVS_RECS?delay=3 $AUTH -s"
-        message=$(echo ${RESPONSE} | jq -r .message)
-        assertEqual "Did not observe any item or terminal signal within 2000ms" "${message:0:57}"
+        assertCurl 200 "curl -k https://${HOST}:${PORT}${BASE_URL}/$PROD_ID_REVS_RECS?delay=3 $AUTH -s"
+        assertEqual "product name C" "$(echo "$RESPONSE" | jq -r .name)"
+        assertEqual "true" "$(echo "$RESPONSE" | jq -r .stale)"
     done
 
-    # Verify that the circuit breaker now is open by running the slow call again, verify it gets 200 back, i.e. fail fast works, and a response from the fallback method.
+    # Verify that the circuit breaker now is open by running the slow call again, verify it gets 200 back, i.e. fail fast works, and the stale copy of the product.
     assertCurl 200 "curl -k https://${HOST}:${PORT}${BASE_URL}/$PROD_ID_REVS_RECS?delay=3 $AUTH -s"
-    assertEqual "Fallback product2" "$(echo "$RESPONSE" | jq -r .name)"
+    assertEqual "product name C" "$(echo "$RESPONSE" | jq -r .name)"
+    assertEqual "true" "$(echo "$RESPONSE" | jq -r .stale)"
 
-    # Also, verify that the circuit breaker is open by running a normal call, verify it also gets 200 back and a response from the fallback method.
+    # Also, verify that the circuit breaker is open by running a normal call, verify it also gets 200 back and the stale copy of the product.
     assertCurl 200 "curl -k https://${HOST}:${PORT}${BASE_URL}/$PROD_ID_REVS_RECS $AUTH -s"
-    assertEqual "Fallback product2" "$(echo "$RESPONSE" | jq -r .name)"
+    assertEqual "product name C" "$(echo "$RESPONSE" | jq -r .name)"
+    assertEqual "true" "$(echo "$RESPONSE" | jq -r .stale)"
 
-    # Verify that a 404 (Not Found) error is returned for a non existing productId ($PROD_ID_NOT_FOUND) from the fallback method.
-    assertCurl 404 "curl -k https://${HOST}:${PORT}${BASE_URL}/$PROD_ID_NOT_FOUND $AUTH -s"
-    assertEqual "Product Id: $PROD_ID_NOT_FOUND not found in fallback cache!" "$(echo ${RESPONSE} | jq -r .message)"
+    # Verify that a 503 (Service Unavailable) error is returned for a productId ($PROD_ID_NOT_FOUND) that has no last known good copy.
+    assertCurl 503 "curl -k https://${HOST}:${PORT}${BASE_URL}/$PROD_ID_NOT_FOUND $AUTH -s"
+    assertEqual "Product Id: $PROD_ID_NOT_FOUND is unavailable, and has no last known good copy" "$(echo ${RESPONSE} | jq -r .message)"
 
     # Wait for the circuit breaker to transition to the half open state (i.e. max 10 sec)
     echo "Will sleep for 10 sec waiting for the CB to go Half Open..."
@@ -224,6 +226,7 @@ function testCircuitBreaker() {
     do
         assertCurl 200 "curl -k https://${HOST}:${PORT}${BASE_URL}/$PROD_ID_REVS_RECS $AUTH -s"
         assertEqual "product name C" "$(echo "$RESPONSE" | jq -r .name)"
+        assertEqual "false" "$(echo "$RESPONSE" | jq -r .stale)"
     done
 
     # Verify that the circuit breaker is in closed state again